@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.channel;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import io.reactivex.Flowable;
+import io.reactivex.netty.FutureFlowable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the write path of {@link ChannelOperationsHandler} in isolation from any
+ * transport by driving it through an {@link EmbeddedChannel}. Each invocation writes
+ * {@code count} buffers and drains the outbound messages so that the channel does not
+ * accumulate state across invocations.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhInclude=ChannelOperationsHandler}, the {@code gc}
+ * profiler is enabled by the build to report allocation per operation.
+ *
+ * @author Stephane Maldini
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChannelOperationsHandlerBenchmark {
+
+	@Param({"1", "32", "1024"})
+	int count;
+
+	@Param({"boundary", "each"})
+	String flush;
+
+	@Param({"64"})
+	int payloadSize;
+
+	EmbeddedChannel          channel;
+	ChannelOperationsHandler handler;
+	ByteBuf                  payload;
+	Flowable<ByteBuf>        source;
+	Flowable<Flowable<ByteBuf>> groups;
+
+	@Setup
+	public void setup() {
+		handler = new ChannelOperationsHandler(null);
+		if ("each".equals(flush)) {
+			handler.flushOnEach();
+		}
+		else {
+			handler.flushOnBoundary();
+		}
+
+		channel = new EmbeddedChannel();
+		channel.pipeline()
+		       .addLast(handler);
+
+		payload = PooledByteBufAllocator.DEFAULT.directBuffer(payloadSize);
+		payload.writeZero(payloadSize);
+
+		source = Flowable.range(0, count)
+		                 .map(i -> payload.retainedDuplicate());
+
+		// 8 buffers per group, mirroring a chunked body split in small frames
+		int groupSize = Math.min(8, count);
+		groups = Flowable.range(0, Math.max(1, count / groupSize))
+		                 .map(i -> Flowable.range(0, groupSize)
+		                                   .map(j -> payload.retainedDuplicate()));
+	}
+
+	@TearDown
+	public void teardown() {
+		channel.finishAndReleaseAll();
+		payload.release();
+	}
+
+	@Benchmark
+	public void send(Blackhole bh) {
+		bh.consume(channel.writeAndFlush(source));
+		drainOutbound(bh);
+	}
+
+	@Benchmark
+	public void sendObject(Blackhole bh) {
+		for (int i = 0; i < count; i++) {
+			bh.consume(channel.writeAndFlush(payload.retainedDuplicate()));
+		}
+		drainOutbound(bh);
+	}
+
+	@Benchmark
+	public void sendGroups(Blackhole bh) {
+		// same operator chain as NettyOutbound#sendGroups
+		groups.concatMapDelayError(g -> FutureFlowable.deferFuture(() -> channel.writeAndFlush(g)),
+				32,
+				false)
+		      .subscribe();
+		drainOutbound(bh);
+	}
+
+	void drainOutbound(Blackhole bh) {
+		channel.runPendingTasks();
+		Object msg;
+		while ((msg = channel.readOutbound()) != null) {
+			bh.consume(msg);
+			ReferenceCountUtil.release(msg);
+		}
+	}
+}
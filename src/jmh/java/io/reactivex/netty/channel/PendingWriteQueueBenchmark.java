@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.channel;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.reactivex.Flowable;
+import io.reactivex.internal.queue.SpscLinkedArrayQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link PendingWriteQueue} with the {@link SpscLinkedArrayQueue} dual offer it
+ * replaced in {@link ChannelOperationsHandler}, parking then draining {@code count}
+ * (future, message) pairs per invocation. Run with the {@code gc} profiler to compare
+ * allocation per operation.
+ *
+ * @author Stephane Maldini
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PendingWriteQueueBenchmark {
+
+	@Param({"1", "32", "1024"})
+	int count;
+
+	ChannelFuture                future;
+	Object                       message;
+	PendingWriteQueue            pendingWriteQueue;
+	SpscLinkedArrayQueue<Object> spscQueue;
+
+	@Setup
+	public void setup() {
+		future = new EmbeddedChannel().newPromise();
+		message = new Object();
+		pendingWriteQueue = new PendingWriteQueue(ChannelOperationsHandler.PENDING_WRITES_CHUNK_SIZE);
+		spscQueue = new SpscLinkedArrayQueue<>(Flowable.bufferSize());
+	}
+
+	@Benchmark
+	public void pendingWriteQueue(Blackhole bh) {
+		PendingWriteQueue q = pendingWriteQueue;
+		for (int i = 0; i < count; i++) {
+			q.offer(future, message);
+		}
+		ChannelFuture f;
+		while ((f = q.peekFuture()) != null) {
+			bh.consume(f);
+			bh.consume(q.peekMessage());
+			q.remove();
+		}
+	}
+
+	@Benchmark
+	public void spscLinkedArrayQueue(Blackhole bh) {
+		SpscLinkedArrayQueue<Object> q = spscQueue;
+		for (int i = 0; i < count; i++) {
+			q.offer(future, message);
+		}
+		Object f;
+		while ((f = q.poll()) != null) {
+			bh.consume(f);
+			bh.consume(q.poll());
+		}
+	}
+}
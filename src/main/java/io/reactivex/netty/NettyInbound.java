@@ -18,7 +18,9 @@
 package io.reactivex.netty;
 
 import java.net.InetSocketAddress;
+import java.util.Collections;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.util.Attribute;
 import io.netty.util.AttributeKey;
@@ -99,6 +101,22 @@ public interface NettyInbound {
 	}
 
 
+	/**
+	 * An inbound {@link Flowable} emitting everything read in a single read cycle
+	 * ({@code channelRead} to {@code channelReadComplete}) as one item: a {@link
+	 * io.netty.buffer.ByteBuf} if only buffers were read, composite if more than one,
+	 * or a {@link java.util.List} of the read messages otherwise. Each batch counts as
+	 * one item of demand and is released after being emitted like any received message.
+	 * <p>
+	 * Only one of {@link #receiveObject()}, {@link #receive()} and this method can be
+	 * subscribed.
+	 *
+	 * @return a batched inbound {@link Flowable}
+	 */
+	default Flowable<?> receiveBatches() {
+		return receiveObject().map(o -> o instanceof ByteBuf ? o : Collections.singletonList(o));
+	}
+
 	/**
 	 * a {@literal Object} inbound {@link Flowable}
 	 *
@@ -36,6 +36,7 @@ import io.reactivex.Flowable;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.Consumer;
 import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.fuseable.ScalarCallable;
 import io.reactivex.netty.channel.data.AbstractFileChunkedStrategy;
 import io.reactivex.netty.channel.data.FileChunkedStrategy;
 import org.reactivestreams.Publisher;
@@ -340,6 +341,15 @@ public interface NettyOutbound extends Publisher<Void> {
 	 */
 	default NettyOutbound sendString(Publisher<? extends String> dataStream,
 			Charset charset) {
+		if (dataStream instanceof ScalarCallable) {
+			// remain a scalar body so that it can be sent at once
+			String s = (String) ((ScalarCallable<?>) dataStream).call();
+			if (s == null) {
+				return sendObject(Flowable.empty());
+			}
+			return sendObject(Flowable.fromCallable(() -> alloc().buffer()
+			                                                     .writeBytes(s.getBytes(charset))));
+		}
 		return sendObject(Flowable.fromPublisher(dataStream)
 		                      .map(s -> alloc()
 		                                   .buffer()
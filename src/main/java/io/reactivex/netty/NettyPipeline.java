@@ -17,6 +17,8 @@
 
 package io.reactivex.netty;
 
+import java.util.concurrent.TimeUnit;
+
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandler;
 import io.reactivex.functions.BiConsumer;
@@ -35,7 +37,11 @@ import org.reactivestreams.Publisher;
  * -> ssl & trace log ? [SslLoggingHandler]
  * -> ssl ? [SslReader]
  * -> log ? [LoggingHandler]
+ * -> http2 cleartext or alpn ? [HttpProtocolDetector]
  * -> http ? [HttpCodecHandler]
+ * -> http2 cleartext ? [HttpUpgradeHandler]
+ * -> http2 ? [Http2Codec]
+ * -> http2 stream ? [Http2StreamCodec]
  * -> http ws ? [HttpAggregator]
  * -> http server  ? [HttpServerHandler]
  * -> onWriteIdle ? [OnChannelWriteIdle]
@@ -63,6 +69,10 @@ public final class NettyPipeline {
 	public static String HttpCompressor     = LEFT + "compressor";
 	public static String HttpAggregator     = LEFT + "httpAggregator";
 	public static String HttpServerHandler  = LEFT + "httpServerHandler";
+	public static String HttpUpgradeHandler = LEFT + "httpUpgradeHandler";
+	public static String HttpProtocolDetector = LEFT + "httpProtocolDetector";
+	public static String Http2Codec         = LEFT + "http2Codec";
+	public static String Http2StreamCodec   = LEFT + "http2StreamCodec";
 	public static String OnChannelWriteIdle = LEFT + "onChannelWriteIdle";
 	public static String OnChannelReadIdle  = LEFT + "onChannelReadIdle";
 	public static String ChunkedWriter      = LEFT + "chunkedWriter";
@@ -89,6 +99,38 @@ public final class NettyPipeline {
 		 */
 		SendOptions flushOnEach();
 
+		/**
+		 * Make the underlying channel flush once {@code maxPendingBytes} bytes or {@code
+		 * maxPendingMessages} messages have been written since the last flush, or {@code
+		 * maxDelay} after the first write not yet flushed, whichever comes first. A
+		 * terminated {@link Publisher} is always flushed. A criterion lower or equal to 0 is
+		 * ignored.
+		 *
+		 * @param maxPendingBytes the number of pending bytes triggering a flush
+		 * @param maxPendingMessages the number of pending messages triggering a flush
+		 * @param maxDelay the maximum time a write can stay unflushed
+		 * @param unit the {@code maxDelay} unit
+		 *
+		 * @return this builder
+		 */
+		SendOptions flushOnThreshold(long maxPendingBytes,
+				int maxPendingMessages,
+				long maxDelay,
+				TimeUnit unit);
+
+		/**
+		 * Merge consecutive {@link io.netty.buffer.ByteBuf} smaller than {@code maxBytes}
+		 * emitted by a sent {@link Publisher} into a single write of up to {@code
+		 * maxBytes}. Buffers up to {@code copyThreshold} bytes are copied into a pooled
+		 * buffer, larger ones are composed without copy. Coalesced buffers are always
+		 * written before a flush and are ignored by {@link #flushOnEach()}.
+		 *
+		 * @param maxBytes the maximum size of a coalesced write, 0 to disable (default)
+		 * @param copyThreshold the maximum size of a buffer copied rather than composed
+		 *
+		 * @return this builder
+		 */
+		SendOptions coalesce(int maxBytes, int copyThreshold);
 
 	}
 
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+
+/**
+ * Merge consecutive small {@link ByteBuf} into a single buffer written with one promise.
+ * Buffers up to {@code copyThreshold} bytes are copied into a pooled buffer and
+ * released, larger ones are added as a {@link CompositeByteBuf} component without copy.
+ * Not thread-safe, driven by a single {@link ChannelOperationsHandler.PublisherSender}.
+ *
+ * @author Stephane Maldini
+ */
+final class ByteBufCoalescer {
+
+	final ByteBufAllocator alloc;
+	final int              maxBytes;
+	final int              copyThreshold;
+
+	CompositeByteBuf composite;
+	ByteBuf          copy;
+	int              size;
+
+	ByteBufCoalescer(ByteBufAllocator alloc, int maxBytes, int copyThreshold) {
+		this.alloc = alloc;
+		this.maxBytes = maxBytes;
+		this.copyThreshold = copyThreshold;
+	}
+
+	/**
+	 * @param buf the candidate buffer
+	 *
+	 * @return true if the given buffer is small enough to be coalesced
+	 */
+	boolean accepts(ByteBuf buf) {
+		return buf.readableBytes() < maxBytes;
+	}
+
+	/**
+	 * Take ownership of the given buffer.
+	 *
+	 * @param buf the buffer to coalesce
+	 */
+	void add(ByteBuf buf) {
+		int n = buf.readableBytes();
+		if (n <= copyThreshold) {
+			if (copy == null || copy.writableBytes() < n) {
+				appendCopy();
+				copy = alloc.ioBuffer(Math.max(n, maxBytes - size));
+			}
+			try {
+				copy.writeBytes(buf);
+			}
+			finally {
+				buf.release();
+			}
+		}
+		else {
+			appendCopy();
+			if (composite == null) {
+				composite = alloc.compositeBuffer(Integer.MAX_VALUE);
+			}
+			composite.addComponent(true, buf);
+		}
+		size += n;
+	}
+
+	/**
+	 * @return true if {@link #maxBytes} have been reached and {@link #take()} should be
+	 * written
+	 */
+	boolean isFull() {
+		return size >= maxBytes;
+	}
+
+	/**
+	 * @return true if no buffer is pending
+	 */
+	boolean isEmpty() {
+		return size == 0 && copy == null && composite == null;
+	}
+
+	/**
+	 * Return the coalesced buffer and reset this coalescer, ownership is transferred to
+	 * the caller.
+	 *
+	 * @return the coalesced buffer or null if empty
+	 */
+	ByteBuf take() {
+		ByteBuf result;
+		if (composite != null) {
+			appendCopy();
+			result = composite;
+		}
+		else {
+			result = copy;
+		}
+		composite = null;
+		copy = null;
+		size = 0;
+		return result;
+	}
+
+	/**
+	 * Release any pending buffer.
+	 */
+	void release() {
+		ByteBuf b = take();
+		if (b != null) {
+			b.release();
+		}
+	}
+
+	void appendCopy() {
+		if (copy != null) {
+			if (composite == null) {
+				composite = alloc.compositeBuffer(Integer.MAX_VALUE);
+			}
+			composite.addComponent(true, copy);
+			copy = null;
+		}
+	}
+}
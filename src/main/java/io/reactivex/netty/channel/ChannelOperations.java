@@ -153,6 +153,10 @@ public class ChannelOperations<INBOUND extends NettyInbound, OUTBOUND extends Ne
 	@Override
 	public InetSocketAddress address() {
 		Channel c = channel();
+		if (!(c instanceof SocketChannel) && c.parent() instanceof SocketChannel) {
+			// multiplexed stream
+			c = c.parent();
+		}
 		if (c instanceof SocketChannel) {
 			return ((SocketChannel) c).remoteAddress();
 		}
@@ -236,6 +240,11 @@ public class ChannelOperations<INBOUND extends NettyInbound, OUTBOUND extends Ne
 		return inbound;
 	}
 
+	@Override
+	public Flowable<?> receiveBatches() {
+		return inbound.batches();
+	}
+
 	@Override
 	public final InetSocketAddress remoteAddress() {
 		return (InetSocketAddress) channel.remoteAddress();
@@ -264,6 +273,14 @@ public class ChannelOperations<INBOUND extends NettyInbound, OUTBOUND extends Ne
 		return inbound.isCancelled() || !channel.isActive();
 	}
 
+	/**
+	 * Cancel the inbound receiver if any and release the received messages not
+	 * consumed yet
+	 */
+	protected final void cancelInbound() {
+		inbound.cancel();
+	}
+
 
 	/**
 	 * Return true if inbound traffic is not expected anymore
@@ -311,6 +328,16 @@ public class ChannelOperations<INBOUND extends NettyInbound, OUTBOUND extends Ne
 		inbound.onInboundNext(msg);
 	}
 
+	/**
+	 * React on the end of a read cycle, after one or more {@link
+	 * #onInboundNext(ChannelHandlerContext, Object)}
+	 *
+	 * @param ctx the context
+	 */
+	protected void onInboundReadComplete(ChannelHandlerContext ctx) {
+		inbound.onInboundReadComplete();
+	}
+
 	/**
 	 * Replace and complete previous operation inbound
 	 *
@@ -335,9 +362,7 @@ public class ChannelOperations<INBOUND extends NettyInbound, OUTBOUND extends Ne
 	 * React on inbound completion (last packet)
 	 */
 	protected void onInboundComplete() {
-		if (inbound.onInboundComplete()) {
-			context.fireContextActive(this);
-		}
+		inbound.onInboundComplete();
 	}
 
 	/**
@@ -410,9 +435,7 @@ public class ChannelOperations<INBOUND extends NettyInbound, OUTBOUND extends Ne
 	 */
 	protected final void onInboundError(Throwable err) {
 		discreteRemoteClose(err);
-		if (inbound.onInboundError(err)) {
-			context.fireContextError(err);
-		}
+		inbound.onInboundError(err);
 	}
 
 	/**
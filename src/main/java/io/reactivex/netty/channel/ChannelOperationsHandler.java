@@ -18,6 +18,8 @@
 package io.reactivex.netty.channel;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
@@ -26,6 +28,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufHolder;
 import io.netty.buffer.EmptyByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.channel.Channel.Unsafe;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelFuture;
@@ -34,12 +37,10 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.FileRegion;
+import io.netty.handler.codec.http2.Http2StreamChannel;
 import io.netty.util.ReferenceCountUtil;
-import io.reactivex.Flowable;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.BiConsumer;
-import io.reactivex.functions.BiPredicate;
-import io.reactivex.internal.queue.SpscLinkedArrayQueue;
 import io.reactivex.internal.subscriptions.ScalarSubscription;
 import io.reactivex.internal.subscriptions.SubscriptionHelper;
 import io.reactivex.internal.util.BackpressureHelper;
@@ -64,16 +65,45 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 	final ContextHandler<?>              originContext;
 
 	/**
-	 * Cast the supplied queue (SpscLinkedArrayQueue) to use its atomic dual-insert
-	 * backed by {@link BiPredicate#test}
+	 * Parked (future, message) pairs, lazily created on first write
 	 **/
-	SpscLinkedArrayQueue<Object>        pendingWrites;
+	PendingWriteQueue                   pendingWrites;
 	ChannelHandlerContext               ctx;
 	boolean                             flushOnEach;
 
 	long                                pendingBytes;
+	int                                 pendingMessages;
 	ContextHandler<?>                   lastContext;
 
+	/**
+	 * Flush thresholds set by {@link #flushOnThreshold}, disabled when lower or equal to 0
+	 */
+	long                                flushBytes;
+	int                                 flushMessages;
+	long                                flushDelayNanos;
+	ScheduledFuture<?>                  scheduledFlush;
+
+	/**
+	 * Write coalescing set by {@link #coalesce}, disabled when lower or equal to 0
+	 */
+	int                                 coalesceBytes;
+	int                                 coalesceCopyThreshold;
+
+	/**
+	 * Moving average of the size of messages sent by {@link PublisherSender}
+	 */
+	long                                averageMessageBytes;
+
+	/**
+	 * True while the handler writes or flushes: the exceptions caught meanwhile are the
+	 * failures of writes made with a void promise
+	 */
+	boolean                             writing;
+	/**
+	 * True once the channel notified a writability change, see {@link #isWritable()}
+	 */
+	boolean                             writabilityReported;
+
 	private Unsafe                      unsafe;
 
 	volatile boolean innerActive;
@@ -137,8 +167,24 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 		}
 	}
 
+	@Override
+	public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+		try {
+			ChannelOperations<?, ?> ops = ChannelOperations.get(ctx.channel());
+			if (ops != null) {
+				ops.onInboundReadComplete(ctx);
+			}
+		}
+		catch (Throwable err) {
+			Exceptions.throwIfFatal(err);
+			exceptionCaught(ctx, err);
+		}
+		ctx.fireChannelReadComplete();
+	}
+
 	@Override
 	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+		writabilityReported = true;
 		drain();
 	}
 
@@ -146,6 +192,11 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 	final public void exceptionCaught(ChannelHandlerContext ctx, Throwable err)
 			throws Exception {
 		Exceptions.throwIfFatal(err);
+		if (writing && innerActive) {
+			// a write with a void promise failed while writing or flushing the send
+			inner.onWriteError(err);
+			return;
+		}
 		ChannelOperations<?, ?> ops = ChannelOperations.get(ctx.channel());
 		if (ops != null) {
 			ops.onInboundError(err);
@@ -175,6 +226,7 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 		if (!removed) {
 			removed = true;
 
+			cancelScheduledFlush();
 			inner.cancel();
 			drain();
 		}
@@ -202,44 +254,80 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
 			throws Exception {
 		if (pendingWrites == null) {
-			this.pendingWrites = new SpscLinkedArrayQueue<>(Flowable.bufferSize());
+			this.pendingWrites = new PendingWriteQueue(PENDING_WRITES_CHUNK_SIZE);
 		}
 
-		if (!pendingWrites.offer(promise, msg)) {
-			promise.setFailure(new IllegalStateException("Send Queue full?!"));
-		}
+		pendingWrites.offer(promise, msg);
 	}
 
 	@Override
 	public NettyPipeline.SendOptions flushOnBoundary() {
 		flushOnEach = false;
+		setFlushThreshold(0L, 0, 0L);
 		return this;
 	}
 
 	@Override
 	public NettyPipeline.SendOptions flushOnEach() {
 		flushOnEach = true;
+		setFlushThreshold(0L, 0, 0L);
+		return this;
+	}
+
+	@Override
+	public NettyPipeline.SendOptions flushOnThreshold(long maxPendingBytes,
+			int maxPendingMessages,
+			long maxDelay,
+			TimeUnit unit) {
+		flushOnEach = false;
+		setFlushThreshold(maxPendingBytes, maxPendingMessages, unit.toNanos(maxDelay));
+		return this;
+	}
+
+	@Override
+	public NettyPipeline.SendOptions coalesce(int maxBytes, int copyThreshold) {
+		this.coalesceBytes = maxBytes;
+		this.coalesceCopyThreshold = copyThreshold;
 		return this;
 	}
 
+	void setFlushThreshold(long bytes, int messages, long delayNanos) {
+		this.flushBytes = bytes;
+		this.flushMessages = messages;
+		this.flushDelayNanos = delayNanos;
+		if (delayNanos <= 0L) {
+			cancelScheduledFlush();
+		}
+	}
+
 	@Override
 	public void operationComplete(ChannelFuture future) throws Exception {
-		if (future.isSuccess()) {
-			inner.request(1L);
+		if (!future.isSuccess()) {
+			inner.onWriteError(future.cause());
 		}
+		inner.requestDeferred(future.isSuccess());
 	}
 
 	ChannelFuture doWrite(Object msg, ChannelPromise promise, PublisherSender inner) {
+		boolean w = writing;
+		writing = true;
+		try {
+			return write0(msg, promise, inner);
+		}
+		finally {
+			writing = w;
+		}
+	}
+
+	ChannelFuture write0(Object msg, ChannelPromise promise, PublisherSender inner) {
 		if (flushOnEach || //fastpath
 				inner == null && pendingWrites.isEmpty() || //last drained element
-				!ctx.channel()
-				    .isWritable() //force flush if write buffer full
+				!isWritable() //force flush if write buffer full
 				) {
-			pendingBytes = 0L;
+			resetPending();
 
 			ChannelFuture future = ctx.writeAndFlush(msg, promise);
 			
@@ -249,56 +337,139 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 			return future;
 		}
 		else {
-			if (msg instanceof ByteBuf) {
-				pendingBytes =
-						BackpressureHelper.addCap(pendingBytes, ((ByteBuf) msg).readableBytes());
-			}
-			else if (msg instanceof ByteBufHolder) {
-				pendingBytes = BackpressureHelper.addCap(pendingBytes,
-						((ByteBufHolder) msg).content()
-						                     .readableBytes());
-			}
-			else if (msg instanceof FileRegion) {
-				pendingBytes = BackpressureHelper.addCap(pendingBytes, ((FileRegion) msg).count());
-			}
+			pendingBytes = BackpressureHelper.addCap(pendingBytes, sizeOf(msg));
+			pendingMessages++;
 			if (inner != null && inner.justFlushed) {
 				inner.justFlushed = false;
 			}
 			ChannelFuture future = ctx.write(msg, promise);
-			if (!ctx.channel().isWritable()) {
-				pendingBytes = 0L;
-				ctx.flush();
+			if (!isWritable() || thresholdReached()) {
+				doFlush();
 				if (inner != null && !hasPendingWriteBytes()) {
 					inner.justFlushed = true;
 				}
 			}
+			else {
+				scheduleFlush();
+			}
 			return future;
 		}
 	}
 
+	/**
+	 * Update the moving average of sent message sizes used to convert the channel
+	 * remaining write capacity into a number of messages.
+	 *
+	 * @param size the last sent message size in bytes
+	 */
+	void recordMessageSize(long size) {
+		long avg = averageMessageBytes;
+		averageMessageBytes = avg == 0L ? size : avg - (avg >> 3) + (size >> 3);
+	}
+
+	/**
+	 * @param outstanding the number of messages already requested and not yet received
+	 *
+	 * @return true if the channel can take one more average message on top of the
+	 * outstanding ones before reaching its write buffer high water mark
+	 */
+	boolean hasWriteCapacity(long outstanding) {
+		long avg = averageMessageBytes;
+		return avg == 0L || ctx.channel()
+		                       .bytesBeforeUnwritable() / avg > outstanding;
+	}
+
+	boolean thresholdReached() {
+		return (flushBytes > 0L && pendingBytes >= flushBytes) ||
+				(flushMessages > 0 && pendingMessages >= flushMessages);
+	}
+
+	/**
+	 * Flush the channel and reset the pending write accounting.
+	 */
+	void doFlush() {
+		resetPending();
+		boolean w = writing;
+		writing = true;
+		try {
+			ctx.flush();
+		}
+		finally {
+			writing = w;
+		}
+	}
+
+	void resetPending() {
+		pendingBytes = 0L;
+		pendingMessages = 0;
+		cancelScheduledFlush();
+	}
+
+	void scheduleFlush() {
+		if (flushDelayNanos > 0L && scheduledFlush == null) {
+			scheduledFlush = ctx.executor()
+			                    .schedule(this::onScheduledFlush,
+					                    flushDelayNanos,
+					                    TimeUnit.NANOSECONDS);
+		}
+	}
+
+	void cancelScheduledFlush() {
+		ScheduledFuture<?> f = scheduledFlush;
+		if (f != null) {
+			scheduledFlush = null;
+			f.cancel(false);
+		}
+	}
+
+	void onScheduledFlush() {
+		scheduledFlush = null;
+		if (innerActive) {
+			inner.writeCoalesced();
+		}
+		if (removed || pendingMessages == 0) {
+			return;
+		}
+		doFlush();
+		if (innerActive && !hasPendingWriteBytes()) {
+			inner.justFlushed = true;
+		}
+	}
+
+	static long sizeOf(Object msg) {
+		if (msg instanceof ByteBuf) {
+			return ((ByteBuf) msg).readableBytes();
+		}
+		if (msg instanceof ByteBufHolder) {
+			return ((ByteBufHolder) msg).content()
+			                            .readableBytes();
+		}
+		if (msg instanceof FileRegion) {
+			return ((FileRegion) msg).count();
+		}
+		return 0L;
+	}
+
 	void discard() {
 		for (; ; ) {
-			if (pendingWrites == null || pendingWrites.isEmpty()) {
+			if (pendingWrites == null) {
 				return;
 			}
 
-			ChannelPromise promise;
-			Object v = pendingWrites.poll();
-
-			try {
-				promise = (ChannelPromise) v;
-			}
-			catch (Throwable e) {
-				ctx.fireExceptionCaught(e);
+			ChannelFuture future = pendingWrites.peekFuture();
+			if (future == null) {
 				return;
 			}
-			v = pendingWrites.poll();
+			Object v = pendingWrites.peekMessage();
+			pendingWrites.remove();
+
 			ReferenceCountUtil.release(v);
-			promise.tryFailure(new AbortedException("Connection has been closed"));
+			if (future instanceof ChannelPromise) {
+				((ChannelPromise) future).tryFailure(new AbortedException("Connection has been closed"));
+			}
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	void drain() {
 		if (WIP.getAndIncrement(this) == 0) {
 
@@ -308,10 +479,9 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 					return;
 				}
 
-				if (pendingWrites == null || innerActive || !ctx.channel()
-				                                                .isWritable()) {
-					if (!ctx.channel().isWritable() && hasPendingWriteBytes()) {
-						ctx.flush();
+				if (pendingWrites == null || innerActive || !isWritable()) {
+					if (!isWritable() && hasPendingWriteBytes()) {
+						doFlush();
 					}
 					if (WIP.decrementAndGet(this) == 0) {
 						break;
@@ -319,32 +489,22 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 					continue;
 				}
 
-				ChannelFuture future;
-				Object v = pendingWrites.poll();
+				ChannelFuture future = pendingWrites.peekFuture();
 
-				try {
-					future = (ChannelFuture) v;
-				}
-				catch (Throwable e) {
-					ctx.fireExceptionCaught(e);
-					return;
-				}
-
-				boolean empty = future == null;
-
-				if (empty) {
+				if (future == null) {
 					if (WIP.decrementAndGet(this) == 0) {
 						break;
 					}
 					continue;
 				}
 
-				v = pendingWrites.poll();
+				Object v = pendingWrites.peekMessage();
+				pendingWrites.remove();
 
 				if (!innerActive && v == PublisherSender.PENDING_WRITES) {
 					boolean last = pendingWrites.isEmpty();
 					if (!future.isDone() && hasPendingWriteBytes()) {
-						ctx.flush();
+						doFlush();
 						if (!future.isDone() && hasPendingWriteBytes()) {
 							pendingWrites.offer(future, v);
 						}
@@ -382,12 +542,14 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 							}
 							else {
 								innerActive = true;
+								inner.writeError = null;
 								inner.promise = promise;
 								inner.onSubscribe(new ScalarSubscription<>(inner, vr));
 							}
 						}
 						else {
 							innerActive = true;
+							inner.writeError = null;
 							inner.promise = promise;
 							p.subscribe(inner);
 						}
@@ -400,6 +562,22 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 		}
 	}
 
+	/**
+	 * HTTP/2 streams have no {@link ChannelOutboundBuffer} and only report their flow
+	 * control writability once it changed after a first frame has been written, until
+	 * then the parent connection writability applies.
+	 *
+	 * @return true if the channel accepts writes without buffering them
+	 */
+	boolean isWritable() {
+		Channel channel = ctx.channel();
+		if (!writabilityReported && channel instanceof Http2StreamChannel) {
+			return channel.parent()
+			              .isWritable();
+		}
+		return channel.isWritable();
+	}
+
 	private boolean hasPendingWriteBytes() {
 		// On close the outboundBuffer is made null. After that point
 		// adding messages and flushes to outboundBuffer is not allowed.
@@ -415,7 +593,12 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 		volatile Subscription missedSubscription;
 		volatile long         missedRequested;
 		volatile long         missedProduced;
+		volatile long         deferred;
 		volatile int          wip;
+		/**
+		 * The write error failing the current send, later signals are dropped
+		 */
+		volatile Throwable    writeError;
 
 		boolean        inactive;
 		boolean        justFlushed;
@@ -432,6 +615,8 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 		ChannelPromise promise;
 		ChannelFuture  lastWrite;
 
+		ByteBufCoalescer coalescer;
+
 		PublisherSender(ChannelOperationsHandler parent) {
 			this.parent = parent;
 		}
@@ -441,16 +626,26 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 			if (!inactive) {
 				inactive = true;
 
+				ByteBufCoalescer c = coalescer;
+				if (c != null) {
+					coalescer = null;
+					c.release();
+				}
+
 				drain();
 			}
 		}
 
 		@Override
 		public void onComplete() {
+			if (writeError != null) {
+				return;
+			}
 			if (parent.ctx.pipeline().get(NettyPipeline.CompressionHandler) != null) {
 				parent.ctx.pipeline()
 				          .fireUserEventTriggered(NettyPipeline.responseCompressionEvent());
 			}
+			prepareTerminate();
 			long p = produced;
 			ChannelFuture f = lastWrite;
 			parent.innerActive = false;
@@ -461,7 +656,7 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 				if (!justFlushed) {
 					if (parent.ctx.channel()
 					              .isActive()) {
-						parent.ctx.flush();
+						parent.doFlush();
 						if (!parent.hasPendingWriteBytes()) {
 						    justFlushed = true;
 						}
@@ -487,6 +682,10 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 
 		@Override
 		public void onError(Throwable t) {
+			if (writeError != null) {
+				return;
+			}
+			prepareTerminate();
 			long p = produced;
 			ChannelFuture f = lastWrite;
 			parent.innerActive = false;
@@ -496,7 +695,7 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 				produced(p);
 				if (parent.ctx.channel()
 				              .isActive()) {
-					parent.ctx.flush();
+					parent.doFlush();
 					if (!parent.hasPendingWriteBytes()) {
 					    justFlushed = true;
 					}
@@ -521,15 +720,173 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 
 		@Override
 		public void onNext(Object t) {
+			if (writeError != null) {
+				ReferenceCountUtil.release(t);
+				return;
+			}
 			produced++;
 
-			lastWrite = parent.doWrite(t, parent.ctx.newPromise(), this);
-			if (parent.ctx.channel()
-			              .isWritable()) {
+			long size = sizeOf(t);
+			if (size != 0L) {
+				parent.recordMessageSize(size);
+			}
+
+			if (t instanceof ByteBuf && coalesce((ByteBuf) t)) {
+				if (!coalescer.isFull()) {
+					request(1L);
+					return;
+				}
+				t = coalescer.take();
+			}
+			else {
+				writeCoalesced();
+			}
+
+			// replenish demand only while the channel can absorb the outstanding
+			// messages, otherwise wait for the write to complete. The write outcome is
+			// not observed in the former case and a void promise is enough.
+			long outstanding = requested - produced;
+			if (parent.isWritable() && parent.hasWriteCapacity(outstanding)) {
+				lastWrite = parent.doWrite(t, parent.ctx.voidPromise(), this);
 				request(1L);
 			}
 			else {
-				lastWrite.addListener(parent);
+				lastWrite = parent.doWrite(t, parent.ctx.newPromise(), this);
+				deferRequest(lastWrite);
+				if (outstanding <= 0L && !justFlushed) {
+					// no more data is coming until a write completes
+					parent.doFlush();
+					justFlushed = !parent.hasPendingWriteBytes();
+				}
+			}
+		}
+
+		/**
+		 * Fail the current send on a write error: the upstream is cancelled, signals it
+		 * may still emit are dropped and the next pending write can proceed.
+		 *
+		 * @param err the write error
+		 */
+		final void onWriteError(Throwable err) {
+			ChannelPromise promise = this.promise;
+			if (!parent.innerActive || writeError != null || promise == null || promise.isDone()) {
+				return;
+			}
+			writeError = err;
+			Subscription a = actual;
+			if (a != null) {
+				a.cancel();
+			}
+			ByteBufCoalescer c = coalescer;
+			if (c != null) {
+				coalescer = null;
+				c.release();
+			}
+			long p = produced;
+			if (p != 0L) {
+				produced = 0L;
+				produced(p);
+			}
+			lastWrite = null;
+			parent.innerActive = false;
+			// elements written before the failure are not left pending
+			parent.ctx.flush();
+			promise.tryFailure(err);
+			parent.drain();
+		}
+
+		/**
+		 * Count one more item to request once a write completes, only the first deferred
+		 * write of a batch registers a listener and its completion requests the whole
+		 * batch.
+		 *
+		 * @param f the deferred write
+		 */
+		final void deferRequest(ChannelFuture f) {
+			if (DEFERRED.getAndIncrement(this) == 0L) {
+				f.addListener(parent);
+			}
+		}
+
+		/**
+		 * Request the items deferred by {@link #deferRequest(ChannelFuture)}.
+		 *
+		 * @param success true if the observed write succeeded
+		 */
+		final void requestDeferred(boolean success) {
+			long n = DEFERRED.getAndSet(this, 0L);
+			if (success && n != 0L) {
+				request(n);
+			}
+		}
+
+		/**
+		 * Make sure {@link #lastWrite} can be observed before completing the send. Pending
+		 * coalesced buffers are written and, if the last write used a void promise, the
+		 * channel is flushed: if everything has been written {@link #lastWrite} is
+		 * cleared, otherwise an empty buffer is written and its promise will complete
+		 * after all the previous writes.
+		 */
+		final void prepareTerminate() {
+			writeCoalesced();
+			ChannelFuture f = lastWrite;
+			if (f == null || !f.isVoid()) {
+				return;
+			}
+			lastWrite = null;
+			if (!parent.ctx.channel()
+			               .isActive()) {
+				justFlushed = false;
+				return;
+			}
+			parent.doFlush();
+			if (parent.hasPendingWriteBytes()) {
+				lastWrite = parent.doWrite(Unpooled.EMPTY_BUFFER, parent.ctx.newPromise(), this);
+			}
+			else {
+				justFlushed = true;
+			}
+		}
+
+		/**
+		 * Retain the given buffer in the {@link ByteBufCoalescer} if coalescing is
+		 * enabled. Only buffers emitted on the event loop are coalesced so that the
+		 * scheduled flush can safely write them.
+		 *
+		 * @param buf the emitted buffer
+		 *
+		 * @return true if the buffer has been coalesced
+		 */
+		final boolean coalesce(ByteBuf buf) {
+			ChannelOperationsHandler parent = this.parent;
+			if (parent.coalesceBytes <= 0 || parent.flushOnEach || !parent.ctx.executor()
+			                                                                  .inEventLoop()) {
+				return false;
+			}
+			ByteBufCoalescer c = coalescer;
+			if (c == null || c.maxBytes != parent.coalesceBytes ||
+					c.copyThreshold != parent.coalesceCopyThreshold) {
+				writeCoalesced();
+				c = new ByteBufCoalescer(parent.ctx.alloc(),
+						parent.coalesceBytes,
+						parent.coalesceCopyThreshold);
+				coalescer = c;
+			}
+			if (!c.accepts(buf)) {
+				return false;
+			}
+			c.add(buf);
+			parent.scheduleFlush();
+			return true;
+		}
+
+		/**
+		 * Write any pending coalesced buffer.
+		 */
+		final void writeCoalesced() {
+			ByteBufCoalescer c = coalescer;
+			if (c != null && !c.isEmpty()) {
+				lastWrite = parent.doWrite(c.take(), parent.ctx.voidPromise(), this);
 			}
 		}
 
@@ -749,6 +1106,9 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 				AtomicLongFieldUpdater.newUpdater(PublisherSender.class,
 						"missedProduced");
 		@SuppressWarnings("rawtypes")
+		static final AtomicLongFieldUpdater<PublisherSender>    DEFERRED            =
+				AtomicLongFieldUpdater.newUpdater(PublisherSender.class, "deferred");
+		@SuppressWarnings("rawtypes")
 		static final AtomicIntegerFieldUpdater<PublisherSender> WIP                 =
 				AtomicIntegerFieldUpdater.newUpdater(PublisherSender.class, "wip");
 
@@ -762,6 +1122,8 @@ final class ChannelOperationsHandler extends ChannelDuplexHandler
 	static final BiConsumer<?, ? super ByteBuf> NOOP_ENCODER = (a, b) -> {
 	};
 
+	static final int PENDING_WRITES_CHUNK_SIZE = 32;
+
 	private static final class PendingWritesOnCompletion {
 		@Override
 		public String toString() {
@@ -326,6 +326,26 @@ public abstract class ContextHandler<CHANNEL extends Channel>
 		}
 	}
 
+	/**
+	 * Initialize a {@link Channel} multiplexed over a connection initialized by this
+	 * context, e.g. an HTTP/2 stream. The given configurator adds the protocol handlers
+	 * then the {@link NettyPipeline#ReactiveBridge} is added. SSL, logging and channel
+	 * init callbacks only apply to the parent connection.
+	 *
+	 * @param stream the multiplexed {@link Channel}
+	 * @param streamConfigurator a configurator for the stream codecs
+	 *
+	 * @throws Exception if the configurator fails
+	 */
+	@SuppressWarnings("unchecked")
+	public final void initStreamChannel(Channel stream,
+			BiConsumer<ChannelPipeline, ContextHandler<Channel>> streamConfigurator)
+			throws Exception {
+		streamConfigurator.accept(stream.pipeline(), (ContextHandler<Channel>) this);
+		stream.pipeline()
+		      .addLast(NettyPipeline.ReactiveBridge, new ChannelOperationsHandler(this));
+	}
+
 	/**
 	 * @param channel
 	 */
@@ -17,9 +17,12 @@
 
 package io.reactivex.netty.channel;
 
+import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.EventLoop;
 import io.netty.util.ReferenceCountUtil;
@@ -30,6 +33,7 @@ import io.reactivex.internal.queue.SpscLinkedArrayQueue;
 import io.reactivex.internal.subscriptions.EmptySubscription;
 import io.reactivex.internal.subscriptions.SubscriptionHelper;
 import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.netty.options.ReceiveWaterMark;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 
@@ -43,10 +47,26 @@ final class FlowableReceive extends Flowable<Object> implements Subscription, Di
 	final EventLoop         eventLoop;
 
 	Subscriber<? super Object>     receiver;
-	boolean                        receiverFastpath;
 	long                           receiverDemand;
 	SpscLinkedArrayQueue<Object>   receiverQueue;
 
+	/**
+	 * Set when subscribed via {@link #batches()}, messages read in a single read cycle
+	 * are then grouped in {@link #pendingBatch}
+	 */
+	boolean                        batching;
+	Batch                          pendingBatch;
+
+	/**
+	 * Messages and bytes held in {@link #receiverQueue}, reading is suspended above
+	 * the {@link #waterMark} high marks
+	 */
+	final ReceiveWaterMark         waterMark;
+	int                            queuedMessages;
+	long                           queuedBytes;
+	boolean                        readSuspended;
+	boolean                        autoReadSuspended;
+
 	volatile boolean   inboundDone;
 	Throwable inboundError;
 
@@ -60,6 +80,8 @@ final class FlowableReceive extends Flowable<Object> implements Subscription, Di
 		this.parent = parent;
 		this.channel = parent.channel;
 		this.eventLoop = channel.eventLoop();
+		ReceiveWaterMark waterMark = channel.attr(ReceiveWaterMark.KEY).get();
+		this.waterMark = waterMark != null ? waterMark : ReceiveWaterMark.DEFAULT;
 		CANCEL.lazySet(this, new Disposable() {
 			@Override
 			public void dispose() {
@@ -144,14 +166,16 @@ final class FlowableReceive extends Flowable<Object> implements Subscription, Di
 		if (q != null) {
 			Object o;
 			while ((o = q.poll()) != null) {
-				ReferenceCountUtil.release(o);
+				release(o);
 			}
 		}
+		queuedMessages = 0;
+		queuedBytes = 0L;
 	}
 
-	final boolean drainReceiver() {
+	final void drainReceiver() {
 		if(WIP.getAndIncrement(this) != 0){
-			return false;
+			return;
 		}
 		int missed = 1;
 		for(;;) {
@@ -162,7 +186,7 @@ final class FlowableReceive extends Flowable<Object> implements Subscription, Di
 			if (a == null) {
 				if (isCancelled()) {
 					cleanQueue(q);
-					return false;
+					return;
 				}
 				if (d && getPending() == 0) {
 					Throwable ex = inboundError;
@@ -175,7 +199,7 @@ final class FlowableReceive extends Flowable<Object> implements Subscription, Di
 					else {
 						parent.context.fireContextActive(parent);
 					}
-					return false;
+					return;
 				}
 				missed = WIP.addAndGet(this, -missed);
 				if(missed == 0){
@@ -190,7 +214,7 @@ final class FlowableReceive extends Flowable<Object> implements Subscription, Di
 			while (e != r) {
 				if (isCancelled()) {
 					cleanQueue(q);
-					return false;
+					return;
 				}
 
 				d = inboundDone;
@@ -199,18 +223,20 @@ final class FlowableReceive extends Flowable<Object> implements Subscription, Di
 
 				if (d && empty) {
 					terminateReceiver(q, a);
-					return false;
+					return;
 				}
 
 				if (empty) {
 					break;
 				}
 
+				dequeued(v);
+
 				try {
 					a.onNext(v);
 				}
 				finally {
-					ReferenceCountUtil.release(v);
+					release(v);
 				}
 
 				e++;
@@ -218,15 +244,18 @@ final class FlowableReceive extends Flowable<Object> implements Subscription, Di
 
 			if (isCancelled()) {
 				cleanQueue(q);
-				return false;
+				return;
 			}
 
 			if (inboundDone && (q == null || q.isEmpty())) {
 				terminateReceiver(q, a);
-				return false;
+				return;
 			}
 
 			if (r == Long.MAX_VALUE) {
+				// the queue has been drained
+				readSuspended = false;
+				autoReadSuspended = false;
 				channel.config()
 						.setAutoRead(true);
 				channel.read();
@@ -234,10 +263,12 @@ final class FlowableReceive extends Flowable<Object> implements Subscription, Di
 				if(missed == 0){
 					break;
 				}
-				return true;
+				// the read delivered synchronously, e.g. a multiplexed stream channel
+				continue;
 			}
 
-			if ((receiverDemand -= e) > 0L || e > 0L) {
+			if (((receiverDemand -= e) > 0L || e > 0L) &&
+					(!readSuspended || resumeRead())) {
 				channel.read();
 			}
 
@@ -246,7 +277,6 @@ final class FlowableReceive extends Flowable<Object> implements Subscription, Di
 				break;
 			}
 		}
-		return false;
 	}
 
 	final void startReceiver(Subscriber<? super Object> s) {
@@ -272,67 +302,170 @@ final class FlowableReceive extends Flowable<Object> implements Subscription, Di
 		}
 	}
 
+	/**
+	 * Return a {@link Flowable} subscribing to this receiver in batching mode, see
+	 * {@link io.reactivex.netty.NettyInbound#receiveBatches()}.
+	 *
+	 * @return the batch {@link Flowable}
+	 */
+	final Flowable<Object> batches() {
+		return new Flowable<Object>() {
+			@Override
+			protected void subscribeActual(Subscriber<? super Object> s) {
+				if (eventLoop.inEventLoop()) {
+					startBatchReceiver(s);
+				}
+				else {
+					eventLoop.execute(() -> startBatchReceiver(s));
+				}
+			}
+		};
+	}
+
+	final void startBatchReceiver(Subscriber<? super Object> s) {
+		if (receiver == null) {
+			batching = true;
+			// group messages read before the subscription in a first batch
+			SpscLinkedArrayQueue<Object> q = receiverQueue;
+			if (q != null && !q.isEmpty()) {
+				Object o;
+				while ((o = q.poll()) != null) {
+					addToBatch(o);
+				}
+				q.offer(takeBatch());
+				queuedMessages = 1;
+			}
+		}
+		startReceiver(s);
+	}
+
 	final void onInboundNext(Object msg) {
 		if (inboundDone || isCancelled()) {
 			ReferenceCountUtil.release(msg);
 			return;
 		}
 
-		if (receiverFastpath && receiver != null) {
-			try {
-				receiver.onNext(msg);
-			}
-			finally {
-				ReferenceCountUtil.release(msg);
-			}
+		if (batching) {
+			addToBatch(msg);
+			return;
 		}
-		else {
-			SpscLinkedArrayQueue<Object> q = receiverQueue;
-			if (q == null) {
-				q = new SpscLinkedArrayQueue<>(Flowable.bufferSize());
-				receiverQueue = q;
-			}
-			q.offer(msg);
-			if (drainReceiver()) {
-				receiverFastpath = true;
+
+		deliver(msg);
+	}
+
+	/**
+	 * React on the end of a read cycle, emitting the pending batch if any
+	 */
+	final void onInboundReadComplete() {
+		if (pendingBatch == null) {
+			return;
+		}
+		if (inboundDone || isCancelled()) {
+			release(takeBatch());
+			return;
+		}
+		deliver(takeBatch());
+	}
+
+	final void deliver(Object msg) {
+		SpscLinkedArrayQueue<Object> q = receiverQueue;
+		if (q == null) {
+			q = new SpscLinkedArrayQueue<>(Flowable.bufferSize());
+			receiverQueue = q;
+		}
+		q.offer(msg);
+		enqueued(msg);
+		drainReceiver();
+	}
+
+	final void enqueued(Object msg) {
+		queuedMessages++;
+		queuedBytes += sizeOf(msg);
+		if (!readSuspended && (queuedMessages >= waterMark.highMessages() ||
+				queuedBytes >= waterMark.highBytes())) {
+			readSuspended = true;
+			autoReadSuspended = channel.config().isAutoRead();
+			if (autoReadSuspended) {
+				channel.config().setAutoRead(false);
 			}
 		}
 	}
 
-	final boolean onInboundComplete() {
-		if (inboundDone) {
+	final void dequeued(Object msg) {
+		queuedMessages--;
+		queuedBytes -= sizeOf(msg);
+	}
+
+	/**
+	 * Resume reading if the queue is back under the low water marks
+	 *
+	 * @return true if reading has been resumed
+	 */
+	final boolean resumeRead() {
+		if (queuedMessages > waterMark.lowMessages() || queuedBytes > waterMark.lowBytes()) {
 			return false;
 		}
-		inboundDone = true;
-		Subscriber<?> receiver = this.receiver;
-		if (receiverFastpath && receiver != null) {
-			receiver.onComplete();
-			return true;
+		readSuspended = false;
+		if (autoReadSuspended) {
+			autoReadSuspended = false;
+			channel.config().setAutoRead(true);
+		}
+		return true;
+	}
+
+	final void addToBatch(Object msg) {
+		Batch b = pendingBatch;
+		if (b == null) {
+			b = new Batch();
+			pendingBatch = b;
+		}
+		b.add(msg);
+	}
+
+	/**
+	 * Return the pending batch as a {@link ByteBuf} if it only contains {@link ByteBuf},
+	 * composed if more than one, or as a {@link java.util.List} otherwise.
+	 *
+	 * @return the pending batch
+	 */
+	final Object takeBatch() {
+		Batch b = pendingBatch;
+		pendingBatch = null;
+		if (!b.byteBufs) {
+			return b;
+		}
+		if (b.size() == 1) {
+			return b.get(0);
+		}
+		CompositeByteBuf composite = channel.alloc()
+		                                    .compositeBuffer(b.size());
+		for (Object o : b) {
+			composite.addComponent(true, (ByteBuf) o);
+		}
+		return composite;
+	}
+
+	final void onInboundComplete() {
+		if (inboundDone) {
+			return;
 		}
+		onInboundReadComplete();
+		inboundDone = true;
 		drainReceiver();
-		return false;
 	}
 
-	final boolean onInboundError(Throwable err) {
+	final void onInboundError(Throwable err) {
 		if (isCancelled() || inboundDone) {
-			return false;
+			return;
 		}
-		Subscriber<?> receiver = this.receiver;
+		onInboundReadComplete();
 		this.inboundError = err;
 		this.inboundDone = true;
 
 		if(channel.isActive()){
 			channel.close();
 		}
-		if (receiverFastpath && receiver != null) {
-			parent.context.fireContextError(err);
-			receiver.onError(err);
-			return true;
-		}
-		else {
-			drainReceiver();
-		}
-		return false;
+		drainReceiver();
 	}
 
 	final void terminateReceiver(SpscLinkedArrayQueue<?> q, Subscriber<?> a) {
@@ -352,11 +485,56 @@ final class FlowableReceive extends Flowable<Object> implements Subscription, Di
 	final void unsubscribeReceiver() {
 		receiverDemand = 0L;
 		receiver = null;
+		if (pendingBatch != null) {
+			release(takeBatch());
+		}
 		if(isCancelled()) {
 			parent.onInboundCancel();
 		}
 	}
 
+	/**
+	 * Release a received message or every message of a {@link Batch}
+	 *
+	 * @param msg the message to release
+	 */
+	static void release(Object msg) {
+		if (msg instanceof Batch) {
+			for (Object o : (Batch) msg) {
+				ReferenceCountUtil.release(o);
+			}
+		}
+		else {
+			ReferenceCountUtil.release(msg);
+		}
+	}
+
+	static long sizeOf(Object msg) {
+		if (msg instanceof Batch) {
+			long size = 0L;
+			for (Object o : (Batch) msg) {
+				size += ChannelOperationsHandler.sizeOf(o);
+			}
+			return size;
+		}
+		return ChannelOperationsHandler.sizeOf(msg);
+	}
+
+	/**
+	 * Messages read in a single read cycle
+	 */
+	@SuppressWarnings("serial")
+	static final class Batch extends ArrayList<Object> {
+
+		boolean byteBufs = true;
+
+		@Override
+		public boolean add(Object o) {
+			byteBufs &= o instanceof ByteBuf;
+			return super.add(o);
+		}
+	}
+
 	@SuppressWarnings("rawtypes")
 	static final AtomicReferenceFieldUpdater<FlowableReceive, Disposable> CANCEL =
 			AtomicReferenceFieldUpdater.newUpdater(FlowableReceive.class,
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.channel;
+
+import java.net.Inet6Address;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.BootstrapConfig;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoop;
+import io.netty.resolver.AddressResolver;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.DefaultPromise;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Connect a {@link Bootstrap} racing the addresses its remote host name resolves to,
+ * after RFC 8305 "Happy Eyeballs". The addresses are interleaved by family, a new attempt
+ * starts every {@link #CONNECT_ATTEMPT_DELAY} millis or as soon as the pending ones have
+ * failed, the first connected attempt wins and the others are closed.
+ * <p>
+ * All the attempts run on the same event loop with a placeholder handler, the
+ * bootstrap handler is only added to the winning channel, before its channel active
+ * event. A {@link io.netty.channel.pool.ChannelPoolHandler} or a {@link ContextHandler}
+ * therefore only ever sees one connection.
+ * <p>
+ * The bootstrap is connected as usual if its remote address is already resolved,
+ * resolves to a single address or if {@link #CONNECT_ATTEMPT_DELAY} is not set.
+ *
+ * @author Stephane Maldini
+ */
+public final class HappyEyeballs {
+
+	/**
+	 * The {@link Bootstrap} attribute giving the delay in millis before the next address
+	 * is tried, connections are not raced if absent
+	 */
+	public static final AttributeKey<Long> CONNECT_ATTEMPT_DELAY =
+			AttributeKey.newInstance("connectAttemptDelay");
+
+	/**
+	 * Connect the given {@link Bootstrap} to its remote address, racing the resolved
+	 * addresses if {@link #CONNECT_ATTEMPT_DELAY} is set.
+	 *
+	 * @param bootstrap the bootstrap to connect
+	 *
+	 * @return the connect {@link ChannelFuture}, its channel is the winning one once
+	 * complete
+	 */
+	public static ChannelFuture connect(Bootstrap bootstrap) {
+		BootstrapConfig config = bootstrap.config();
+		Object delay = config.attrs()
+		                     .get(CONNECT_ATTEMPT_DELAY);
+		SocketAddress remote = config.remoteAddress();
+		if (!(delay instanceof Long) || (Long) delay <= 0L || !(remote instanceof InetSocketAddress) || !((InetSocketAddress) remote).isUnresolved()) {
+			return bootstrap.connect();
+		}
+
+		EventLoop loop = config.group()
+		                       .next();
+		Race race = new Race(bootstrap.clone(loop)
+		                              .handler(PENDING),
+				config.handler(),
+				loop,
+				(Long) delay);
+		race.start(remote, config.resolver()
+		                         .getResolver(loop));
+		return race;
+	}
+
+	/**
+	 * Interleave the given addresses by family, starting with the family of the first
+	 * address as RFC 8305 section 4 recommends.
+	 *
+	 * @param addresses the resolved addresses
+	 *
+	 * @return the addresses in connect attempt order
+	 */
+	static List<SocketAddress> interleave(List<SocketAddress> addresses) {
+		if (addresses.size() < 3 && (addresses.size() < 2 || isV6(addresses.get(0)) != isV6(
+				addresses.get(1)))) {
+			return addresses;
+		}
+		boolean firstV6 = isV6(addresses.get(0));
+		List<SocketAddress> first = new ArrayList<>(addresses.size());
+		List<SocketAddress> second = new ArrayList<>(addresses.size());
+		for (SocketAddress address : addresses) {
+			(isV6(address) == firstV6 ? first : second).add(address);
+		}
+		List<SocketAddress> ordered = new ArrayList<>(addresses.size());
+		for (int i = 0; i < Math.max(first.size(), second.size()); i++) {
+			if (i < first.size()) {
+				ordered.add(first.get(i));
+			}
+			if (i < second.size()) {
+				ordered.add(second.get(i));
+			}
+		}
+		return ordered;
+	}
+
+	static boolean isV6(SocketAddress address) {
+		return address instanceof InetSocketAddress && ((InetSocketAddress) address).getAddress() instanceof Inet6Address;
+	}
+
+	/**
+	 * The connect race, completed and notified on its event loop. Its channel is the
+	 * first attempt one until the race is won.
+	 */
+	static final class Race extends DefaultPromise<Void>
+			implements ChannelFuture, GenericFutureListener<ChannelFuture> {
+
+		final Bootstrap           bootstrap;
+		final ChannelHandler      handler;
+		final EventLoop           loop;
+		final long                delay;
+		final List<ChannelFuture> attempts;
+
+		List<SocketAddress> addresses;
+		int                 next;
+		int                 failures;
+		ScheduledFuture<?>  nextAttempt;
+
+		volatile Channel channel;
+
+		Race(Bootstrap bootstrap, ChannelHandler handler, EventLoop loop, long delay) {
+			super(loop);
+			this.bootstrap = bootstrap;
+			this.handler = handler;
+			this.loop = loop;
+			this.delay = delay;
+			this.attempts = new ArrayList<>();
+		}
+
+		@SuppressWarnings("unchecked")
+		void start(SocketAddress remote, AddressResolver<?> resolver) {
+			// register the first attempt channel upfront so the future always has one
+			ChannelFuture registration = bootstrap.register();
+			channel = registration.channel();
+			registration.addListener(r -> {
+				if (!r.isSuccess()) {
+					tryFailure(r.cause());
+					return;
+				}
+				((AddressResolver<SocketAddress>) resolver).resolveAll(remote)
+				                                           .addListener(f -> onResolved(
+						                                           remote,
+						                                           f));
+			});
+		}
+
+		void onResolved(SocketAddress remote, Future<?> f) {
+			if (isDone()) {
+				channel.close();
+				return;
+			}
+			if (!f.isSuccess()) {
+				channel.close();
+				tryFailure(f.cause());
+				return;
+			}
+			@SuppressWarnings("unchecked") List<SocketAddress> resolved =
+					(List<SocketAddress>) f.getNow();
+			if (resolved.isEmpty()) {
+				channel.close();
+				tryFailure(new UnknownHostException(remote.toString()));
+				return;
+			}
+			addresses = interleave(resolved);
+			attemptNext();
+		}
+
+		void attemptNext() {
+			if (isDone() || next == addresses.size()) {
+				return;
+			}
+			SocketAddress address = addresses.get(next);
+			ChannelFuture attempt;
+			if (next++ == 0) {
+				SocketAddress local = bootstrap.config()
+				                               .localAddress();
+				attempt = local == null ? channel.connect(address) :
+						channel.connect(address, local);
+			}
+			else {
+				attempt = bootstrap.connect(address);
+			}
+			attempts.add(attempt);
+			attempt.addListener(this);
+			if (next < addresses.size()) {
+				nextAttempt = loop.schedule(this::attemptNext, delay, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		@Override
+		public void operationComplete(ChannelFuture attempt) throws Exception {
+			if (isDone()) {
+				attempt.channel()
+				       .close();
+				return;
+			}
+			if (attempt.isSuccess()) {
+				Channel winner = attempt.channel();
+				abort(winner);
+				channel = winner;
+				// added before the channel active event that follows this listener
+				winner.pipeline()
+				      .remove(PENDING);
+				winner.pipeline()
+				      .addLast(handler);
+				trySuccess(null);
+				return;
+			}
+			attempt.channel()
+			       .close();
+			if (++failures == attempts.size()) {
+				if (next == addresses.size()) {
+					channel = attempt.channel();
+					tryFailure(attempt.cause());
+				}
+				else {
+					// no attempt left pending, do not wait for the delay
+					if (nextAttempt != null) {
+						nextAttempt.cancel(false);
+					}
+					attemptNext();
+				}
+			}
+		}
+
+		void abort(Channel winner) {
+			if (nextAttempt != null) {
+				nextAttempt.cancel(false);
+			}
+			for (ChannelFuture attempt : attempts) {
+				if (attempt.channel() != winner) {
+					attempt.channel()
+					       .close();
+				}
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			if (!super.cancel(mayInterruptIfRunning)) {
+				return false;
+			}
+			if (loop.inEventLoop()) {
+				abort(null);
+				channel.close();
+			}
+			else {
+				loop.execute(() -> {
+					abort(null);
+					channel.close();
+				});
+			}
+			return true;
+		}
+
+		@Override
+		public Channel channel() {
+			return channel;
+		}
+
+		@Override
+		public boolean isVoid() {
+			return false;
+		}
+
+		@Override
+		public Race addListener(GenericFutureListener<? extends Future<? super Void>> listener) {
+			super.addListener(listener);
+			return this;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Race addListeners(GenericFutureListener<? extends Future<? super Void>>... listeners) {
+			super.addListeners(listeners);
+			return this;
+		}
+
+		@Override
+		public Race removeListener(GenericFutureListener<? extends Future<? super Void>> listener) {
+			super.removeListener(listener);
+			return this;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Race removeListeners(GenericFutureListener<? extends Future<? super Void>>... listeners) {
+			super.removeListeners(listeners);
+			return this;
+		}
+
+		@Override
+		public Race sync() throws InterruptedException {
+			super.sync();
+			return this;
+		}
+
+		@Override
+		public Race syncUninterruptibly() {
+			super.syncUninterruptibly();
+			return this;
+		}
+
+		@Override
+		public Race await() throws InterruptedException {
+			super.await();
+			return this;
+		}
+
+		@Override
+		public Race awaitUninterruptibly() {
+			super.awaitUninterruptibly();
+			return this;
+		}
+	}
+
+	@ChannelHandler.Sharable
+	static final class PendingHandler extends ChannelInboundHandlerAdapter {
+
+	}
+
+	HappyEyeballs() {
+	}
+
+	static final ChannelHandler PENDING = new PendingHandler();
+}
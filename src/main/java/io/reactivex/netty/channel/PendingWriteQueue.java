@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.channel;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import io.netty.channel.ChannelFuture;
+
+/**
+ * A single-producer single-consumer unbounded queue of {@link ChannelFuture} and message
+ * pairs used by {@link ChannelOperationsHandler} to park writes.
+ * <p>
+ * Pairs are stored side by side in fixed size chunks of parallel arrays linked in a
+ * ring. The producer moves to the next chunk of the ring once the consumer is done
+ * with it and only inserts a new chunk when the consumer is behind, so the queue stops
+ * allocating once it has grown to the largest burst of parked writes.
+ *
+ * @author Stephane Maldini
+ */
+final class PendingWriteQueue {
+
+	final int chunkSize;
+
+	Chunk producerChunk;
+	int   producerOffset;
+
+	volatile Chunk consumerChunk;
+	int            consumerOffset;
+
+	volatile long producerIndex;
+	volatile long consumerIndex;
+
+	PendingWriteQueue(int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize > 0 required but it was " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+		Chunk c = new Chunk(chunkSize);
+		c.next = c;
+		this.producerChunk = c;
+		this.consumerChunk = c;
+	}
+
+	/**
+	 * Append a future and message pair, producer side.
+	 *
+	 * @param future the write future
+	 * @param message the message to write
+	 */
+	void offer(ChannelFuture future, Object message) {
+		Chunk c = producerChunk;
+		int offset = producerOffset;
+		if (offset == chunkSize) {
+			Chunk next = c.next;
+			if (next == consumerChunk) {
+				// the consumer is still behind, grow the ring
+				Chunk n = new Chunk(chunkSize);
+				n.next = next;
+				c.next = n;
+				next = n;
+			}
+			c = next;
+			producerChunk = c;
+			offset = 0;
+		}
+		c.futures[offset] = future;
+		c.messages[offset] = message;
+		producerOffset = offset + 1;
+		PRODUCER_INDEX.lazySet(this, producerIndex + 1);
+	}
+
+	/**
+	 * @return true if no pair is available to the consumer
+	 */
+	boolean isEmpty() {
+		return consumerIndex == producerIndex;
+	}
+
+	/**
+	 * Consumer side, return the future of the head pair or null if empty. {@link
+	 * #peekMessage()} and {@link #remove()} can then be called.
+	 *
+	 * @return the future of the head pair or null
+	 */
+	ChannelFuture peekFuture() {
+		if (isEmpty()) {
+			return null;
+		}
+		if (consumerOffset == chunkSize) {
+			consumerChunk = consumerChunk.next;
+			consumerOffset = 0;
+		}
+		return consumerChunk.futures[consumerOffset];
+	}
+
+	/**
+	 * @return the message of the head pair, only valid after a non null {@link
+	 * #peekFuture()}
+	 */
+	Object peekMessage() {
+		return consumerChunk.messages[consumerOffset];
+	}
+
+	/**
+	 * Remove the head pair, only valid after a non null {@link #peekFuture()}
+	 */
+	void remove() {
+		Chunk c = consumerChunk;
+		int offset = consumerOffset;
+		c.futures[offset] = null;
+		c.messages[offset] = null;
+		consumerOffset = offset + 1;
+		CONSUMER_INDEX.lazySet(this, consumerIndex + 1);
+	}
+
+	static final class Chunk {
+
+		final ChannelFuture[] futures;
+		final Object[]        messages;
+
+		volatile Chunk next;
+
+		Chunk(int size) {
+			this.futures = new ChannelFuture[size];
+			this.messages = new Object[size];
+		}
+	}
+
+	static final AtomicLongFieldUpdater<PendingWriteQueue> PRODUCER_INDEX =
+			AtomicLongFieldUpdater.newUpdater(PendingWriteQueue.class, "producerIndex");
+	static final AtomicLongFieldUpdater<PendingWriteQueue> CONSUMER_INDEX =
+			AtomicLongFieldUpdater.newUpdater(PendingWriteQueue.class, "consumerIndex");
+}
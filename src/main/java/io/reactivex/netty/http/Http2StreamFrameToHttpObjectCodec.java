@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.http;
+
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageCodec;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpMessage;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMessage;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http2.DefaultHttp2DataFrame;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersFrame;
+import io.netty.handler.codec.http2.Http2DataFrame;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2HeadersFrame;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamFrame;
+import io.netty.handler.codec.http2.HttpConversionUtil;
+import io.netty.handler.ssl.SslHandler;
+
+/**
+ * Translate the {@link Http2StreamFrame} of a single HTTP/2 stream from and to the
+ * {@link HttpObject} model used by the HTTP/1.1 operations, so a {@link
+ * Http2StreamChannel} can be driven by the same {@link HttpOperations}.
+ * <p>
+ * Inbound, the first {@link Http2HeadersFrame} becomes an {@link HttpRequest} (server)
+ * or {@link HttpResponse} (client), {@link Http2DataFrame} become {@link HttpContent}
+ * and the end of stream a {@link LastHttpContent} carrying any trailers. Outbound,
+ * {@link HttpMessage}, {@link HttpContent} and raw {@link ByteBuf} body chunks are
+ * written as headers and data frames, the end of stream being signalled by {@link
+ * LastHttpContent}. Connection specific HTTP/1.1 headers are dropped.
+ * <p>
+ * One instance per stream channel.
+ *
+ * @author Stephane Maldini
+ */
+public final class Http2StreamFrameToHttpObjectCodec
+		extends MessageToMessageCodec<Http2StreamFrame, Object> {
+
+	final boolean server;
+
+	boolean headersReceived;
+
+	/**
+	 * @param server true if the stream has been initiated by the remote peer and carries
+	 * requests, false if it carries responses
+	 */
+	public Http2StreamFrameToHttpObjectCodec(boolean server) {
+		this.server = server;
+	}
+
+	@Override
+	public boolean acceptInboundMessage(Object msg) throws Exception {
+		return msg instanceof Http2HeadersFrame || msg instanceof Http2DataFrame;
+	}
+
+	@Override
+	public boolean acceptOutboundMessage(Object msg) throws Exception {
+		return msg instanceof HttpObject || msg instanceof ByteBuf;
+	}
+
+	@Override
+	protected void decode(ChannelHandlerContext ctx, Http2StreamFrame frame, List<Object> out)
+			throws Exception {
+		int id = frame.stream() != null ? frame.stream().id() : 0;
+
+		if (frame instanceof Http2HeadersFrame) {
+			Http2HeadersFrame headersFrame = (Http2HeadersFrame) frame;
+			Http2Headers headers = headersFrame.headers();
+
+			if (headersReceived) {
+				LastHttpContent last = new DefaultLastHttpContent(Unpooled.EMPTY_BUFFER);
+				HttpConversionUtil.addHttp2ToHttpHeaders(id,
+						headers,
+						last.trailingHeaders(),
+						HttpVersion.HTTP_1_1,
+						true,
+						server);
+				out.add(last);
+				return;
+			}
+
+			HttpMessage message;
+			if (server) {
+				message = HttpConversionUtil.toHttpRequest(id, headers, true);
+			}
+			else {
+				HttpResponseStatus status = HttpConversionUtil.parseStatus(headers.status());
+				if (status.codeClass() == HttpStatusClass.INFORMATIONAL) {
+					// interim response, the final one follows
+					out.add(new DefaultHttpResponse(HttpVersion.HTTP_1_1, status));
+					out.add(LastHttpContent.EMPTY_LAST_CONTENT);
+					return;
+				}
+				message = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
+				HttpConversionUtil.addHttp2ToHttpHeaders(id,
+						headers,
+						message.headers(),
+						HttpVersion.HTTP_1_1,
+						false,
+						false);
+			}
+			headersReceived = true;
+
+			if (!headersFrame.isEndStream() && !HttpUtil.isContentLengthSet(message)) {
+				// the body framing is given by the end of stream
+				HttpUtil.setTransferEncodingChunked(message, true);
+			}
+			out.add(message);
+			if (headersFrame.isEndStream()) {
+				out.add(LastHttpContent.EMPTY_LAST_CONTENT);
+			}
+		}
+		else {
+			Http2DataFrame dataFrame = (Http2DataFrame) frame;
+			ByteBuf content = dataFrame.content()
+			                           .retain();
+			if (dataFrame.isEndStream()) {
+				out.add(new DefaultLastHttpContent(content));
+			}
+			else {
+				out.add(new DefaultHttpContent(content));
+			}
+		}
+	}
+
+	@Override
+	protected void encode(ChannelHandlerContext ctx, Object msg, List<Object> out)
+			throws Exception {
+		if (msg instanceof ByteBuf) {
+			out.add(new DefaultHttp2DataFrame(((ByteBuf) msg).retain(), false));
+			return;
+		}
+
+		if (msg instanceof HttpMessage) {
+			HttpMessage message = (HttpMessage) msg;
+			if (message instanceof HttpRequest) {
+				HttpHeaders headers = message.headers();
+				if (!headers.contains(HttpConversionUtil.ExtensionHeaderNames.SCHEME.text())) {
+					headers.set(HttpConversionUtil.ExtensionHeaderNames.SCHEME.text(),
+							isSecure(ctx) ? "https" : "http");
+				}
+			}
+			Http2Headers headers = HttpConversionUtil.toHttp2Headers(message, true);
+
+			if (message instanceof FullHttpMessage) {
+				FullHttpMessage full = (FullHttpMessage) message;
+				if (!full.content()
+				         .isReadable() && full.trailingHeaders()
+				                              .isEmpty()) {
+					out.add(new DefaultHttp2HeadersFrame(headers, true));
+					return;
+				}
+				out.add(new DefaultHttp2HeadersFrame(headers, false));
+				encodeLast(full, out);
+				return;
+			}
+
+			// the end of stream is signalled by the LastHttpContent that follows
+			out.add(new DefaultHttp2HeadersFrame(headers, false));
+			return;
+		}
+
+		if (msg instanceof LastHttpContent) {
+			encodeLast((LastHttpContent) msg, out);
+		}
+		else if (msg instanceof HttpContent) {
+			out.add(new DefaultHttp2DataFrame(((HttpContent) msg).content()
+			                                                     .retain(), false));
+		}
+	}
+
+	static void encodeLast(LastHttpContent last, List<Object> out) {
+		HttpHeaders trailers = last.trailingHeaders();
+		if (trailers.isEmpty()) {
+			out.add(new DefaultHttp2DataFrame(last.content()
+			                                      .retain(), true));
+			return;
+		}
+		if (last.content()
+		        .isReadable()) {
+			out.add(new DefaultHttp2DataFrame(last.content()
+			                                      .retain(), false));
+		}
+		out.add(new DefaultHttp2HeadersFrame(HttpConversionUtil.toHttp2Headers(trailers,
+				true), true));
+	}
+
+	static boolean isSecure(ChannelHandlerContext ctx) {
+		return ctx.channel()
+		          .parent() != null && ctx.channel()
+		                                  .parent()
+		                                  .pipeline()
+		                                  .get(SslHandler.class) != null;
+	}
+}
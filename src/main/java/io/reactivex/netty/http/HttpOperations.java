@@ -20,10 +20,16 @@ package io.reactivex.netty.http;
 import java.io.File;
 import java.io.IOException;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufHolder;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInboundHandler;
@@ -36,19 +42,26 @@ import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpMessage;
 import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http2.Http2StreamChannel;
 import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.stream.ChunkedInput;
 import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.util.ReferenceCountUtil;
 import io.reactivex.Flowable;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.BiFunction;
 import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.subscriptions.EmptySubscription;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
 import io.reactivex.netty.*;
 import io.reactivex.netty.channel.AbortedException;
 import io.reactivex.netty.channel.ChannelOperations;
 import io.reactivex.netty.channel.ContextHandler;
 import io.reactivex.netty.channel.data.AbstractFileChunkedStrategy;
+import io.reactivex.processors.UnicastProcessor;
 import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import io.reactivex.netty.channel.data.FileChunkedStrategy;
 
@@ -90,6 +103,15 @@ public abstract class HttpOperations<INBOUND extends NettyInbound, OUTBOUND exte
 		return statusAndHeadersSent != READY;
 	}
 
+	/**
+	 * Has body been sent
+	 *
+	 * @return true if body has been sent
+	 */
+	protected final boolean hasSentBody() {
+		return statusAndHeadersSent == BODY_SENT;
+	}
+
 	@Override
 	public boolean isWebsocket() {
 		return false;
@@ -155,14 +177,88 @@ public abstract class HttpOperations<INBOUND extends NettyInbound, OUTBOUND exte
 		}
 	}
 
-	protected abstract HttpMessage newFullEmptyBodyMessage();
+	/**
+	 * Create a full message with an empty body and a zero Content-Length
+	 *
+	 * @return a full message with an empty body
+	 */
+	protected final HttpMessage newFullEmptyBodyMessage() {
+		return newFullBodyMessage(Unpooled.EMPTY_BUFFER);
+	}
+
+	/**
+	 * Create a full message carrying the outbound status and headers, the given body
+	 * and its Content-Length
+	 *
+	 * @param body the complete body
+	 *
+	 * @return a full message
+	 */
+	protected abstract HttpMessage newFullBodyMessage(ByteBuf body);
+
+	/**
+	 * Send a body that completes within {@code maxBytes} while it is subscribed, e.g. a
+	 * scalar {@link Callable} or a synchronous publisher, along with the headers as a
+	 * single full message with a computed Content-Length, in one write and flush. Any
+	 * other body is streamed after the headers are flushed, without waiting past its
+	 * first asynchronous gap or once over budget, and so is the body of a returned
+	 * outbound that is followed by more sends.
+	 *
+	 * @param dataStream the body publisher
+	 * @param maxBytes the maximum number of bytes to aggregate, 0 only aggregates a
+	 * scalar or empty {@link Callable} publisher
+	 *
+	 * @return a {@link NettyOutbound} completing when the body has been written
+	 */
+	protected final NettyOutbound sendFullMessage(Publisher<?> dataStream, int maxBytes) {
+		return sendFullMessage(dataStream, maxBytes, false);
+	}
+
+	/**
+	 * Send a body that completes within {@code maxBytes} along with the headers as a
+	 * single full message with a computed Content-Length. Unlike
+	 * {@link #sendFullMessage(Publisher, int)} the headers are held until the body
+	 * completes or exceeds the budget, in which case the body is streamed after the
+	 * headers.
+	 *
+	 * @param dataStream the body publisher
+	 * @param maxBytes the maximum number of bytes to aggregate
+	 *
+	 * @return a {@link NettyOutbound} completing when the body has been written
+	 */
+	protected final NettyOutbound sendAggregatedMessage(Publisher<?> dataStream,
+			int maxBytes) {
+		return sendFullMessage(dataStream, maxBytes, true);
+	}
+
+	private NettyOutbound sendFullMessage(Publisher<?> dataStream,
+			int maxBytes,
+			boolean awaitComplete) {
+		if (hasSentHeaders() || HttpUtil.isContentLengthSet(outboundHttpMessage())) {
+			return sendStream(dataStream);
+		}
+		return new FullMessageOutbound(this, dataStream, maxBytes, awaitComplete);
+	}
+
+	final NettyOutbound sendStream(Publisher<?> dataStream) {
+		return super.sendObject(dataStream);
+	}
+
+	final Flowable<Void> sendFull(ByteBuf body) {
+		if (!markSentHeaderAndBody()) {
+			// another send has started the message
+			return sendStream(Flowable.just(body)).then();
+		}
+		HttpMessage message = newFullBodyMessage(body);
+		return FutureFlowable.deferFuture(() -> channel().writeAndFlush(message));
+	}
 
 	@Override
 	public final NettyOutbound sendFile(File file, long position, long count) {
 		ObjectHelper.requireNonNull(file, "file");
 
 		if (hasSentHeaders()) {
-			return super.sendFile(file, position, count);
+			return doSendFile(file, position, count);
 		}
 
 		if (!HttpUtil.isTransferEncodingChunked(outboundHttpMessage()) && !HttpUtil.isContentLengthSet(
@@ -177,6 +273,14 @@ public abstract class HttpOperations<INBOUND extends NettyInbound, OUTBOUND exte
 			HttpUtil.setTransferEncodingChunked(outboundHttpMessage(), true);
 		}
 
+		return doSendFile(file, position, count);
+	}
+
+	final NettyOutbound doSendFile(File file, long position, long count) {
+		if (channel() instanceof Http2StreamChannel) {
+			// a FileRegion can't be written to a multiplexed stream
+			return sendFileChunked(file, position, count);
+		}
 		return super.sendFile(file, position, count);
 	}
 
@@ -308,4 +412,329 @@ public abstract class HttpOperations<INBOUND extends NettyInbound, OUTBOUND exte
 	protected void handleOutboundWithNoContent() {
 		// no-op
 	}
+
+	static final class FullMessageOutbound implements NettyOutbound {
+
+		final HttpOperations<?, ?> parent;
+		final Publisher<?>         dataStream;
+		final int                  maxBytes;
+		final boolean              awaitComplete;
+
+		boolean stream;
+
+		FullMessageOutbound(HttpOperations<?, ?> parent,
+				Publisher<?> dataStream,
+				int maxBytes,
+				boolean awaitComplete) {
+			this.parent = parent;
+			this.dataStream = dataStream;
+			this.maxBytes = maxBytes;
+			this.awaitComplete = awaitComplete;
+		}
+
+		@Override
+		public NettyContext context() {
+			return parent;
+		}
+
+		@Override
+		public Flowable<Void> then() {
+			if (stream) {
+				return parent.sendStream(dataStream)
+				             .then();
+			}
+			return new FlowableSendFull(parent, dataStream, maxBytes, awaitComplete);
+		}
+
+		@Override
+		public NettyOutbound then(Publisher<Void> other) {
+			// more content may follow, the body can't be delimited by Content-Length
+			stream = true;
+			return NettyOutbound.super.then(other);
+		}
+	}
+
+	static final class FlowableSendFull extends Flowable<Void> {
+
+		final HttpOperations<?, ?> parent;
+		final Publisher<?>         source;
+		final int                  maxBytes;
+		final boolean              awaitComplete;
+
+		FlowableSendFull(HttpOperations<?, ?> parent,
+				Publisher<?> source,
+				int maxBytes,
+				boolean awaitComplete) {
+			this.parent = parent;
+			this.source = source;
+			this.maxBytes = maxBytes;
+			this.awaitComplete = awaitComplete;
+		}
+
+		@Override
+		protected void subscribeActual(Subscriber<? super Void> s) {
+			if (parent.hasSentHeaders()) {
+				parent.sendStream(source)
+				      .subscribe(s);
+				return;
+			}
+
+			if (source instanceof Callable) {
+				Object v;
+				try {
+					v = ((Callable<?>) source).call();
+				}
+				catch (Throwable e) {
+					Exceptions.throwIfFatal(e);
+					EmptySubscription.error(e, s);
+					return;
+				}
+
+				if (v == null) {
+					parent.sendFull(Unpooled.EMPTY_BUFFER)
+					      .subscribe(s);
+				}
+				else if (v instanceof ByteBuf) {
+					parent.sendFull((ByteBuf) v)
+					      .subscribe(s);
+				}
+				else {
+					parent.sendStream(Flowable.just(v))
+					      .subscribe(s);
+				}
+				return;
+			}
+
+			if (maxBytes <= 0) {
+				parent.sendStream(source)
+				      .subscribe(s);
+				return;
+			}
+
+			SendFullSubscriber full = new SendFullSubscriber(parent, s, maxBytes);
+			source.subscribe(full);
+			if (!awaitComplete) {
+				// not complete yet, don't hold the headers
+				full.stream();
+			}
+		}
+	}
+
+	/**
+	 * Request the body one item at a time until it completes or exceeds the byte
+	 * budget, or until {@link #stream()} is called. Unless complete, the buffered items
+	 * are then streamed, followed by the rest of the body relayed from the same upstream
+	 * subscription.
+	 */
+	static final class SendFullSubscriber implements Subscriber<Object>, Subscription {
+
+		final HttpOperations<?, ?>     parent;
+		final Subscriber<? super Void> actual;
+		final int                      maxBytes;
+
+		Subscription s;
+		long         bufferedBytes;
+
+		List<Object>             buffered;
+		UnicastProcessor<Object> relay;
+		boolean                  done;
+
+		volatile Subscription write;
+
+		SendFullSubscriber(HttpOperations<?, ?> parent,
+				Subscriber<? super Void> actual,
+				int maxBytes) {
+			this.parent = parent;
+			this.actual = actual;
+			this.maxBytes = maxBytes;
+			this.buffered = new ArrayList<>(4);
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (SubscriptionHelper.validate(this.s, s)) {
+				this.s = s;
+				actual.onSubscribe(this);
+				s.request(1);
+			}
+		}
+
+		@Override
+		public void onNext(Object t) {
+			UnicastProcessor<Object> relay;
+			synchronized (this) {
+				relay = this.relay;
+				if (relay == null) {
+					if (buffered == null) {
+						ReferenceCountUtil.release(t);
+						return;
+					}
+					buffered.add(t);
+				}
+			}
+			if (relay != null) {
+				relay.onNext(t);
+				return;
+			}
+
+			if (t instanceof ByteBuf) {
+				bufferedBytes += ((ByteBuf) t).readableBytes();
+				if (bufferedBytes <= maxBytes) {
+					s.request(1);
+					return;
+				}
+			}
+			stream();
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			UnicastProcessor<Object> relay;
+			List<Object> items;
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+				done = true;
+				relay = this.relay;
+				items = relay == null ? takeBuffered() : null;
+			}
+			if (relay != null) {
+				relay.onError(t);
+				return;
+			}
+			if (items == null) {
+				return;
+			}
+			// fail as a streamed body would, after the headers and buffered items
+			subscribeWrite(parent.sendStream(Flowable.fromIterable(items)
+			                                         .concatWith(Flowable.error(t)))
+			                     .then());
+		}
+
+		@Override
+		public void onComplete() {
+			UnicastProcessor<Object> relay;
+			List<Object> items;
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+				done = true;
+				relay = this.relay;
+				items = relay == null ? takeBuffered() : null;
+			}
+			if (relay != null) {
+				relay.onComplete();
+				return;
+			}
+			if (items == null) {
+				return;
+			}
+			subscribeWrite(parent.sendFull(aggregate(items)));
+		}
+
+		/**
+		 * Stream the buffered items after the headers unless the body is already
+		 * complete, the next items being relayed as they come.
+		 */
+		void stream() {
+			List<Object> items;
+			UnicastProcessor<Object> relay;
+			synchronized (this) {
+				if (done || this.relay != null || buffered == null) {
+					return;
+				}
+				items = buffered;
+				buffered = null;
+				this.relay = relay = UnicastProcessor.create();
+			}
+			Subscription s = this.s;
+			subscribeWrite(parent.sendStream(Flowable.fromIterable(items)
+			                                         .concatWith(relay.doOnRequest(s::request)
+			                                                          .doOnCancel(s::cancel)))
+			                     .then());
+		}
+
+		@Override
+		public void request(long n) {
+			// no values
+		}
+
+		@Override
+		public void cancel() {
+			s.cancel();
+			Subscription w = WRITE.getAndSet(this, SubscriptionHelper.CANCELLED);
+			if (w != null && w != SubscriptionHelper.CANCELLED) {
+				w.cancel();
+			}
+			release(takeBuffered());
+		}
+
+		ByteBuf aggregate(List<Object> items) {
+			if (items.isEmpty()) {
+				return Unpooled.EMPTY_BUFFER;
+			}
+			if (items.size() == 1) {
+				return (ByteBuf) items.get(0);
+			}
+			CompositeByteBuf body = parent.channel()
+			                              .alloc()
+			                              .compositeBuffer(items.size());
+			for (Object item : items) {
+				body.addComponent(true, (ByteBuf) item);
+			}
+			return body;
+		}
+
+		synchronized List<Object> takeBuffered() {
+			List<Object> items = buffered;
+			buffered = null;
+			return items;
+		}
+
+		void subscribeWrite(Flowable<Void> write) {
+			write.subscribe(new WriteSubscriber());
+		}
+
+		static void release(List<Object> items) {
+			if (items != null) {
+				for (Object item : items) {
+					ReferenceCountUtil.release(item);
+				}
+			}
+		}
+
+		final class WriteSubscriber implements Subscriber<Void> {
+
+			@Override
+			public void onSubscribe(Subscription s) {
+				if (WRITE.compareAndSet(SendFullSubscriber.this, null, s)) {
+					s.request(Long.MAX_VALUE);
+				}
+				else {
+					s.cancel();
+				}
+			}
+
+			@Override
+			public void onNext(Void aVoid) {
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				actual.onError(t);
+			}
+
+			@Override
+			public void onComplete() {
+				actual.onComplete();
+			}
+		}
+
+		static final AtomicReferenceFieldUpdater<SendFullSubscriber, Subscription> WRITE =
+				AtomicReferenceFieldUpdater.newUpdater(SendFullSubscriber.class,
+						Subscription.class,
+						"write");
+	}
 }
@@ -17,8 +17,11 @@
 
 package io.reactivex.netty.http.client;
 
+import java.io.IOException;
+import java.net.SocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Objects;
 
 import io.netty.channel.Channel;
 import io.netty.handler.codec.http.HttpHeaderNames;
@@ -33,6 +36,7 @@ import io.reactivex.functions.Function;
 import io.reactivex.functions.Predicate;
 import io.reactivex.netty.NettyInbound;
 import io.reactivex.netty.channel.AbortedException;
+import io.reactivex.netty.resources.LoadBalancer;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import io.reactivex.netty.NettyOutbound;
@@ -46,6 +50,7 @@ final class FlowableHttpClientResponse extends Flowable<HttpClientResponse> {
 	final URI                                                            startURI;
 	final HttpMethod                                                     method;
 	final Function<? super HttpClientRequest, ? extends Publisher<Void>> handler;
+	final boolean                                                        multiplexed;
 
 	static final AsciiString ALL = new AsciiString("*/*");
 
@@ -62,24 +67,42 @@ final class FlowableHttpClientResponse extends Flowable<HttpClientResponse> {
 		}
 		this.method = method == HttpClient.WS ? HttpMethod.GET : method;
 		this.handler = handler;
+		this.multiplexed = parent.options.http2() && method != HttpClient.WS;
 
 	}
 
 	@Override
 	@SuppressWarnings("unchecked")
 	public void subscribeActual(final Subscriber<? super HttpClientResponse> subscriber) {
-		ReconnectableBridge bridge = new ReconnectableBridge();
+		ReconnectableBridge bridge = new ReconnectableBridge(isIdempotent(method));
 		bridge.activeURI = startURI;
 
-		Flowable.defer(() -> parent.client.newHandler(new HttpClientHandler(this, bridge),
-				parent.options.getRemoteAddress(bridge.activeURI),
-				HttpClientOptions.isSecure(bridge.activeURI),
-				bridge))
+		Flowable.defer(() -> multiplexed ?
+				parent.client.newStreamHandler(new HttpClientHandler(this, bridge),
+						remoteAddress(bridge.activeURI),
+						HttpClientOptions.isSecure(bridge.activeURI),
+						bridge) :
+				parent.client.newHandler(new HttpClientHandler(this, bridge),
+						remoteAddress(bridge.activeURI),
+						HttpClientOptions.isSecure(bridge.activeURI),
+						bridge))
 		    .retry(bridge)
 		    .cast(HttpClientResponse.class)
 		    .subscribe(subscriber);
 	}
 
+	/**
+	 * Return the address to connect the given URI to, the next endpoint of the {@link
+	 * HttpClientOptions#loadBalancer() load balancer} unless redirected to another host.
+	 */
+	SocketAddress remoteAddress(URI uri) {
+		LoadBalancer balancer = parent.options.loadBalancer();
+		if (balancer != null && Objects.equals(uri.getAuthority(), startURI.getAuthority())) {
+			return balancer.call();
+		}
+		return parent.options.getRemoteAddress(uri);
+	}
+
 	static final class HttpClientHandler
 			implements BiFunction<NettyInbound, NettyOutbound, Publisher<Void>> {
 
@@ -96,6 +119,7 @@ final class FlowableHttpClientResponse extends Flowable<HttpClientResponse> {
 			try {
 				URI uri = bridge.activeURI;
 				HttpClientOperations ch = (HttpClientOperations) in;
+				bridge.operations = ch;
 				String host = uri.getHost();
 				int port = uri.getPort();
 				if (port != -1 && port != 80 && port != 443) {
@@ -138,10 +162,16 @@ final class FlowableHttpClientResponse extends Flowable<HttpClientResponse> {
 	static final class ReconnectableBridge
 			implements Predicate<Throwable>, Consumer<Channel> {
 
-		volatile URI      activeURI;
-		volatile String[] redirectedFrom;
+		final boolean idempotent;
 
-		ReconnectableBridge() {
+		volatile URI                  activeURI;
+		volatile String[]             redirectedFrom;
+		volatile HttpClientOperations operations;
+
+		boolean staleRetried;
+
+		ReconnectableBridge(boolean idempotent) {
+			this.idempotent = idempotent;
 		}
 
 		void redirect(String to) {
@@ -170,6 +200,7 @@ final class FlowableHttpClientResponse extends Flowable<HttpClientResponse> {
 
 		@Override
 		public void accept(Channel channel) {
+			operations = null;
 			String[] redirectedFrom = this.redirectedFrom;
 			if (redirectedFrom != null) {
 				channel.attr(HttpClientOperations.REDIRECT_ATTR_KEY)
@@ -184,12 +215,44 @@ final class FlowableHttpClientResponse extends Flowable<HttpClientResponse> {
 				redirect(re.location);
 				return true;
 			}
+			if (!staleRetried && isStaleConnection(throwable)) {
+				staleRetried = true;
+				return true;
+			}
 			if (AbortedException.isConnectionReset(throwable)) {
 				redirect(activeURI.toString());
 				return true;
 			}
 			return false;
 		}
+
+		/**
+		 * A pooled connection closed by the remote peer while idle fails the next
+		 * exchange before any response is received, an idempotent request can safely be
+		 * sent again on another connection.
+		 *
+		 * @param throwable the exchange failure
+		 *
+		 * @return true if the failed exchange can be retried once
+		 */
+		boolean isStaleConnection(Throwable throwable) {
+			HttpClientOperations ops = operations;
+			return idempotent
+					&& ops != null
+					&& ops.reused
+					&& !ops.started
+					&& (throwable instanceof IOException || throwable instanceof AbortedException);
+		}
+	}
+
+	static boolean isIdempotent(HttpMethod method) {
+		return method == HttpMethod.GET
+				|| method == HttpClient.WS
+				|| method == HttpMethod.HEAD
+				|| method == HttpMethod.OPTIONS
+				|| method == HttpMethod.PUT
+				|| method == HttpMethod.DELETE
+				|| method == HttpMethod.TRACE;
 	}
 
 
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.http.client;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.util.internal.LongCounter;
+import io.netty.util.internal.PlatformDependent;
+import io.reactivex.Flowable;
+import io.reactivex.internal.functions.ObjectHelper;
+
+/**
+ * A policy sending a duplicate of a slow idempotent request, to be passed to {@link
+ * HttpClientOptions.Builder#hedge(HedgePolicy)}. If no response headers are received
+ * within the hedge delay, the same request is sent again on a newly acquired connection,
+ * to a newly picked endpoint when a {@link io.reactivex.netty.resources.LoadBalancer}
+ * provides the connect address. The first response wins and the other request is
+ * cancelled, its connection released or closed. A failed request leaves the other one
+ * to answer, the error is only propagated if both fail.
+ * <p>
+ * Hedges are capped by a budget: every request earns the given ratio of a hedge, e.g.
+ * {@code 0.1} allows at most 10% extra requests, a hedge is only sent if a whole one
+ * has been earned. A policy is meant to be shared by the requests to the same backends.
+ * <p>
+ * Only GET, HEAD and OPTIONS requests are hedged unless {@link #methods(HttpMethod...)}
+ * says otherwise. The request handler is applied again to the duplicate, it must be able
+ * to send the same request twice.
+ *
+ * @author Stephane Maldini
+ */
+public final class HedgePolicy {
+
+	/**
+	 * Create a {@link HedgePolicy} hedging requests without response headers after the
+	 * given delay.
+	 *
+	 * @param delayMillis the delay in millis before sending a hedge
+	 * @param budget the ratio of extra requests allowed, e.g. 0.1 for 10%
+	 *
+	 * @return a new {@link HedgePolicy}
+	 */
+	public static HedgePolicy delay(long delayMillis, double budget) {
+		if (delayMillis <= 0L) {
+			throw new IllegalArgumentException("Delay value must be strictly positive");
+		}
+		return new HedgePolicy(delayMillis, -1d, checkBudget(budget), DEFAULT_METHODS);
+	}
+
+	/**
+	 * Create a {@link HedgePolicy} hedging requests without response headers after the
+	 * given percentile of the recently observed response header latencies, e.g. 0.95 to
+	 * hedge the slowest 5%. The initial delay applies until enough latencies are known.
+	 *
+	 * @param percentile the latency percentile, strictly between 0 and 1
+	 * @param initialDelayMillis the delay in millis before sending a hedge until enough
+	 * latencies are known
+	 * @param budget the ratio of extra requests allowed, e.g. 0.1 for 10%
+	 *
+	 * @return a new {@link HedgePolicy}
+	 */
+	public static HedgePolicy percentile(double percentile,
+			long initialDelayMillis,
+			double budget) {
+		if (percentile <= 0d || percentile >= 1d) {
+			throw new IllegalArgumentException("Percentile value must be strictly between 0 and 1");
+		}
+		if (initialDelayMillis <= 0L) {
+			throw new IllegalArgumentException("Initial Delay value must be strictly positive");
+		}
+		return new HedgePolicy(initialDelayMillis,
+				percentile,
+				checkBudget(budget),
+				DEFAULT_METHODS);
+	}
+
+	final double          percentile;
+	final long            deposit;
+	final long            maxBalance;
+	final Set<HttpMethod> methods;
+	final AtomicLong      balance;
+	final LongCounter     hedges;
+	final long[]          latencies;
+	final AtomicInteger   samples;
+
+	volatile long delayNanos;
+
+	HedgePolicy(long delayMillis, double percentile, double budget, Set<HttpMethod> methods) {
+		this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+		this.percentile = percentile;
+		this.deposit = Math.round(budget * HEDGE_COST);
+		this.maxBalance = Math.max(HEDGE_COST, deposit * MAX_BURST);
+		this.methods = methods;
+		this.balance = new AtomicLong();
+		this.hedges = PlatformDependent.newLongCounter();
+		this.latencies = percentile > 0d ? new long[SAMPLES] : null;
+		this.samples = new AtomicInteger();
+	}
+
+	/**
+	 * Return a new {@link HedgePolicy} with the same delay and budget hedging requests of
+	 * the given methods, e.g. to include PUT or DELETE to an idempotent API
+	 *
+	 * @param methods the methods of the requests to hedge
+	 *
+	 * @return a new {@link HedgePolicy}
+	 */
+	public HedgePolicy methods(HttpMethod... methods) {
+		ObjectHelper.requireNonNull(methods, "methods");
+		return new HedgePolicy(delay(),
+				percentile,
+				(double) deposit / HEDGE_COST,
+				Collections.unmodifiableSet(new HashSet<>(Arrays.asList(methods))));
+	}
+
+	/**
+	 * Return the current delay in millis before sending a hedge
+	 *
+	 * @return the current hedge delay in millis
+	 */
+	public long delay() {
+		return TimeUnit.NANOSECONDS.toMillis(delayNanos);
+	}
+
+	/**
+	 * Return the total number of hedges sent
+	 *
+	 * @return the total number of hedges sent
+	 */
+	public long hedges() {
+		return hedges.value();
+	}
+
+	final boolean isHedged(HttpMethod method) {
+		return methods.contains(method);
+	}
+
+	/**
+	 * Send the request created by the given supplier and a hedge if no response has been
+	 * received after the current delay and the budget allows it.
+	 *
+	 * @param request a supplier of a new request {@link Flowable}
+	 *
+	 * @return the first response
+	 */
+	final Flowable<HttpClientResponse> hedge(Callable<Flowable<HttpClientResponse>> request) {
+		return Flowable.defer(() -> {
+			deposit();
+			long start = System.nanoTime();
+			Attempts attempts = new Attempts();
+
+			Flowable<HttpClientResponse> hedge =
+					Flowable.timer(delayNanos, TimeUnit.NANOSECONDS)
+					        .flatMap(t -> {
+						        if (!attempts.add()) {
+							        // the original request has already failed
+							        return Flowable.<HttpClientResponse>never();
+						        }
+						        if (!tryHedge()) {
+							        return attempts.done(null);
+						        }
+						        return request.call()
+						                      .onErrorResumeNext(attempts::done);
+					        });
+
+			return Flowable.amb(Arrays.asList(request.call()
+			                                         .onErrorResumeNext(attempts::done),
+					hedge))
+			               .doOnNext(r -> record(System.nanoTime() - start));
+		});
+	}
+
+	final void deposit() {
+		for (; ; ) {
+			long b = balance.get();
+			long next = Math.min(maxBalance, b + deposit);
+			if (next == b || balance.compareAndSet(b, next)) {
+				return;
+			}
+		}
+	}
+
+	final boolean tryHedge() {
+		for (; ; ) {
+			long b = balance.get();
+			if (b < HEDGE_COST) {
+				return false;
+			}
+			if (balance.compareAndSet(b, b - HEDGE_COST)) {
+				hedges.increment();
+				return true;
+			}
+		}
+	}
+
+	final void record(long latencyNanos) {
+		if (latencies == null) {
+			return;
+		}
+		int n = samples.getAndIncrement();
+		latencies[n & (SAMPLES - 1)] = latencyNanos;
+		// recompute the percentile every few samples once the window is full enough
+		if ((n < 0 || n >= MIN_SAMPLES) && (n & (RECOMPUTE_EVERY - 1)) == 0) {
+			long[] window = latencies.clone();
+			int size = n < 0 || n >= SAMPLES ? SAMPLES : n + 1;
+			Arrays.sort(window, 0, size);
+			delayNanos = Math.max(1L, window[(int) Math.min(size - 1, Math.floor(size * percentile))]);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "HedgePolicy{" + "delay=" + delay() + "ms" + (percentile > 0d ?
+				", percentile=" + percentile : "") + ", budget=" + (double) deposit / HEDGE_COST + ", methods=" + methods + '}';
+	}
+
+	/**
+	 * The attempts of a request still pending: a failed attempt leaves the others to
+	 * answer and only the last one surfaces the error.
+	 */
+	static final class Attempts {
+
+		final AtomicInteger pending = new AtomicInteger(1);
+
+		volatile Throwable error;
+
+		/**
+		 * @return true if a new attempt can be made, false if all have failed
+		 */
+		boolean add() {
+			for (; ; ) {
+				int p = pending.get();
+				if (p == 0) {
+					return false;
+				}
+				if (pending.compareAndSet(p, p + 1)) {
+					return true;
+				}
+			}
+		}
+
+		/**
+		 * Terminate an attempt.
+		 *
+		 * @param e the attempt error or null if it has not been made
+		 *
+		 * @return the error to surface if it was the last pending attempt or a never
+		 * terminating {@link Flowable}
+		 */
+		Flowable<HttpClientResponse> done(Throwable e) {
+			if (e != null) {
+				error = e;
+			}
+			if (pending.decrementAndGet() == 0) {
+				return Flowable.error(error);
+			}
+			return Flowable.never();
+		}
+	}
+
+	static double checkBudget(double budget) {
+		if (budget <= 0d) {
+			throw new IllegalArgumentException("Budget value must be strictly positive");
+		}
+		return budget;
+	}
+
+	static final Set<HttpMethod> DEFAULT_METHODS = Collections.unmodifiableSet(new HashSet<>(
+			Arrays.asList(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS)));
+
+	/**
+	 * The budget balance in thousandths of a hedge
+	 */
+	static final long HEDGE_COST      = 1000L;
+	/**
+	 * The number of requests the budget can be saved over, bounding hedge bursts
+	 */
+	static final long MAX_BURST       = 100L;
+	static final int  SAMPLES         = 256;
+	static final int  MIN_SAMPLES     = 32;
+	static final int  RECOMPUTE_EVERY = 16;
+}
@@ -0,0 +1,553 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.http.client;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Queue;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2FrameListenerDecorator;
+import io.netty.handler.codec.http2.Http2MultiplexCodec;
+import io.netty.handler.codec.http2.Http2MultiplexCodecBuilder;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamChannelBootstrap;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.internal.LongCounter;
+import io.netty.util.internal.PlatformDependent;
+import io.reactivex.functions.Consumer;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.netty.NettyPipeline;
+import io.reactivex.netty.channel.HappyEyeballs;
+import io.reactivex.netty.options.ClientOptions;
+import io.reactivex.netty.resources.PoolMetrics;
+
+/**
+ * A {@link ChannelPool} of HTTP/2 streams to a single remote address. Acquiring opens a
+ * new {@link Http2StreamChannel} on the least loaded connection that has not reached
+ * the peer SETTINGS_MAX_CONCURRENT_STREAMS, a new connection being opened only when all
+ * are saturated and fewer than {@link #DEFAULT_MAX_CONNECTIONS} exist. Otherwise the
+ * acquisition is parked until a stream closes. Releasing closes the stream.
+ * <p>
+ * As {@link PoolMetrics}, connections are the HTTP/2 connections, active ones carrying
+ * at least one stream.
+ *
+ * @author Stephane Maldini
+ */
+final class Http2ClientPool implements ChannelPool, PoolMetrics {
+
+	final Bootstrap      bootstrap;
+	final ClientOptions  options;
+	final boolean        secure;
+	final ChannelHandler streamInitializer;
+	final int            maxConnections;
+
+	final List<Connection>        connections = new ArrayList<>();
+	final Queue<Promise<Channel>> pending     = new ArrayDeque<>();
+
+	final LongCounter createdConnections = PlatformDependent.newLongCounter();
+	final LongCounter acquires           = PlatformDependent.newLongCounter();
+	final LongCounter acquireFailures    = PlatformDependent.newLongCounter();
+	final LongCounter acquireTimeNanos   = PlatformDependent.newLongCounter();
+
+	boolean closed;
+
+	Http2ClientPool(Bootstrap bootstrap,
+			ClientOptions options,
+			boolean secure,
+			Consumer<? super Channel> onStreamCreate) {
+		this(bootstrap, options, secure, onStreamCreate, DEFAULT_MAX_CONNECTIONS);
+	}
+
+	Http2ClientPool(Bootstrap bootstrap,
+			ClientOptions options,
+			boolean secure,
+			Consumer<? super Channel> onStreamCreate,
+			int maxConnections) {
+		if (maxConnections <= 0) {
+			throw new IllegalArgumentException("maxConnections must be strictly positive");
+		}
+		ObjectHelper.requireNonNull(onStreamCreate, "onStreamCreate");
+		this.bootstrap = bootstrap.option(ChannelOption.AUTO_READ, true);
+		this.options = options;
+		this.secure = secure;
+		this.maxConnections = maxConnections;
+		this.streamInitializer = new ChannelInitializer<Channel>() {
+			@Override
+			protected void initChannel(Channel ch) throws Exception {
+				onStreamCreate.accept(ch);
+			}
+		};
+	}
+
+	@Override
+	public Future<Channel> acquire() {
+		return acquire(bootstrap.config()
+		                        .group()
+		                        .next()
+		                        .<Channel>newPromise());
+	}
+
+	@Override
+	public Future<Channel> acquire(Promise<Channel> promise) {
+		ObjectHelper.requireNonNull(promise, "promise");
+		long start = System.nanoTime();
+		promise.addListener(f -> {
+			if (f.isSuccess()) {
+				acquires.increment();
+				acquireTimeNanos.add(System.nanoTime() - start);
+			}
+			else {
+				acquireFailures.increment();
+			}
+		});
+		Connection c;
+		Connection newConnection = null;
+		synchronized (this) {
+			if (closed) {
+				promise.tryFailure(new IllegalStateException("Pool closed"));
+				return promise;
+			}
+			c = reserveStream();
+			if (c == null) {
+				pending.add(promise);
+				newConnection = newConnection();
+			}
+		}
+		if (c != null) {
+			c.openStream(promise);
+		}
+		else if (newConnection != null) {
+			newConnection.connect();
+		}
+		return promise;
+	}
+
+	@Override
+	public Future<Void> release(Channel channel) {
+		return release(channel,
+				channel.eventLoop()
+				       .<Void>newPromise());
+	}
+
+	@Override
+	public Future<Void> release(Channel channel, Promise<Void> promise) {
+		// a stream carries a single exchange, the slot is freed once it is closed
+		if (channel.isOpen()) {
+			channel.close();
+		}
+		return promise.setSuccess(null);
+	}
+
+	@Override
+	public void close() {
+		List<Connection> connections;
+		List<Promise<Channel>> pending;
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			connections = new ArrayList<>(this.connections);
+			pending = new ArrayList<>(this.pending);
+			this.connections.clear();
+			this.pending.clear();
+		}
+		for (Promise<Channel> p : pending) {
+			p.tryFailure(new IllegalStateException("Pool closed"));
+		}
+		for (Connection c : connections) {
+			c.close();
+		}
+	}
+
+	/**
+	 * Serve parked acquisitions from the connections with free stream slots, opening a
+	 * new connection if none and the limit allows it.
+	 */
+	final void drain() {
+		for (; ; ) {
+			Promise<Channel> p;
+			Connection c;
+			Connection newConnection = null;
+			synchronized (this) {
+				p = pending.peek();
+				if (p == null) {
+					return;
+				}
+				if (p.isDone()) {
+					// cancelled
+					pending.poll();
+					continue;
+				}
+				c = reserveStream();
+				if (c != null) {
+					pending.poll();
+				}
+				else {
+					newConnection = newConnection();
+				}
+			}
+			if (c == null) {
+				if (newConnection != null) {
+					newConnection.connect();
+				}
+				return;
+			}
+			c.openStream(p);
+		}
+	}
+
+	/**
+	 * Must hold the pool lock.
+	 *
+	 * @return the least loaded ready connection with a reserved stream slot or null
+	 */
+	final Connection reserveStream() {
+		Connection selected = null;
+		for (Connection c : connections) {
+			if (c.ready && c.activeStreams < c.maxStreams && (selected == null || c.activeStreams < selected.activeStreams)) {
+				selected = c;
+			}
+		}
+		if (selected != null) {
+			selected.activeStreams++;
+		}
+		return selected;
+	}
+
+	/**
+	 * Must hold the pool lock.
+	 *
+	 * @return a new registered connection to connect or null if one is already being
+	 * established or the limit has been reached
+	 */
+	final Connection newConnection() {
+		if (connections.size() >= maxConnections) {
+			return null;
+		}
+		for (Connection c : connections) {
+			if (!c.ready) {
+				return null;
+			}
+		}
+		Connection c = new Connection(newCodec());
+		connections.add(c);
+		return c;
+	}
+
+	final void onStreamClosed(Connection c) {
+		synchronized (this) {
+			c.activeStreams--;
+		}
+		drain();
+	}
+
+	final void onConnectionReady() {
+		drain();
+	}
+
+	final void onConnectionClosed(Connection c, Throwable cause) {
+		List<Promise<Channel>> failed = null;
+		synchronized (this) {
+			if (!connections.remove(c)) {
+				return;
+			}
+			if (!c.ready && connections.isEmpty()) {
+				// could not establish a connection, do not retry in a loop
+				failed = new ArrayList<>(pending);
+				pending.clear();
+			}
+		}
+		if (failed != null) {
+			for (Promise<Channel> p : failed) {
+				p.tryFailure(cause);
+			}
+			return;
+		}
+		drain();
+	}
+
+	@Override
+	public SocketAddress remoteAddress() {
+		return bootstrap.config()
+		                .remoteAddress();
+	}
+
+	@Override
+	public synchronized int connections() {
+		return connections.size();
+	}
+
+	@Override
+	public synchronized int activeConnections() {
+		int active = 0;
+		for (Connection c : connections) {
+			if (c.activeStreams > 0) {
+				active++;
+			}
+		}
+		return active;
+	}
+
+	@Override
+	public synchronized int idleConnections() {
+		return connections.size() - activeConnections();
+	}
+
+	@Override
+	public synchronized int pendingAcquires() {
+		return pending.size();
+	}
+
+	@Override
+	public synchronized int queuedAcquires() {
+		return connections.size() >= maxConnections ? pending.size() : 0;
+	}
+
+	@Override
+	public long createdConnections() {
+		return createdConnections.value();
+	}
+
+	@Override
+	public long acquires() {
+		return acquires.value();
+	}
+
+	@Override
+	public long acquireFailures() {
+		return acquireFailures.value();
+	}
+
+	@Override
+	public long acquireTimeNanos() {
+		return acquireTimeNanos.value();
+	}
+
+	@Override
+	public long healthCheckFailures() {
+		return 0L;
+	}
+
+	@Override
+	public String toString() {
+		synchronized (this) {
+			return "Http2ClientPool{" + "connections=" + connections.size() + ", pending=" + pending.size() + '}';
+		}
+	}
+
+	/**
+	 * A multiplexed connection, ready once the peer SETTINGS have been received and
+	 * unusable for new streams once a GOAWAY has been received. The {@link
+	 * Http2MultiplexCodec} does not propagate these frames, their listener is decorated
+	 * instead.
+	 */
+	final class Connection extends Http2FrameListenerDecorator
+			implements ChannelFutureListener {
+
+		final Http2MultiplexCodec codec;
+
+		/**
+		 * Guarded by the pool lock
+		 */
+		int     activeStreams;
+		int     maxStreams = Integer.MAX_VALUE;
+		boolean ready;
+
+		Channel channel;
+
+		Connection(Http2MultiplexCodec codec) {
+			super(codec.decoder()
+			           .frameListener());
+			this.codec = codec;
+			codec.decoder()
+			     .frameListener(this);
+		}
+
+		final void connect() {
+			HappyEyeballs.connect(bootstrap.clone()
+			                               .handler(new ChannelInitializer<Channel>() {
+				                               @Override
+				                               protected void initChannel(Channel ch)
+						                               throws Exception {
+					                               Connection.this.initChannel(ch);
+				                               }
+			                               }))
+			             .addListener(this);
+		}
+
+		final void initChannel(Channel ch) {
+			channel = ch;
+			ChannelPipeline p = ch.pipeline();
+			SslHandler sslHandler = secure ? options.getSslHandler(ch.alloc(), sni()) : null;
+			if (sslHandler != null) {
+				p.addLast(NettyPipeline.SslHandler, sslHandler)
+				 .addLast(NettyPipeline.HttpProtocolDetector, new AlpnHandler());
+			}
+			else {
+				p.addLast(NettyPipeline.Http2Codec, codec);
+			}
+		}
+
+		final void openStream(Promise<Channel> promise) {
+			new Http2StreamChannelBootstrap(channel).handler(streamInitializer)
+			                                        .open()
+			                                        .addListener((Future<Http2StreamChannel> f) -> {
+				                                        if (!f.isSuccess()) {
+					                                        onStreamClosed(this);
+					                                        promise.tryFailure(f.cause());
+					                                        return;
+				                                        }
+				                                        Channel stream = f.getNow();
+				                                        stream.closeFuture()
+				                                              .addListener(cf -> onStreamClosed(this));
+				                                        if (!promise.trySuccess(stream)) {
+					                                        stream.close();
+				                                        }
+			                                        });
+		}
+
+		final void close() {
+			if (channel != null) {
+				channel.close();
+			}
+		}
+
+		@Override
+		public void operationComplete(ChannelFuture future) throws Exception {
+			if (!future.isSuccess()) {
+				onConnectionClosed(this, future.cause());
+				return;
+			}
+			createdConnections.increment();
+			// the codec writes its preface on channel active, right after this listener,
+			// and defers the flush until streams are written: the peer SETTINGS awaited
+			// before opening any would never come
+			Channel ch = future.channel();
+			ch.eventLoop()
+			  .execute(ch::flush);
+			ch.closeFuture()
+			      .addListener(f -> onConnectionClosed(this,
+					      new IllegalStateException("HTTP/2 connection closed")));
+		}
+
+		@Override
+		public void onSettingsRead(ChannelHandlerContext ctx, Http2Settings settings)
+				throws Http2Exception {
+			super.onSettingsRead(ctx, settings);
+			Long max = settings.maxConcurrentStreams();
+			synchronized (Http2ClientPool.this) {
+				if (max != null) {
+					maxStreams = (int) Math.min(max, Integer.MAX_VALUE);
+				}
+				ready = true;
+			}
+			onConnectionReady();
+		}
+
+		@Override
+		public void onGoAwayRead(ChannelHandlerContext ctx,
+				int lastStreamId,
+				long errorCode,
+				ByteBuf debugData) throws Http2Exception {
+			super.onGoAwayRead(ctx, lastStreamId, errorCode, debugData);
+			// in-flight streams complete, new ones go to another connection
+			onConnectionClosed(this,
+					new IllegalStateException("HTTP/2 connection going away"));
+		}
+
+		final Entry<String, Integer> sni() {
+			SocketAddress remote = bootstrap.config()
+			                                .remoteAddress();
+			if (remote instanceof InetSocketAddress) {
+				InetSocketAddress ipa = (InetSocketAddress) remote;
+				return new SimpleImmutableEntry<>(ipa.getHostString(), ipa.getPort());
+			}
+			return null;
+		}
+
+		/**
+		 * Install the HTTP/2 codec once ALPN selected h2 or fail the connection.
+		 */
+		final class AlpnHandler extends ApplicationProtocolNegotiationHandler {
+
+			AlpnHandler() {
+				super(ApplicationProtocolNames.HTTP_1_1);
+			}
+
+			@Override
+			protected void configurePipeline(ChannelHandlerContext ctx, String protocol)
+					throws Exception {
+				if (ApplicationProtocolNames.HTTP_2.equals(protocol)) {
+					ctx.pipeline()
+					   .addLast(NettyPipeline.Http2Codec, codec);
+					ctx.channel()
+					   .flush();
+					return;
+				}
+				throw new IllegalStateException("HTTP/2 not negotiated by " + ctx.channel()
+				                                                                 .remoteAddress() + ": " + protocol);
+			}
+		}
+	}
+
+	static Http2MultiplexCodec newCodec() {
+		return Http2MultiplexCodecBuilder.forClient(NOOP_STREAM_HANDLER)
+		                                 .initialSettings(Http2Settings.defaultSettings()
+		                                                               .pushEnabled(false))
+		                                 .build();
+	}
+
+	/**
+	 * Default maximum number of HTTP/2 connections per remote address
+	 */
+	static final int DEFAULT_MAX_CONNECTIONS =
+			Integer.parseInt(System.getProperty("io.reactivex.netty.http2.maxConnections", "2"));
+
+	/**
+	 * Server push is disabled by the client SETTINGS, this handler is nevertheless added
+	 * to every stream by the {@link Http2MultiplexCodec}
+	 */
+	static final ChannelHandler NOOP_STREAM_HANDLER = new ChannelInitializer<Channel>() {
+		@Override
+		protected void initChannel(Channel ch) throws Exception {
+			//ignore
+		}
+	};
+}
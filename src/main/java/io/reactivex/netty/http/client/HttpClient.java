@@ -19,6 +19,11 @@ package io.reactivex.netty.http.client;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelPipeline;
@@ -32,8 +37,11 @@ import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpRequestEncoder;
 import io.netty.handler.codec.http.HttpResponseDecoder;
 import io.netty.handler.logging.LoggingHandler;
+import io.netty.util.internal.PlatformDependent;
 
+import io.reactivex.Completable;
 import io.reactivex.Flowable;
+import io.reactivex.Maybe;
 import io.reactivex.MaybeEmitter;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.BiConsumer;
@@ -42,13 +50,17 @@ import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Function;
 import io.reactivex.internal.functions.ObjectHelper;
 import io.reactivex.netty.NettyConnector;
+import io.reactivex.netty.NettyHandler;
 import io.reactivex.netty.NettyInbound;
 import io.reactivex.netty.NettyPipeline;
 import io.reactivex.netty.channel.ContextHandler;
+import io.reactivex.netty.http.Http2StreamFrameToHttpObjectCodec;
 import io.reactivex.netty.http.HttpResources;
 import io.reactivex.netty.http.websocket.WebsocketInbound;
 import io.reactivex.netty.http.websocket.WebsocketOutbound;
 import io.reactivex.netty.options.ClientOptions;
+import io.reactivex.netty.resources.LoadBalancer;
+import io.reactivex.netty.resources.PoolResources;
 import org.reactivestreams.Publisher;
 import io.reactivex.netty.NettyContext;
 import io.reactivex.netty.NettyOutbound;
@@ -278,7 +290,13 @@ public class HttpClient extends NettyConnector<HttpClientResponse, HttpClientReq
 			throw new IllegalArgumentException("Method && url cannot be both null");
 		}
 
-		return new FlowableHttpClientResponse(this, url, method, handler(handler, options));
+		Function<? super HttpClientRequest, ? extends Publisher<Void>> h = handler(handler, options);
+		HedgePolicy hedgePolicy = options.hedgePolicy();
+		if (hedgePolicy != null && hedgePolicy.isHedged(method)) {
+			// a new response flowable per attempt so the hedge picks its own address
+			return hedgePolicy.hedge(() -> new FlowableHttpClientResponse(this, url, method, h));
+		}
+		return new FlowableHttpClientResponse(this, url, method, h);
 	}
 
 	/**
@@ -354,6 +372,59 @@ public class HttpClient extends NettyConnector<HttpClientResponse, HttpClientReq
 				});
 	}
 
+	/**
+	 * Eagerly open the given number of connections to the configured address into the
+	 * pool the requests acquire from, including the TLS handshake if secure. The
+	 * returned {@link Completable} completes once they are idle in the pool, e.g. to
+	 * gate a readiness probe. With {@link HttpClientOptions#http2()} a single connection
+	 * is opened since it carries the concurrent requests.
+	 *
+	 * @param connections the number of connections to open
+	 *
+	 * @return a new {@link Completable} to open the connections on subscribe
+	 */
+	public final Completable warmup(int connections) {
+		return warmup("/", connections);
+	}
+
+	/**
+	 * Eagerly open the given number of connections to the host of the passed URL into
+	 * the pool the requests to that host acquire from, including the TLS handshake if
+	 * secure. The returned {@link Completable} completes once they are idle in the
+	 * pool, e.g. to gate a readiness probe. With {@link HttpClientOptions#http2()} a
+	 * single connection is opened since it carries the concurrent requests.
+	 *
+	 * <p>
+	 * With a {@link HttpClientOptions#loadBalancer() load balancer} the connections are
+	 * opened to each of its endpoints instead.
+	 *
+	 * @param url the target remote URL, only its scheme, host and port are used
+	 * @param connections the number of connections to open
+	 *
+	 * @return a new {@link Completable} to open the connections on subscribe
+	 */
+	public final Completable warmup(String url, int connections) {
+		ObjectHelper.requireNonNull(url, "url");
+		URI uri;
+		try {
+			uri = new URI(options.formatSchemeAndHost(url, false));
+		}
+		catch (URISyntaxException e) {
+			throw Exceptions.propagate(e);
+		}
+		boolean secure = HttpClientOptions.isSecure(uri);
+		LoadBalancer balancer = options.loadBalancer();
+		if (balancer == null) {
+			return client.warmup(options.getRemoteAddress(uri), secure, connections);
+		}
+		List<Completable> endpoints = new ArrayList<>(balancer.endpoints()
+		                                                      .size());
+		for (SocketAddress endpoint : balancer.endpoints()) {
+			endpoints.add(client.warmup(endpoint, secure, connections));
+		}
+		return Completable.merge(endpoints);
+	}
+
 	/**
 	 * Get a copy of the {@link HttpClientOptions} currently in effect.
 	 *
@@ -379,18 +450,48 @@ public class HttpClient extends NettyConnector<HttpClientResponse, HttpClientReq
 	final class TcpBridgeClient extends TcpClient implements
 	                                              BiConsumer<ChannelPipeline, ContextHandler<Channel>> {
 
+		/**
+		 * The stream pools if the client has no {@link PoolResources} or they do not
+		 * provide multiplexed pools, living as long as the client
+		 */
+		final ConcurrentMap<SocketAddress, ChannelPool> streamPools =
+				PlatformDependent.newConcurrentHashMap();
+
 		TcpBridgeClient(ClientOptions options) {
 			super(options);
 		}
 
 		@Override
 		protected Flowable<NettyContext> newHandler(BiFunction<? super NettyInbound, ? super NettyOutbound, ? extends Publisher<Void>> handler,
-				InetSocketAddress address,
+				SocketAddress address,
 				boolean secure,
 				Consumer<? super Channel> onSetup) {
 			return super.newHandler(handler, address, secure, onSetup);
 		}
 
+		@Override
+		protected Completable warmup(SocketAddress address,
+				boolean secure,
+				int connections) {
+			if (!options.http2() || options.useProxy(address)) {
+				return super.warmup(address, secure, connections);
+			}
+			if (connections <= 0) {
+				throw new IllegalArgumentException("Connections value must be strictly positive");
+			}
+			return Maybe.<NettyContext>create(sink -> {
+				SocketAddress remote = address != null ? address : options.getAddress();
+
+				ChannelPool pool = selectOrCreateStreamPool(remote,
+						secure,
+						doHandler(null, sink, secure, remote, null, null));
+
+				// streams share the connection, opening one is enough
+				warmup(pool, 1, sink);
+			})
+			            .ignoreElement();
+		}
+
 		@Override
 		protected ContextHandler<SocketChannel> doHandler(BiFunction<? super NettyInbound, ? super NettyOutbound, ? extends Publisher<Void>> handler,
 				MaybeEmitter<NettyContext> sink,
@@ -398,7 +499,16 @@ public class HttpClient extends NettyConnector<HttpClientResponse, HttpClientReq
 				SocketAddress providedAddress,
 				ChannelPool pool,
 				Consumer<? super Channel> onSetup) {
-			return ContextHandler.<SocketChannel>newClientContext(sink,
+			return newContext(handler, sink, secure, providedAddress, pool, onSetup);
+		}
+
+		final <CHANNEL extends Channel> ContextHandler<CHANNEL> newContext(BiFunction<? super NettyInbound, ? super NettyOutbound, ? extends Publisher<Void>> handler,
+				MaybeEmitter<NettyContext> sink,
+				boolean secure,
+				SocketAddress providedAddress,
+				ChannelPool pool,
+				Consumer<? super Channel> onSetup) {
+			return ContextHandler.<CHANNEL>newClientContext(sink,
 					options,
 					loggingHandler,
 					secure,
@@ -416,6 +526,79 @@ public class HttpClient extends NettyConnector<HttpClientResponse, HttpClientReq
 					} : EMPTY).onPipeline(this);
 		}
 
+		/**
+		 * Connect the handler to a new HTTP/2 stream of a connection shared with other
+		 * requests to the same address.
+		 *
+		 * @return a new Flowable to open a stream on subscribe
+		 */
+		final Flowable<NettyContext> newStreamHandler(BiFunction<? super NettyInbound, ? super NettyOutbound, ? extends Publisher<Void>> handler,
+				SocketAddress address,
+				boolean secure,
+				Consumer<? super Channel> onSetup) {
+			if (options.useProxy(address)) {
+				return newHandler(handler, address, secure, onSetup);
+			}
+			return NettyHandler.create(sink -> {
+				SocketAddress remote = address != null ? address : options.getAddress();
+
+				ChannelPool pool = selectOrCreateStreamPool(remote,
+						secure,
+						doHandler(null, sink, secure, remote, null, null));
+
+				// streams are not socket channels
+				ContextHandler<Channel> contextHandler =
+						newContext(handler, sink, secure, remote, pool, onSetup);
+				sink.setCancellable(contextHandler);
+				contextHandler.setFuture(pool.acquire());
+			});
+		}
+
+		final ChannelPool selectOrCreateStreamPool(SocketAddress remote,
+				boolean secure,
+				ContextHandler<?> streamContext) {
+			// the pool resources close the pool once disposed
+			PoolResources poolResources = options.getPoolResources();
+			if (poolResources != null) {
+				ChannelPool pool = poolResources.selectOrCreateMultiplexed(remote,
+						() -> newStreamPool(remote, secure, streamContext));
+				if (pool != null) {
+					return pool;
+				}
+			}
+
+			for (; ; ) {
+				ChannelPool pool = streamPools.get(remote);
+				if (pool != null) {
+					return pool;
+				}
+				pool = newStreamPool(remote, secure, streamContext);
+				if (streamPools.putIfAbsent(remote, pool) == null) {
+					return pool;
+				}
+				pool.close();
+			}
+		}
+
+		final Http2ClientPool newStreamPool(SocketAddress remote,
+				boolean secure,
+				ContextHandler<?> streamContext) {
+			return new Http2ClientPool(options.call()
+			                                  .remoteAddress(remote),
+					options,
+					secure,
+					ch -> streamContext.initStreamChannel(ch, this::acceptStream));
+		}
+
+		final void acceptStream(ChannelPipeline pipeline, ContextHandler<Channel> c) {
+			pipeline.addLast(NettyPipeline.Http2StreamCodec,
+					new Http2StreamFrameToHttpObjectCodec(false));
+			if (options.acceptGzip()) {
+				pipeline.addLast(NettyPipeline.HttpDecompressor,
+						new HttpContentDecompressor());
+			}
+		}
+
 		@Override
 		public void accept(ChannelPipeline pipeline, ContextHandler<Channel> c) {
 			pipeline.addLast(NettyPipeline.HttpDecoder, new HttpResponseDecoder())
@@ -23,18 +23,20 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.DefaultHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpConstants;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMessage;
@@ -54,6 +56,7 @@ import io.netty.handler.codec.http.multipart.HttpPostRequestEncoder;
 import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.AttributeKey;
 import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
 import io.reactivex.Flowable;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.Action;
@@ -62,6 +65,7 @@ import io.reactivex.functions.Consumer;
 import io.reactivex.internal.functions.ObjectHelper;
 import io.reactivex.internal.subscriptions.EmptySubscription;
 import io.reactivex.netty.*;
+import io.reactivex.netty.channel.ChannelOperations;
 import io.reactivex.netty.channel.ContextHandler;
 import io.reactivex.netty.http.HttpOperations;
 import io.reactivex.netty.http.websocket.WebsocketInbound;
@@ -87,6 +91,7 @@ class HttpClientOperations extends HttpOperations<HttpClientResponse, HttpClient
 	final boolean     isSecure;
 	final HttpRequest nettyRequest;
 	final HttpHeaders requestHeaders;
+	final boolean     reused;
 
 	volatile ResponseState responseState;
 	int inboundPrefetch;
@@ -96,6 +101,12 @@ class HttpClientOperations extends HttpOperations<HttpClientResponse, HttpClient
 	boolean clientError = true;
 	boolean serverError = true;
 	boolean redirectable;
+	long    receivedBytes;
+	long    drainBudget = -1L;
+
+	volatile boolean inboundCancelled;
+
+	ScheduledFuture<?> drainTimeout;
 
 	HttpClientOperations(Channel channel, HttpClientOperations replaced) {
 		super(channel, replaced);
@@ -107,6 +118,7 @@ class HttpClientOperations extends HttpOperations<HttpClientResponse, HttpClient
 		this.redirectable = replaced.redirectable;
 		this.inboundPrefetch = replaced.inboundPrefetch;
 		this.requestHeaders = replaced.requestHeaders;
+		this.reused = replaced.reused;
 		this.clientError = replaced.clientError;
 		this.serverError = replaced.serverError;
 	}
@@ -120,6 +132,8 @@ class HttpClientOperations extends HttpOperations<HttpClientResponse, HttpClient
 		String[] redirects = channel.attr(REDIRECT_ATTR_KEY)
 		                            .get();
 		this.redirectedFrom = redirects == null ? EMPTY_REDIRECTIONS : redirects;
+		this.reused = channel.attr(EXCHANGED_ATTR_KEY)
+		                     .getAndSet(Boolean.TRUE) != null;
 		this.nettyRequest =
 				new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/");
 		this.requestHeaders = nettyRequest.headers();
@@ -252,13 +266,91 @@ class HttpClientOperations extends HttpOperations<HttpClientResponse, HttpClient
 
 	@Override
 	protected void onInboundCancel() {
-		channel().close();
+		inboundCancelled = true;
+		if (channel().eventLoop()
+		             .inEventLoop()) {
+			abandonResponse();
+		}
+		else {
+			// the drain state is shared with onInboundNext and only used on the event
+			// loop
+			channel().eventLoop()
+			         .execute(this::abandonResponse);
+		}
+	}
+
+	final void abandonResponse() {
+		if (ChannelOperations.get(channel()) != this) {
+			// the exchange already terminated and released the connection
+			return;
+		}
+		if (!drainResponse()) {
+			channel().close();
+		}
+	}
+
+	/**
+	 * Discard the rest of an abandoned response body instead of closing the
+	 * connection, if it is small enough to be read within the drain limits. The
+	 * connection is then released for reuse once the last content is read.
+	 *
+	 * @return true if the remaining response body is being drained
+	 */
+	final boolean drainResponse() {
+		ResponseState state = responseState;
+		if (state == null
+				|| isWebsocket()
+				|| !hasSentBody()
+				|| DRAIN_MAX_BYTES <= 0L
+				|| DRAIN_TIMEOUT <= 0L
+				|| !RxNetty.isPersistent(channel())
+				|| !channel().isActive()) {
+			return false;
+		}
+		if (!HttpUtil.isTransferEncodingChunked(state.response)) {
+			// a body delimited by the connection close cannot be drained
+			if (!HttpUtil.isContentLengthSet(state.response)
+					|| HttpUtil.getContentLength(state.response, 0L) - receivedBytes > DRAIN_MAX_BYTES) {
+				return false;
+			}
+		}
+		drainBudget = DRAIN_MAX_BYTES;
+		drainTimeout = channel().eventLoop()
+		                        .schedule(() -> {
+			                        if (drainBudget >= 0L && ChannelOperations.get(channel()) == this) {
+				                        channel().close();
+			                        }
+		                        }, DRAIN_TIMEOUT, TimeUnit.MILLISECONDS);
+		channel().config()
+		         .setAutoRead(true);
+		channel().read();
+		return true;
+	}
+
+	final void drainNext(Object msg) {
+		if (msg instanceof HttpContent) {
+			drainBudget -= ((HttpContent) msg).content()
+			                                 .readableBytes();
+		}
+		ReferenceCountUtil.release(msg);
+		if (msg instanceof LastHttpContent) {
+			drainBudget = -1L;
+			drainTimeout.cancel(false);
+			onHandlerTerminate();
+		}
+		else if (drainBudget < 0L) {
+			drainTimeout.cancel(false);
+			channel().close();
+		}
 	}
 
 	@Override
 	protected void onInboundComplete() {
 		if (responseState == null) {
-			parentContext().fireContextError(new IOException("Connection closed prematurely"));
+			// closed by the cancelled receiver, e.g. a hedging loser: nobody listens
+			if (!inboundCancelled) {
+				parentContext().fireContextError(new IOException("Connection closed prematurely"));
+			}
 			return;
 		}
 		super.onInboundComplete();
@@ -362,24 +454,21 @@ class HttpClientOperations extends HttpOperations<HttpClientResponse, HttpClient
 	@Override
 	public NettyOutbound send(Publisher<? extends ByteBuf> source) {
 		if (method() == HttpMethod.GET || method() == HttpMethod.HEAD) {
-			ByteBufAllocator alloc = channel().alloc();
-			return then(Flowable.fromPublisher(source)
-			    .doOnNext(ByteBuf::retain)
-			    .collect(alloc::buffer, ByteBuf::writeBytes)
-			    .flatMapPublisher(agg -> {
-				    if (!hasSentHeaders() && !HttpUtil.isTransferEncodingChunked(
-						    outboundHttpMessage()) && !HttpUtil.isContentLengthSet(
-						    outboundHttpMessage())) {
-					    outboundHttpMessage().headers()
-					                         .setInt(HttpHeaderNames.CONTENT_LENGTH,
-							                         agg.readableBytes());
-				    }
-				    return send(Flowable.just(agg)).then();
-			    }));
+			// don't chunk a GET or HEAD body unless it is too large to be aggregated
+			return sendAggregatedMessage(source, MAX_FULL_MESSAGE_BYTES);
 		}
 		return super.send(source);
 	}
 
+	@Override
+	public NettyOutbound sendObject(Publisher<?> dataStream) {
+		if (isWebsocket()) {
+			return super.sendObject(dataStream);
+		}
+		// only aggregate a body that is already complete
+		return sendFullMessage(dataStream, 0);
+	}
+
 	@Override
 	public Flowable<Long> sendForm(Consumer<Form> formCallback) {
 		return new FlowableSendForm(this, formCallback);
@@ -504,6 +593,10 @@ class HttpClientOperations extends HttpOperations<HttpClientResponse, HttpClient
 
 	@Override
 	protected void onInboundNext(ChannelHandlerContext ctx, Object msg) {
+		if (drainBudget >= 0L) {
+			drainNext(msg);
+			return;
+		}
 		if (msg instanceof HttpResponse) {
 			HttpResponse response = (HttpResponse) msg;
 			if (response.decoderResult()
@@ -540,6 +633,8 @@ class HttpClientOperations extends HttpOperations<HttpClientResponse, HttpClient
 				return;
 			}
 			if (msg != LastHttpContent.EMPTY_LAST_CONTENT) {
+				receivedBytes += ((LastHttpContent) msg).content()
+				                                        .readableBytes();
 				super.onInboundNext(ctx, msg);
 			}
 			//force auto read to enable more accurate close selection now inbound is done
@@ -551,6 +646,10 @@ class HttpClientOperations extends HttpOperations<HttpClientResponse, HttpClient
 		if (!started) {
 			return;
 		}
+		if (msg instanceof HttpContent) {
+			receivedBytes += ((HttpContent) msg).content()
+			                                    .readableBytes();
+		}
 		super.onInboundNext(ctx, msg);
 		prefetchMore(ctx);
 	}
@@ -592,12 +691,12 @@ class HttpClientOperations extends HttpOperations<HttpClientResponse, HttpClient
 	}
 
 	@Override
-	protected HttpMessage newFullEmptyBodyMessage() {
-		HttpRequest request = new DefaultFullHttpRequest(version(), method(), uri());
+	protected HttpMessage newFullBodyMessage(ByteBuf body) {
+		HttpRequest request = new DefaultFullHttpRequest(version(), method(), uri(), body);
 
 		request.headers()
 		       .set(requestHeaders.remove(HttpHeaderNames.TRANSFER_ENCODING)
-		                          .setInt(HttpHeaderNames.CONTENT_LENGTH, 0));
+		                          .setInt(HttpHeaderNames.CONTENT_LENGTH, body.readableBytes()));
 		return request;
 	}
 
@@ -771,8 +870,34 @@ class HttpClientOperations extends HttpOperations<HttpClientResponse, HttpClient
 		}
 	}
 
+	/**
+	 * The maximum size of a GET or HEAD body aggregated and sent with the headers as a
+	 * {@link FullHttpRequest}, a larger body is streamed chunked
+	 */
+	static final int                    MAX_FULL_MESSAGE_BYTES =
+			Integer.parseInt(System.getProperty("io.reactivex.netty.http.client.maxFullMessageBytes",
+					"65536"));
+	/**
+	 * The maximum size of an abandoned response body read and discarded to reuse the
+	 * connection, 0 always closes the connection
+	 */
+	static final long                   DRAIN_MAX_BYTES        =
+			Long.parseLong(System.getProperty("io.reactivex.netty.http.client.drainMaxBytes",
+					"65536"));
+	/**
+	 * The maximum time in millis to read and discard an abandoned response body before
+	 * closing the connection, 0 always closes the connection
+	 */
+	static final long                   DRAIN_TIMEOUT          =
+			Long.parseLong(System.getProperty("io.reactivex.netty.http.client.drainTimeout",
+					"500"));
 	static final int                    MAX_REDIRECTS      = 50;
 	static final String[]               EMPTY_REDIRECTIONS = new String[0];
 	static final AttributeKey<String[]> REDIRECT_ATTR_KEY  =
 			AttributeKey.newInstance("httpRedirects");
+	/**
+	 * Set once a channel carried an exchange, a later exchange is on a reused connection
+	 */
+	static final AttributeKey<Boolean>  EXCHANGED_ATTR_KEY =
+			AttributeKey.newInstance("httpExchanged");
 }
@@ -29,6 +29,8 @@ import io.reactivex.internal.functions.ObjectHelper;
 import io.reactivex.netty.options.ClientOptions;
 import io.reactivex.netty.options.ClientProxyOptions;
 import io.reactivex.netty.options.ClientProxyOptions.Proxy;
+import io.reactivex.netty.resources.LoadBalancer;
+import io.reactivex.netty.resources.PoolResources;
 
 /**
  * An http client connector builder with low-level connection options including
@@ -50,11 +52,17 @@ public final class HttpClientOptions extends ClientOptions {
 		return new HttpClientOptions.Builder();
 	}
 
-	private final boolean acceptGzip;
+	private final boolean      acceptGzip;
+	private final boolean      http2;
+	private final HedgePolicy  hedgePolicy;
+	private final LoadBalancer loadBalancer;
 
 	private HttpClientOptions(HttpClientOptions.Builder builder) {
 		super(builder);
 		this.acceptGzip = builder.acceptGzip;
+		this.http2 = builder.http2;
+		this.hedgePolicy = builder.hedgePolicy;
+		this.loadBalancer = builder.loadBalancer;
 	}
 
 	@Override
@@ -66,8 +74,9 @@ public final class HttpClientOptions extends ClientOptions {
 	 * Return a new {@link InetSocketAddress} from the URI.
 	 * <p>
 	 * If the port is undefined (-1), a default port is used (80 or 443 depending on
-	 * whether the URI is secure or not). If {@link #useProxy(String) a proxy} is used, the
-	 * returned address is provided unresolved.
+	 * whether the URI is secure or not). If {@link #useProxy(String) a proxy} or a {@link
+	 * #useCustomResolver() custom resolver} is used or if {@link #raceConnects() connects
+	 * are raced}, the returned address is provided unresolved.
 	 *
 	 * @param uri {@link URI} to extract host and port information from
 	 * @return a new eventual {@link InetSocketAddress}
@@ -76,7 +85,8 @@ public final class HttpClientOptions extends ClientOptions {
 		ObjectHelper.requireNonNull(uri, "uri");
 		boolean secure = isSecure(uri);
 		int port = uri.getPort() != -1 ? uri.getPort() : (secure ? 443 : 80);
-		return useProxy(uri.getHost()) ? InetSocketAddress.createUnresolved(uri.getHost(), port) :
+		return useProxy(uri.getHost()) || useCustomResolver() || raceConnects() ?
+				InetSocketAddress.createUnresolved(uri.getHost(), port) :
 				new InetSocketAddress(uri.getHost(), port);
 	}
 
@@ -89,6 +99,34 @@ public final class HttpClientOptions extends ClientOptions {
 		return this.acceptGzip;
 	}
 
+	/**
+	 * Returns true if requests are multiplexed as HTTP/2 streams over a few connections
+	 * per host, negotiated with ALPN when secure or prior knowledge otherwise.
+	 *
+	 * @return true if requests are sent over HTTP/2
+	 */
+	public boolean http2() {
+		return this.http2;
+	}
+
+	/**
+	 * Return the {@link HedgePolicy} of the idempotent requests if any
+	 *
+	 * @return an eventual {@link HedgePolicy}
+	 */
+	public HedgePolicy hedgePolicy() {
+		return this.hedgePolicy;
+	}
+
+	/**
+	 * Return the {@link LoadBalancer} picking the endpoint of each request if any
+	 *
+	 * @return an eventual {@link LoadBalancer}
+	 */
+	public LoadBalancer loadBalancer() {
+		return this.loadBalancer;
+	}
+
 	@Override
 	protected SslContext defaultSslContext() {
 		return DEFAULT_SSL_CONTEXT;
@@ -130,12 +168,12 @@ public final class HttpClientOptions extends ClientOptions {
 
 	@Override
 	public String asSimpleString() {
-		return super.asSimpleString() + (acceptGzip ? " with gzip" : "");
+		return super.asSimpleString() + (acceptGzip ? " with gzip" : "") + (http2 ? " over h2" : "");
 	}
 
 	@Override
 	public String asDetailedString() {
-		return super.asDetailedString() + ", acceptGzip=" + acceptGzip;
+		return super.asDetailedString() + ", http2=" + http2 + ", acceptGzip=" + acceptGzip;
 	}
 
 	@Override
@@ -166,7 +204,10 @@ public final class HttpClientOptions extends ClientOptions {
 	}
 
 	public static final class Builder extends ClientOptions.Builder<Builder> {
-		private boolean acceptGzip;
+		private boolean      acceptGzip;
+		private boolean      http2;
+		private HedgePolicy  hedgePolicy;
+		private LoadBalancer loadBalancer;
 
 		private Builder() {
 			super(new Bootstrap());
@@ -183,6 +224,54 @@ public final class HttpClientOptions extends ClientOptions {
 			return call();
 		}
 
+		/**
+		 * Send requests as HTTP/2 streams multiplexed over a few connections per host,
+		 * each connection opening no more concurrent streams than the peer allows. Plain
+		 * connections assume the server speaks HTTP/2 (prior knowledge), secure ones
+		 * negotiate it with ALPN which must be enabled on the {@link SslContext}. Proxied
+		 * and websocket requests keep using HTTP/1.1.
+		 * <p>
+		 * The connections are closed when the client {@link PoolResources} are disposed
+		 * and reported by their metrics, the pool connection limit, idle and lifetime
+		 * eviction and pending acquire bound do not apply to them. Without {@link
+		 * PoolResources} providing multiplexed pools they live as long as the client.
+		 *
+		 * @param enabled true whether requests are sent over HTTP/2
+		 * @return {@code this}
+		 */
+		public final Builder http2(boolean enabled) {
+			this.http2 = enabled;
+			return call();
+		}
+
+		/**
+		 * Hedge slow idempotent requests: send a duplicate when no response headers are
+		 * received after the policy delay, within the policy budget, and use the first
+		 * response.
+		 *
+		 * @param hedgePolicy the {@link HedgePolicy} to apply
+		 * @return {@code this}
+		 */
+		public final Builder hedge(HedgePolicy hedgePolicy) {
+			this.hedgePolicy = ObjectHelper.requireNonNull(hedgePolicy, "hedgePolicy");
+			return call();
+		}
+
+		/**
+		 * Connect each request to the endpoint picked by the given {@link LoadBalancer},
+		 * whatever the request URL host. The picked endpoint is connected as is and keys
+		 * the connection pool, while the URL still gives the {@code Host} header: relative
+		 * URLs use the {@link #host(String) host} and {@link #port(int) port} of the
+		 * client, e.g. the service name. Redirects to another host are not balanced.
+		 *
+		 * @param loadBalancer the {@link LoadBalancer} picking the request endpoints
+		 * @return {@code this}
+		 */
+		public final Builder loadBalancer(LoadBalancer loadBalancer) {
+			this.loadBalancer = ObjectHelper.requireNonNull(loadBalancer, "loadBalancer");
+			return call();
+		}
+
 		/**
 		 * The HTTP proxy configuration
 		 *
@@ -203,6 +292,9 @@ public final class HttpClientOptions extends ClientOptions {
 		public final Builder from(HttpClientOptions options) {
 			super.from(options);
 			this.acceptGzip = options.acceptGzip;
+			this.http2 = options.http2;
+			this.hedgePolicy = options.hedgePolicy;
+			this.loadBalancer = options.loadBalancer;
 			return call();
 		}
 
@@ -19,7 +19,8 @@ package io.reactivex.netty.http.server;
 
 import java.io.File;
 import java.net.URI;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -40,6 +41,11 @@ final class DefaultHttpServerRoutes implements HttpServerRoutes {
 	private final CopyOnWriteArrayList<HttpRouteHandler> handlers =
 			new CopyOnWriteArrayList<>();
 
+	/**
+	 * Compiled view of {@link #handlers}, rebuilt on each registration.
+	 */
+	private volatile CompiledRoutes compiled = new CompiledRoutes(handlers);
+
 	@Override
 	public HttpServerRoutes directory(String uri, File directory,
 			Function<HttpServerResponse, HttpServerResponse> interceptor) {
@@ -74,29 +80,43 @@ final class DefaultHttpServerRoutes implements HttpServerRoutes {
 		ObjectHelper.requireNonNull(condition, "condition");
 		ObjectHelper.requireNonNull(handler, "handler");
 
-		if (condition instanceof HttpPredicate) {
-			handlers.add(new HttpRouteHandler(condition,
-					handler,
-					(HttpPredicate) condition));
-		}
-		else {
-			handlers.add(new HttpRouteHandler(condition, handler, null));
+		synchronized (handlers) {
+			if (condition instanceof HttpPredicate) {
+				handlers.add(new HttpRouteHandler(condition,
+						handler,
+						(HttpPredicate) condition));
+			}
+			else {
+				handlers.add(new HttpRouteHandler(condition, handler, null));
+			}
+			compiled = new CompiledRoutes(handlers);
 		}
 		return this;
 	}
 
 	@Override
 	public Publisher<Void> apply(HttpServerRequest request, HttpServerResponse response) {
-		final Iterator<HttpRouteHandler> iterator = handlers.iterator();
-		HttpRouteHandler cursor;
+		CompiledRoutes routes = compiled;
 
 		try {
-			while (iterator.hasNext()) {
-				cursor = iterator.next();
+			HttpRouteTrie.Match<HttpRouteHandler> match = routes.trie.match(request);
+			int limit = match != null ? match.order : Integer.MAX_VALUE;
+
+			// predicates registered before the indexed match still take precedence
+			for (int i = 0; i < routes.ordered.size(); i++) {
+				if (routes.orders[i] >= limit) {
+					break;
+				}
+				HttpRouteHandler cursor = routes.ordered.get(i);
 				if (cursor.test(request)) {
 					return cursor.apply(request, response);
 				}
 			}
+
+			if (match != null) {
+				Map<String, String> params = match.params;
+				return match.handler.apply(request, response, uri -> params);
+			}
 		}
 		catch (Throwable t) {
 			Exceptions.throwIfFatal(t);
@@ -106,6 +126,32 @@ final class DefaultHttpServerRoutes implements HttpServerRoutes {
 		return response.sendNotFound();
 	}
 
+	/**
+	 * Routes split between a {@link HttpRouteTrie} for {@link HttpPredicate} templates it
+	 * can index and an ordered list for every other predicate.
+	 */
+	static final class CompiledRoutes {
+
+		final HttpRouteTrie<HttpRouteHandler> trie    = new HttpRouteTrie<>();
+		final List<HttpRouteHandler>          ordered = new ArrayList<>();
+		final int[]                           orders;
+
+		CompiledRoutes(List<HttpRouteHandler> handlers) {
+			int[] orders = new int[handlers.size()];
+			int order = 0;
+			for (HttpRouteHandler handler : handlers) {
+				if (!(handler.condition instanceof HttpPredicate) || !trie.add(order,
+						(HttpPredicate) handler.condition,
+						handler)) {
+					orders[ordered.size()] = order;
+					ordered.add(handler);
+				}
+				order++;
+			}
+			this.orders = orders;
+		}
+	}
+
 	/**
 	 */
 	static final class HttpRouteHandler
@@ -128,6 +174,12 @@ final class DefaultHttpServerRoutes implements HttpServerRoutes {
 		@Override
 		public Publisher<Void> apply(HttpServerRequest request,
 				HttpServerResponse response) {
+			return apply(request, response, resolver);
+		}
+
+		Publisher<Void> apply(HttpServerRequest request,
+				HttpServerResponse response,
+				Function<? super String, Map<String, String>> resolver) {
 			return Flowable.defer(() -> handler.apply(request.paramsResolver(resolver), response));
 		}
 
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.http.server;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.base64.Base64;
+import io.netty.handler.codec.base64.Base64Dialect;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http2.Http2CodecUtil;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2MultiplexCodec;
+import io.netty.handler.codec.http2.Http2MultiplexCodecBuilder;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
+import io.netty.util.AsciiString;
+import io.netty.util.CharsetUtil;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.netty.NettyPipeline;
+import io.reactivex.netty.channel.ContextHandler;
+import io.reactivex.netty.http.Http2StreamFrameToHttpObjectCodec;
+
+/**
+ * Switch a server connection from HTTP/1.1 to HTTP/2 if the client starts with the
+ * HTTP/2 connection preface (prior knowledge), and provide the h2c upgrade codec to
+ * {@link HttpServerUpgradeHandler}. Once switched, the connection is driven by a
+ * {@link Http2MultiplexCodec} and every stream is initialized as its own channel
+ * handled by {@link Http2StreamHandler}.
+ *
+ * @author Stephane Maldini
+ */
+final class Http2ServerHandler extends ByteToMessageDecoder
+		implements HttpServerUpgradeHandler.SourceCodec,
+		           HttpServerUpgradeHandler.UpgradeCodecFactory {
+
+	final ContextHandler<Channel> context;
+
+	Http2ServerHandler(ContextHandler<Channel> context) {
+		this.context = context;
+	}
+
+	@Override
+	protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out)
+			throws Exception {
+		ByteBuf preface = CONNECTION_PREFACE;
+		int n = Math.min(in.readableBytes(), preface.readableBytes());
+		if (!ByteBufUtil.equals(in, in.readerIndex(), preface, preface.readerIndex(), n)) {
+			// HTTP/1.1, forward the cumulated bytes
+			ctx.pipeline()
+			   .remove(this);
+			return;
+		}
+		if (n == preface.readableBytes()) {
+			removeHttp11(ctx.pipeline());
+			ctx.pipeline()
+			   .remove(NettyPipeline.HttpUpgradeHandler);
+			ctx.pipeline()
+			   .addAfter(ctx.name(), NettyPipeline.Http2Codec, newCodec(context));
+			ctx.channel()
+			   .config()
+			   .setAutoRead(true);
+			// the codec reads the preface
+			ctx.pipeline()
+			   .remove(this);
+		}
+	}
+
+	@Override
+	public HttpServerUpgradeHandler.UpgradeCodec newUpgradeCodec(CharSequence protocol) {
+		if (AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)) {
+			return new UpgradeCodec(newCodec(context));
+		}
+		return null;
+	}
+
+	@Override
+	public void upgradeFrom(ChannelHandlerContext ctx) {
+		ChannelPipeline p = ctx.pipeline();
+		if (p.get(NettyPipeline.HttpProtocolDetector) != null) {
+			p.remove(NettyPipeline.HttpProtocolDetector);
+		}
+		removeHttp11(p);
+		ctx.channel()
+		   .config()
+		   .setAutoRead(true);
+	}
+
+	static Http2MultiplexCodec newCodec(ContextHandler<Channel> context) {
+		return Http2MultiplexCodecBuilder.forServer(new ChannelInitializer<Channel>() {
+			@Override
+			protected void initChannel(Channel ch) throws Exception {
+				context.initStreamChannel(ch, STREAM_CONFIGURATOR);
+			}
+		})
+		                                 .build();
+	}
+
+	static void removeHttp11(ChannelPipeline p) {
+		for (String name : HTTP11_HANDLERS) {
+			if (p.get(name) != null) {
+				p.remove(name);
+			}
+		}
+	}
+
+	/**
+	 * The h2c upgrade codec. Unlike {@link io.netty.handler.codec.http2.Http2ServerUpgradeCodec}
+	 * the client settings are applied and the upgrade stream created once the {@link
+	 * Http2MultiplexCodec} is in the pipeline, so the stream 1 channel carrying the
+	 * upgrade request can be registered.
+	 */
+	static final class UpgradeCodec implements HttpServerUpgradeHandler.UpgradeCodec {
+
+		final Http2MultiplexCodec codec;
+
+		Http2Settings settings;
+
+		UpgradeCodec(Http2MultiplexCodec codec) {
+			this.codec = codec;
+		}
+
+		@Override
+		public Collection<CharSequence> requiredUpgradeHeaders() {
+			return REQUIRED_UPGRADE_HEADERS;
+		}
+
+		@Override
+		public boolean prepareUpgradeResponse(ChannelHandlerContext ctx,
+				FullHttpRequest upgradeRequest,
+				HttpHeaders upgradeHeaders) {
+			List<String> values = upgradeRequest.headers()
+			                                    .getAll(Http2CodecUtil.HTTP_UPGRADE_SETTINGS_HEADER);
+			if (values.size() != 1) {
+				return false;
+			}
+			try {
+				settings = decodeSettings(values.get(0));
+				return true;
+			}
+			catch (IllegalArgumentException e) {
+				return false;
+			}
+		}
+
+		@Override
+		public void upgradeTo(ChannelHandlerContext ctx, FullHttpRequest upgradeRequest) {
+			ctx.pipeline()
+			   .addAfter(ctx.name(), NettyPipeline.Http2Codec, codec);
+			try {
+				// the codec has sent its preface, apply what onHttpServerUpgrade would
+				codec.encoder()
+				     .remoteSettings(settings);
+				codec.connection()
+				     .remote()
+				     .createStream(Http2CodecUtil.HTTP_UPGRADE_STREAM_ID, true);
+			}
+			catch (Http2Exception e) {
+				ctx.fireExceptionCaught(e);
+				ctx.close();
+			}
+		}
+
+		static Http2Settings decodeSettings(String value) {
+			ByteBuf header = Unpooled.wrappedBuffer(value.getBytes(CharsetUtil.US_ASCII));
+			ByteBuf payload = Base64.decode(header, Base64Dialect.URL_SAFE);
+			try {
+				// a SETTINGS frame payload: 16 bits identifiers and 32 bits values
+				Http2Settings settings = new Http2Settings();
+				while (payload.readableBytes() >= SETTING_ENTRY_LENGTH) {
+					settings.put((char) payload.readUnsignedShort(), Long.valueOf(payload.readUnsignedInt()));
+				}
+				if (payload.isReadable()) {
+					throw new IllegalArgumentException("Malformed HTTP2-Settings header");
+				}
+				return settings;
+			}
+			finally {
+				payload.release();
+			}
+		}
+	}
+
+	/**
+	 * Negotiate HTTP/2 or HTTP/1.1 with ALPN once the TLS handshake completes.
+	 */
+	static final class AlpnHandler extends ApplicationProtocolNegotiationHandler {
+
+		final ContextHandler<Channel>                              context;
+		final BiConsumer<ChannelPipeline, ContextHandler<Channel>> http11Configurator;
+
+		AlpnHandler(ContextHandler<Channel> context,
+				BiConsumer<ChannelPipeline, ContextHandler<Channel>> http11Configurator) {
+			super(ApplicationProtocolNames.HTTP_1_1);
+			this.context = context;
+			this.http11Configurator = http11Configurator;
+		}
+
+		@Override
+		public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+			super.handlerAdded(ctx);
+			// drive the TLS handshake
+			ctx.read();
+		}
+
+		@Override
+		protected void configurePipeline(ChannelHandlerContext ctx, String protocol)
+				throws Exception {
+			if (ApplicationProtocolNames.HTTP_2.equals(protocol)) {
+				// this handler is already removed, the codec replaces the connection bridge
+				HttpServer.addBeforeBridge(ctx.pipeline(),
+						NettyPipeline.Http2Codec,
+						newCodec(context));
+				removeHttp11(ctx.pipeline());
+				ctx.channel()
+				   .config()
+				   .setAutoRead(true);
+			}
+			// a JDK 9+ engine reports no negotiated protocol as an empty string
+			else if (ApplicationProtocolNames.HTTP_1_1.equals(protocol) || protocol.isEmpty()) {
+				http11Configurator.accept(ctx.pipeline(), context);
+			}
+			else {
+				throw new IllegalStateException("Unsupported protocol: " + protocol);
+			}
+		}
+	}
+
+	static final int SETTING_ENTRY_LENGTH = 6;
+
+	static final Collection<CharSequence> REQUIRED_UPGRADE_HEADERS =
+			Collections.singletonList(Http2CodecUtil.HTTP_UPGRADE_SETTINGS_HEADER);
+
+	static final ByteBuf CONNECTION_PREFACE = Http2CodecUtil.connectionPrefaceBuf();
+
+	static final String[] HTTP11_HANDLERS = {NettyPipeline.HttpDecoder,
+			NettyPipeline.HttpEncoder, NettyPipeline.CompressionHandler,
+			NettyPipeline.HttpServerHandler, NettyPipeline.ReactiveBridge};
+
+	static final BiConsumer<ChannelPipeline, ContextHandler<Channel>> STREAM_CONFIGURATOR =
+			(p, c) -> p.addLast(NettyPipeline.Http2StreamCodec,
+					new Http2StreamFrameToHttpObjectCodec(true))
+			           .addLast(NettyPipeline.HttpServerHandler, new Http2StreamHandler(c));
+}
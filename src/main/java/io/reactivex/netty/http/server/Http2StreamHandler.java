@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.http.server;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.reactivex.netty.channel.ContextHandler;
+
+/**
+ * The {@link HttpServerHandler} of a single HTTP/2 stream: the stream carries exactly
+ * one request and one response and is closed once the response has been written.
+ *
+ * @author Stephane Maldini
+ */
+final class Http2StreamHandler extends ChannelDuplexHandler {
+
+	final ContextHandler<?> parentContext;
+
+	Http2StreamHandler(ContextHandler<?> parentContext) {
+		this.parentContext = parentContext;
+	}
+
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+		super.handlerAdded(ctx);
+		ctx.read();
+	}
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+		if (msg instanceof HttpRequest) {
+			parentContext.createOperations(ctx.channel(), msg);
+
+			if (!(msg instanceof FullHttpRequest)) {
+				return;
+			}
+		}
+		ctx.fireChannelRead(msg);
+	}
+
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
+			throws Exception {
+		if (msg instanceof LastHttpContent) {
+			promise.addListener(ChannelFutureListener.CLOSE);
+		}
+		ctx.write(msg, promise);
+	}
+}
@@ -18,7 +18,9 @@
 package io.reactivex.netty.http.server;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -26,6 +28,8 @@ import java.util.regex.Pattern;
 
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.internal.LongCounter;
+import io.netty.util.internal.PlatformDependent;
 import io.reactivex.functions.Function;
 import io.reactivex.functions.Predicate;
 import io.reactivex.internal.functions.ObjectHelper;
@@ -224,14 +228,22 @@ final class HttpPredicate
 		private static final String  NAME_REPLACEMENT = "(?<%NAME%>[^\\/]*)";
 		//private static final String  NAME_REPLACEMENT = "([^\\/]*)";
 
-		private final List<String>                         pathVariables =
-				new ArrayList<>();
-		private final HashMap<String, Matcher>             matchers      =
-				new HashMap<>();
-		private final HashMap<String, Map<String, String>> vars          =
-				new HashMap<>();
+		/**
+		 * Default number of distinct uris whose match result is cached per template.
+		 */
+		static final int DEFAULT_CACHE_CAPACITY = Integer.parseInt(System.getProperty(
+				"io.reactivex.netty.http.server.uriTemplateCacheSize",
+				"" + 1024));
 
-		private final Pattern uriPattern;
+		/**
+		 * Cached result for uris not matching the template.
+		 */
+		static final Map<String, String> NO_MATCH = Collections.unmodifiableMap(new HashMap<>());
+
+		private final List<String> pathVariables = new ArrayList<>();
+
+		private final Pattern    uriPattern;
+		private final MatchCache cache;
 
 		/**
 		 * Creates a new {@code UriPathTemplate} from the given {@code uriPattern}.
@@ -239,6 +251,21 @@ final class HttpPredicate
 		 * @param uriPattern The pattern to be used by the template
 		 */
 		public UriPathTemplate(String uriPattern) {
+			this(uriPattern, DEFAULT_CACHE_CAPACITY);
+		}
+
+		/**
+		 * Creates a new {@code UriPathTemplate} from the given {@code uriPattern}.
+		 *
+		 * @param uriPattern The pattern to be used by the template
+		 * @param cacheCapacity The maximum number of distinct uris whose match result is
+		 * kept, 0 to disable caching
+		 */
+		public UriPathTemplate(String uriPattern, int cacheCapacity) {
+			if (cacheCapacity < 0) {
+				throw new IllegalArgumentException("cacheCapacity must be positive or 0");
+			}
+			this.cache = cacheCapacity == 0 ? null : new MatchCache(cacheCapacity);
 			String s = "^" + uriPattern;
 
 			Matcher m = NAME_SPLAT_PATTERN.matcher(s);
@@ -279,7 +306,7 @@ final class HttpPredicate
 		 * @return {@code true} if there's a match, {@code false} otherwise
 		 */
 		public boolean matches(String uri) {
-			return matcher(uri).matches();
+			return resolve(uri) != NO_MATCH;
 		}
 
 		/**
@@ -289,41 +316,126 @@ final class HttpPredicate
 		 *
 		 * @param uri The uri to match
 		 *
-		 * @return the path parameters from the uri. Never {@code null}.
+		 * @return the unmodifiable path parameters from the uri. Never {@code null}.
 		 */
 		final Map<String, String> match(String uri) {
-			Map<String, String> pathParameters = vars.get(uri);
-			if (null != pathParameters) {
-				return pathParameters;
-			}
+			return resolve(uri);
+		}
 
-			pathParameters = new HashMap<>();
-			Matcher m = matcher(uri);
-			if (m.matches()) {
-				int i = 1;
-				for (String name : pathVariables) {
-					String val = m.group(i++);
-					pathParameters.put(name, val);
-				}
+		/**
+		 * @return the number of lookups answered from the match cache
+		 */
+		final long cacheHits() {
+			return cache != null ? cache.hits.value() : 0L;
+		}
+
+		/**
+		 * @return the number of lookups that evaluated the template pattern
+		 */
+		final long cacheMisses() {
+			return cache != null ? cache.misses.value() : 0L;
+		}
+
+		private Map<String, String> resolve(String uri) {
+			if (cache == null) {
+				return evaluate(uri);
 			}
-			synchronized (vars) {
-				vars.put(uri, pathParameters);
+			Map<String, String> pathParameters = cache.get(uri);
+			if (pathParameters == null) {
+				pathParameters = evaluate(uri);
+				cache.put(uri, pathParameters);
 			}
-
 			return pathParameters;
 		}
 
-		private Matcher matcher(String uri) {
-			Matcher m = matchers.get(uri);
-			if (null == m) {
-				m = uriPattern.matcher(uri);
-				synchronized (matchers) {
-					matchers.put(uri, m);
+		private Map<String, String> evaluate(String uri) {
+			// Matcher is stateful, never share it across calls
+			Matcher m = uriPattern.matcher(uri);
+			if (!m.matches()) {
+				return NO_MATCH;
+			}
+			if (pathVariables.isEmpty()) {
+				return Collections.emptyMap();
+			}
+			Map<String, String> pathParameters = new HashMap<>();
+			int i = 1;
+			for (String name : pathVariables) {
+				String val = m.group(i++);
+				pathParameters.put(name, val);
+			}
+			return Collections.unmodifiableMap(pathParameters);
+		}
+
+		/**
+		 * A bounded LRU cache split in independently locked stripes so that event loops
+		 * resolving different uris rarely contend.
+		 */
+		static final class MatchCache {
+
+			final MatchCacheStripe[] stripes;
+			final int                mask;
+			final LongCounter        hits   = PlatformDependent.newLongCounter();
+			final LongCounter        misses = PlatformDependent.newLongCounter();
+
+			MatchCache(int capacity) {
+				int n = 1;
+				while (n < STRIPES && n * 2 <= capacity) {
+					n *= 2;
+				}
+				int stripeCapacity = (capacity + n - 1) / n;
+				this.stripes = new MatchCacheStripe[n];
+				for (int i = 0; i < n; i++) {
+					stripes[i] = new MatchCacheStripe(stripeCapacity);
+				}
+				this.mask = n - 1;
+			}
+
+			Map<String, String> get(String uri) {
+				MatchCacheStripe stripe = stripe(uri);
+				Map<String, String> v;
+				synchronized (stripe) {
+					v = stripe.get(uri);
+				}
+				if (v == null) {
+					misses.increment();
+				}
+				else {
+					hits.increment();
+				}
+				return v;
+			}
+
+			void put(String uri, Map<String, String> pathParameters) {
+				MatchCacheStripe stripe = stripe(uri);
+				synchronized (stripe) {
+					stripe.put(uri, pathParameters);
 				}
 			}
-			return m;
+
+			MatchCacheStripe stripe(String uri) {
+				int h = uri.hashCode();
+				return stripes[(h ^ (h >>> 16)) & mask];
+			}
+
+			static final int STRIPES = 16;
 		}
 
+		@SuppressWarnings("serial")
+		static final class MatchCacheStripe
+				extends LinkedHashMap<String, Map<String, String>> {
+
+			final int capacity;
+
+			MatchCacheStripe(int capacity) {
+				super(16, 0.75f, true);
+				this.capacity = capacity;
+			}
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Map<String, String>> eldest) {
+				return size() > capacity;
+			}
+		}
 	}
 
 	static final class HttpPrefixPredicate implements Predicate<HttpServerRequest> {
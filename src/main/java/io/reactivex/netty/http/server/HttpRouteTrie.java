@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.http.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+/**
+ * A segment tree of {@link HttpPredicate} routes indexed by {@link HttpMethod}.
+ * <p>
+ * Each route template is split on {@code /} into literal segments, whole segment
+ * variables ({@code {name}}) and a trailing splat ({@code **} or {@code {name}**}).
+ * Lookups walk the request uri once, following literal children by hash and variable
+ * or splat children directly, so their cost depends on the uri length rather than on
+ * the number of registered routes. When several routes match, the one registered first
+ * wins, exactly like the ordered scan it replaces.
+ * <p>
+ * Literal segments are compared as-is, a {@code .} only matches itself. Templates using
+ * any other pattern syntax are rejected by {@link #add} and must be evaluated in order by
+ * the caller.
+ *
+ * @param <T> the routed handler type
+ *
+ * @author Stephane Maldini
+ */
+final class HttpRouteTrie<T> {
+
+	final Map<HttpMethod, Node<T>> byMethod  = new HashMap<>();
+	final Node<T>                  anyMethod = new Node<>();
+
+	/**
+	 * Index the given route if its template can be represented by this tree.
+	 *
+	 * @param order the registration order, lower wins
+	 * @param predicate the route predicate
+	 * @param handler the handler to return on match
+	 *
+	 * @return true if the route has been indexed, false if it must be evaluated in order
+	 */
+	boolean add(int order, HttpPredicate predicate, T handler) {
+		List<String> segments = parse(predicate.uri);
+		if (segments == null) {
+			return false;
+		}
+
+		Node<T> node;
+		if (predicate.method == null) {
+			node = anyMethod;
+		}
+		else {
+			node = byMethod.get(predicate.method);
+			if (node == null) {
+				node = new Node<>();
+				byMethod.put(predicate.method, node);
+			}
+		}
+
+		List<String> names = new ArrayList<>();
+		int last = segments.size() - 1;
+		for (int i = 0; i <= last; i++) {
+			node.minOrder = Math.min(node.minOrder, order);
+			String segment = segments.get(i);
+
+			if (i == last && segment.endsWith("**")) {
+				String name = segment.length() > 2 ?
+						segment.substring(1, segment.length() - 3) : null;
+				if (name != null) {
+					names.add(name);
+				}
+				node.splats = insert(node.splats,
+						new Route<>(order, predicate, handler, names, name != null));
+				return true;
+			}
+
+			Node<T> next;
+			if (segment.startsWith("{")) {
+				names.add(segment.substring(1, segment.length() - 1));
+				if (node.variable == null) {
+					node.variable = new Node<>();
+				}
+				next = node.variable;
+			}
+			else {
+				if (node.literals == null) {
+					node.literals = new HashMap<>();
+				}
+				next = node.literals.get(segment);
+				if (next == null) {
+					next = new Node<>();
+					node.literals.put(segment, next);
+				}
+			}
+			node = next;
+		}
+
+		node.minOrder = Math.min(node.minOrder, order);
+		node.routes = insert(node.routes, new Route<>(order, predicate, handler, names, false));
+		return true;
+	}
+
+	/**
+	 * Find the first registered route matching the given request.
+	 *
+	 * @param request the request to route
+	 *
+	 * @return the {@link Match} or null
+	 */
+	Match<T> match(HttpServerRequest request) {
+		String uri = request.uri();
+		if (uri == null || uri.isEmpty() || uri.charAt(0) != '/') {
+			return null;
+		}
+
+		Lookup<T> lookup = new Lookup<>(request, uri);
+
+		Node<T> node = byMethod.get(request.method());
+		if (node != null) {
+			lookup.walk(node, 1, 0);
+		}
+		lookup.walk(anyMethod, 1, 0);
+
+		Route<T> r = lookup.best;
+		if (r == null) {
+			return null;
+		}
+		return new Match<>(r.order, r.handler, lookup.params);
+	}
+
+	static <T> Route<T>[] insert(Route<T>[] routes, Route<T> route) {
+		@SuppressWarnings("unchecked") Route<T>[] a =
+				routes == null ? (Route<T>[]) new Route<?>[1] :
+						Arrays.copyOf(routes, routes.length + 1);
+		int i = a.length - 1;
+		for (; i > 0 && a[i - 1].order > route.order; i--) {
+			a[i] = a[i - 1];
+		}
+		a[i] = route;
+		return a;
+	}
+
+	/**
+	 * Split a template into segments or return null if it uses a syntax that cannot be
+	 * indexed: anything but literal text, whole segment {@code {name}} variables and a
+	 * trailing {@code **} or {@code {name}**}.
+	 */
+	static List<String> parse(String template) {
+		if (template == null || template.isEmpty() || template.charAt(0) != '/') {
+			return null;
+		}
+		List<String> segments = new ArrayList<>();
+		int start = 1;
+		for (; ; ) {
+			int end = template.indexOf('/', start);
+			String segment = template.substring(start, end == -1 ? template.length() : end);
+
+			boolean splat = segment.endsWith("**");
+			String body = splat ? segment.substring(0, segment.length() - 2) : segment;
+
+			if (splat && end != -1) {
+				return null;
+			}
+			if (body.startsWith("{") && body.endsWith("}") && body.length() > 2) {
+				if (!isLiteral(body.substring(1, body.length() - 1))) {
+					return null;
+				}
+			}
+			else if (!body.isEmpty() || !splat) {
+				if (splat || !isLiteral(body)) {
+					return null;
+				}
+			}
+
+			segments.add(segment);
+			if (end == -1) {
+				return segments;
+			}
+			start = end + 1;
+		}
+	}
+
+	static boolean isLiteral(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			switch (segment.charAt(i)) {
+				case '{':
+				case '}':
+				case '*':
+				case '\\':
+				case '[':
+				case ']':
+				case '(':
+				case ')':
+				case '^':
+				case '$':
+				case '+':
+				case '?':
+				case '|':
+					return false;
+			}
+		}
+		return true;
+	}
+
+	static final class Node<T> {
+
+		Map<String, Node<T>> literals;
+		Node<T>              variable;
+		Route<T>[]           routes;
+		Route<T>[]           splats;
+		int minOrder = Integer.MAX_VALUE;
+	}
+
+	static final class Route<T> {
+
+		final int           order;
+		final HttpPredicate predicate;
+		final T             handler;
+		final String[]      names;
+		final boolean       namedSplat;
+
+		Route(int order, HttpPredicate predicate, T handler, List<String> names,
+				boolean namedSplat) {
+			this.order = order;
+			this.predicate = predicate;
+			this.handler = handler;
+			this.names = names.toArray(new String[names.size()]);
+			this.namedSplat = namedSplat;
+		}
+
+		boolean accept(HttpServerRequest request) {
+			return predicate.protocol == null || predicate.protocol.equals(request.version());
+		}
+	}
+
+	/**
+	 * The result of a successful {@link #match}, immutable.
+	 *
+	 * @param <T> the routed handler type
+	 */
+	static final class Match<T> {
+
+		final int                 order;
+		final T                   handler;
+		final Map<String, String> params;
+
+		Match(int order, T handler, Map<String, String> params) {
+			this.order = order;
+			this.handler = handler;
+			this.params = params;
+		}
+	}
+
+	static final class Lookup<T> {
+
+		final HttpServerRequest request;
+		final String            uri;
+
+		String[]            captures = new String[4];
+		Route<T>            best;
+		Map<String, String> params;
+
+		Lookup(HttpServerRequest request, String uri) {
+			this.request = request;
+			this.uri = uri;
+		}
+
+		int bestOrder() {
+			return best == null ? Integer.MAX_VALUE : best.order;
+		}
+
+		/**
+		 * @param node the node to match from
+		 * @param start the uri index of the current segment
+		 * @param depth the number of captured variables so far
+		 */
+		void walk(Node<T> node, int start, int depth) {
+			if (node.minOrder >= bestOrder()) {
+				return;
+			}
+
+			if (node.splats != null) {
+				offer(node.splats, depth, uri.substring(start));
+			}
+
+			int end = uri.indexOf('/', start);
+			boolean last = end == -1;
+			if (last) {
+				end = uri.length();
+			}
+
+			if (node.literals != null) {
+				Node<T> next = node.literals.get(uri.substring(start, end));
+				if (next != null) {
+					step(next, end, last, depth);
+				}
+			}
+
+			if (node.variable != null) {
+				if (captures.length == depth) {
+					captures = Arrays.copyOf(captures, depth * 2);
+				}
+				captures[depth] = uri.substring(start, end);
+				step(node.variable, end, last, depth + 1);
+			}
+		}
+
+		void step(Node<T> next, int end, boolean last, int depth) {
+			if (last) {
+				// a trailing splat needs the separator: "/a/**" matches "/a/" but not "/a"
+				if (next.routes != null) {
+					offer(next.routes, depth, null);
+				}
+			}
+			else {
+				walk(next, end + 1, depth);
+			}
+		}
+
+		void offer(Route<T>[] routes, int depth, String rest) {
+			for (Route<T> r : routes) {
+				if (r.order >= bestOrder()) {
+					return;
+				}
+				if (r.accept(request)) {
+					best = r;
+					params = params(r, depth, rest);
+					return;
+				}
+			}
+		}
+
+		Map<String, String> params(Route<T> r, int depth, String rest) {
+			if (r.names.length == 0) {
+				return null;
+			}
+			Map<String, String> p = new LinkedHashMap<>(r.names.length * 2);
+			for (int i = 0; i < depth; i++) {
+				p.put(r.names[i], captures[i]);
+			}
+			if (r.namedSplat) {
+				p.put(r.names[depth], rest);
+			}
+			return Collections.unmodifiableMap(p);
+		}
+	}
+}
@@ -18,10 +18,14 @@
 package io.reactivex.netty.http.server;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.http.HttpRequestDecoder;
 import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
 import io.netty.handler.logging.LoggingHandler;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.SslContext;
 import io.netty.util.NetUtil;
 
 import io.reactivex.Flowable;
@@ -264,17 +268,47 @@ public final class HttpServer
 			                     .autoCreateOperations(false);
 		}
 
-        @Override
-        public void accept(ChannelPipeline p, ContextHandler<Channel> c) {
-            p.addLast(NettyPipeline.HttpDecoder, new HttpRequestDecoder())
-                    .addLast(NettyPipeline.HttpEncoder,new HttpResponseEncoder());
+		@Override
+		public void accept(ChannelPipeline p, ContextHandler<Channel> c) {
+			if (!options.http2()) {
+				addHttp11(p, c);
+				return;
+			}
+
+			SslContext sslContext = options.sslContext();
+			if (sslContext != null) {
+				if (sslContext.applicationProtocolNegotiator()
+				              .protocols()
+				              .contains(ApplicationProtocolNames.HTTP_2)) {
+					p.addLast(NettyPipeline.HttpProtocolDetector,
+							new Http2ServerHandler.AlpnHandler(c, this::addHttp11));
+				}
+				else {
+					addHttp11(p, c);
+				}
+				return;
+			}
 
-            if(options.minCompressionResponseSize() >= 0) {
-                    p.addLast(NettyPipeline.CompressionHandler, new CompressionHandler(options.minCompressionResponseSize()));
-            }
+			Http2ServerHandler h2 = new Http2ServerHandler(c);
+			p.addLast(NettyPipeline.HttpProtocolDetector, h2);
+			addHttp11(p, c);
+			p.addAfter(NettyPipeline.HttpEncoder,
+					NettyPipeline.HttpUpgradeHandler,
+					new HttpServerUpgradeHandler(h2, h2, MAX_UPGRADE_CONTENT_LENGTH));
+		}
+
+		void addHttp11(ChannelPipeline p, ContextHandler<Channel> c) {
+			addBeforeBridge(p, NettyPipeline.HttpDecoder, new HttpRequestDecoder());
+			addBeforeBridge(p, NettyPipeline.HttpEncoder, new HttpResponseEncoder());
 
-            p.addLast(NettyPipeline.HttpServerHandler, new HttpServerHandler(c));
-        }
+			if (options.minCompressionResponseSize() >= 0) {
+				addBeforeBridge(p,
+						NettyPipeline.CompressionHandler,
+						new CompressionHandler(options.minCompressionResponseSize()));
+			}
+
+			addBeforeBridge(p, NettyPipeline.HttpServerHandler, new HttpServerHandler(c));
+		}
 
 		@Override
 		protected LoggingHandler loggingHandler() {
@@ -282,6 +316,18 @@ public final class HttpServer
 		}
 	}
 
+	static void addBeforeBridge(ChannelPipeline p, String name, ChannelHandler handler) {
+		// the reactive bridge is already there if the protocol has been negotiated
+		if (p.get(NettyPipeline.ReactiveBridge) != null) {
+			p.addBefore(NettyPipeline.ReactiveBridge, name, handler);
+		}
+		else {
+			p.addLast(name, handler);
+		}
+	}
+
+	static final int MAX_UPGRADE_CONTENT_LENGTH = 65536;
+
 	public static final class Builder {
 		private String bindAddress = NetUtil.LOCALHOST.getHostAddress();
 		private int port = 8080;
@@ -20,7 +20,9 @@ package io.reactivex.netty.http.server;
 import java.io.File;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
@@ -43,6 +45,8 @@ import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
 import io.netty.util.AsciiString;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
 import io.reactivex.Flowable;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.BiFunction;
@@ -55,6 +59,9 @@ import org.reactivestreams.Publisher;
 import io.reactivex.netty.FutureFlowable;
 import io.reactivex.netty.NettyContext;
 import io.reactivex.netty.NettyOutbound;
+import io.reactivex.netty.NettyPipeline;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.ChannelOperations;
 import io.reactivex.netty.channel.ContextHandler;
 import io.reactivex.netty.http.Cookies;
 import io.reactivex.netty.http.HttpOperations;
@@ -84,6 +91,12 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 
 	Function<? super String, Map<String, String>> paramsResolver;
 
+	boolean continueSent;
+	long    receivedBytes;
+	long    discardBudget = -1L;
+
+	ScheduledFuture<?> discardTimeout;
+
 	HttpServerOperations(Channel ch, HttpServerOperations replaced) {
 		super(ch, replaced);
 		this.cookieHolder = replaced.cookieHolder;
@@ -118,13 +131,13 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 	}
 
 	@Override
-	protected HttpMessage newFullEmptyBodyMessage() {
+	protected HttpMessage newFullBodyMessage(ByteBuf body) {
 		HttpResponse res =
-				new DefaultFullHttpResponse(version(), status(), EMPTY_BUFFER);
+				new DefaultFullHttpResponse(version(), status(), body);
 
 		res.headers()
 		   .set(responseHeaders.remove(HttpHeaderNames.TRANSFER_ENCODING)
-		                       .setInt(HttpHeaderNames.CONTENT_LENGTH, 0));
+		                       .setInt(HttpHeaderNames.CONTENT_LENGTH, body.readableBytes()));
 		return res;
 	}
 
@@ -251,7 +264,10 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 		//       No need to notify the upstream handlers - just log.
 		//       If decoding a response, just throw an error.
 		if (HttpUtil.is100ContinueExpected(nettyRequest)) {
-			return FutureFlowable.deferFuture(() -> channel().writeAndFlush(CONTINUE))
+			return FutureFlowable.deferFuture(() -> {
+				continueSent = true;
+				return channel().writeAndFlush(CONTINUE);
+			})
 			                 .ignoreElements()
 			                 .andThen(super.receiveObject());
 		}
@@ -284,6 +300,30 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 		}
 	}
 
+	@Override
+	public NettyOutbound sendObject(Publisher<?> dataStream) {
+		if (isWebsocket() || channel().pipeline()
+		                              .get(NettyPipeline.CompressionHandler) != null) {
+			// the compression handler decides on the streamed body size
+			return super.sendObject(dataStream);
+		}
+		if (isEventStream()) {
+			// events are written as they come
+			return super.sendObject(dataStream);
+		}
+		return sendFullMessage(dataStream, MAX_FULL_MESSAGE_BYTES);
+	}
+
+	final boolean isEventStream() {
+		String contentType = responseHeaders.get(HttpHeaderNames.CONTENT_TYPE);
+		return contentType != null && AsciiString.regionMatches(contentType,
+				true,
+				0,
+				EVENT_STREAM,
+				0,
+				EVENT_STREAM.length());
+	}
+
 	@Override
 	public NettyOutbound sendFile(File file) {
 		try {
@@ -363,8 +403,14 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 
 	@Override
 	protected void onInboundNext(ChannelHandlerContext ctx, Object msg) {
+		if (discardBudget >= 0L) {
+			discardNext(msg);
+			return;
+		}
 		if (msg instanceof HttpContent) {
 			if (msg != LastHttpContent.EMPTY_LAST_CONTENT) {
+				receivedBytes += ((HttpContent) msg).content()
+				                                    .readableBytes();
 				super.onInboundNext(ctx, msg);
 			}
 			if (msg instanceof LastHttpContent) {
@@ -398,16 +444,74 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 			f = channel().writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
 		}
 		else{
-			onHandlerTerminate();
+			terminateOrDiscard();
 			return;
 		}
 		f.addListener(s -> {
 			if (isOutboundDone()) {
-				onHandlerTerminate();
+				terminateOrDiscard();
 			}
 		});
 	}
 
+	/**
+	 * Terminate once the response is sent. A request body left unread, e.g. by an
+	 * early rejection, is first read and discarded within a size and time limit so the
+	 * connection can serve the next request, a larger or stalled body closes the
+	 * connection.
+	 */
+	final void terminateOrDiscard() {
+		if (isInboundDone() || DISCARD_MAX_BYTES <= 0L || DISCARD_TIMEOUT <= 0L) {
+			onHandlerTerminate();
+			return;
+		}
+		if (!channel().eventLoop()
+		              .inEventLoop()) {
+			// the discard state is shared with onInboundNext and only used on the event
+			// loop
+			channel().eventLoop()
+			         .execute(this::terminateOrDiscard);
+			return;
+		}
+		cancelInbound();
+		if (!RxNetty.isPersistent(channel())
+				// the client might wait for the continue and never send the body
+				|| HttpUtil.is100ContinueExpected(nettyRequest) && !continueSent
+				|| HttpUtil.isContentLengthSet(nettyRequest)
+				&& HttpUtil.getContentLength(nettyRequest, 0L) - receivedBytes > DISCARD_MAX_BYTES) {
+			channel().close();
+			return;
+		}
+		discardBudget = DISCARD_MAX_BYTES;
+		discardTimeout = channel().eventLoop()
+		                          .schedule(() -> {
+			                          // the client stalled before the end of the body
+			                          if (discardBudget >= 0L && ChannelOperations.get(channel()) == this) {
+				                          channel().close();
+			                          }
+		                          }, DISCARD_TIMEOUT, TimeUnit.MILLISECONDS);
+		channel().config()
+		         .setAutoRead(true);
+		channel().read();
+	}
+
+	final void discardNext(Object msg) {
+		if (msg instanceof HttpContent) {
+			discardBudget -= ((HttpContent) msg).content()
+			                                   .readableBytes();
+		}
+		ReferenceCountUtil.release(msg);
+		if (msg instanceof LastHttpContent) {
+			discardBudget = -1L;
+			discardTimeout.cancel(false);
+			onHandlerTerminate();
+		}
+		else if (discardBudget < 0L) {
+			discardTimeout.cancel(false);
+			channel().close();
+		}
+	}
+
 	@Override
 	protected void onOutboundError(Throwable err) {
 
@@ -460,6 +564,28 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 		return Flowable.error(new IllegalStateException("Failed to upgrade to websocket"));
 	}
 
+	/**
+	 * The maximum size of a body emitted while subscribed that is aggregated and sent
+	 * with the headers as a {@link FullHttpResponse}
+	 */
+	final static int  MAX_FULL_MESSAGE_BYTES =
+			Integer.parseInt(System.getProperty("io.reactivex.netty.http.server.maxFullMessageBytes",
+					"1024"));
+	/**
+	 * The maximum size of an unread request body read and discarded after the response
+	 * to keep the connection alive, 0 does not read it
+	 */
+	final static long DISCARD_MAX_BYTES      =
+			Long.parseLong(System.getProperty("io.reactivex.netty.http.server.discardMaxBytes",
+					"65536"));
+	/**
+	 * The maximum time in millis to read and discard an unread request body after the
+	 * response before closing the connection, 0 does not read it
+	 */
+	final static long DISCARD_TIMEOUT        =
+			Long.parseLong(System.getProperty("io.reactivex.netty.http.server.discardTimeout",
+					"500"));
+
 	final static AsciiString      EVENT_STREAM = new AsciiString("text/event-stream");
 	final static FullHttpResponse CONTINUE     =
 			new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
@@ -38,11 +38,13 @@ public final class HttpServerOptions extends ServerOptions {
 		return new HttpServerOptions.Builder();
 	}
 
-	private final int minCompressionResponseSize;
+	private final int     minCompressionResponseSize;
+	private final boolean http2;
 
 	private HttpServerOptions(HttpServerOptions.Builder builder) {
 		super(builder);
 		this.minCompressionResponseSize = builder.minCompressionResponseSize;
+		this.http2 = builder.http2;
 	}
 
 	/**
@@ -55,6 +57,16 @@ public final class HttpServerOptions extends ServerOptions {
 		return minCompressionResponseSize;
 	}
 
+	/**
+	 * Returns true if HTTP/2 is accepted next to HTTP/1.1, negotiated with ALPN over TLS
+	 * or with an h2c upgrade or prior knowledge in clear text.
+	 *
+	 * @return true if HTTP/2 is accepted
+	 */
+	public boolean http2() {
+		return http2;
+	}
+
 	@Override
 	public HttpServerOptions duplicate() {
 		return builder().from(this).build();
@@ -70,6 +82,9 @@ public final class HttpServerOptions extends ServerOptions {
 				s.append( " over ").append(minCompressionResponseSize).append(" bytes");
 			}
 		}
+		if (http2) {
+			s.append(", h2");
+		}
 
 		return s.toString();
 	}
@@ -77,6 +92,7 @@ public final class HttpServerOptions extends ServerOptions {
 	@Override
 	public String asDetailedString() {
 		return super.asDetailedString() +
+				", http2=" + http2 +
 				", minCompressionResponseSize=" + minCompressionResponseSize;
 	}
 
@@ -86,7 +102,8 @@ public final class HttpServerOptions extends ServerOptions {
 	}
 
 	public static final class Builder extends ServerOptions.Builder<Builder> {
-		private int minCompressionResponseSize = -1;
+		private int     minCompressionResponseSize = -1;
+		private boolean http2;
 
 		private Builder(){
 			super(new ServerBootstrap());
@@ -121,6 +138,20 @@ public final class HttpServerOptions extends ServerOptions {
 			return call();
 		}
 
+		/**
+		 * Accept HTTP/2 next to HTTP/1.1. Over TLS the protocol is negotiated with ALPN
+		 * if the {@link io.netty.handler.ssl.SslContext} advertises "h2", in clear text
+		 * clients can upgrade with "h2c" or start with the HTTP/2 connection preface.
+		 * Each HTTP/2 stream is handled as its own request and response.
+		 *
+		 * @param enabled true whether HTTP/2 is accepted
+		 * @return {@code this}
+		 */
+		public final Builder http2(boolean enabled) {
+			this.http2 = enabled;
+			return call();
+		}
+
 		/**
 		 * Fill the builder with attribute values from the provided options.
 		 *
@@ -130,6 +161,7 @@ public final class HttpServerOptions extends ServerOptions {
 		public final Builder from(HttpServerOptions options) {
 			super.from(options);
 			this.minCompressionResponseSize = options.minCompressionResponseSize;
+			this.http2 = options.http2;
 			return call();
 		}
 
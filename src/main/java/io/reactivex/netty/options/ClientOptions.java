@@ -38,6 +38,7 @@ import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Function;
 import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.netty.channel.HappyEyeballs;
 import io.reactivex.netty.resources.LoopResources;
 import io.reactivex.netty.resources.PoolResources;
 
@@ -83,6 +84,8 @@ public class ClientOptions extends NettyOptions<Bootstrap, ClientOptions> {
 
 	private final InternetProtocolFamily protocolFamily;
 	private final Callable<? extends SocketAddress> connectAddress;
+	private final AddressResolverGroup<?> resolver;
+	private final long connectAttemptDelay;
 
 	/**
 	 * Deep-copy all references from the passed builder into this new
@@ -111,6 +114,8 @@ public class ClientOptions extends NettyOptions<Bootstrap, ClientOptions> {
 		}
 		this.poolResources = builder.poolResources;
 		this.protocolFamily = builder.protocolFamily;
+		this.resolver = builder.bootstrapTemplate.config().resolver();
+		this.connectAttemptDelay = builder.connectAttemptDelay;
 	}
 
 	@Override
@@ -122,6 +127,10 @@ public class ClientOptions extends NettyOptions<Bootstrap, ClientOptions> {
 	public Bootstrap call() {
 		Bootstrap b = super.call();
 		groupAndChannel(b);
+		if (raceConnects()) {
+			// a proxy handler must see the connect, only race direct connections
+			b.attr(HappyEyeballs.CONNECT_ATTEMPT_DELAY, connectAttemptDelay);
+		}
 		return b;
 	}
 
@@ -147,6 +156,26 @@ public class ClientOptions extends NettyOptions<Bootstrap, ClientOptions> {
 		return this.proxyOptions;
 	}
 
+	/**
+	 * Return true if a custom {@link AddressResolverGroup} has been set, in which case
+	 * remote addresses should be provided unresolved to be resolved by it.
+	 *
+	 * @return true if a custom {@link AddressResolverGroup} has been set
+	 */
+	public final boolean useCustomResolver() {
+		return resolver != DefaultAddressResolverGroup.INSTANCE && resolver != NoopAddressResolverGroup.INSTANCE;
+	}
+
+	/**
+	 * Return true if direct connections race the addresses a host name resolves to, in
+	 * which case remote addresses should be provided unresolved to be resolved on connect.
+	 *
+	 * @return true if a connect attempt delay applies to direct connections
+	 */
+	public final boolean raceConnects() {
+		return connectAttemptDelay > 0L && proxyOptions == null && resolver != NoopAddressResolverGroup.INSTANCE;
+	}
+
 	/**
 	 * Return true if {@link io.netty.channel.socket.DatagramChannel} should be used
 	 *
@@ -267,6 +296,7 @@ public class ClientOptions extends NettyOptions<Bootstrap, ClientOptions> {
 		private int port = -1;
 		private Callable<? extends SocketAddress> connectAddress;
 		private ClientProxyOptions proxyOptions;
+		private long connectAttemptDelay = DEFAULT_CONNECT_ATTEMPT_DELAY;
 
 		/**
 		 * Apply common option via super constructor then apply
@@ -412,6 +442,24 @@ public class ClientOptions extends NettyOptions<Bootstrap, ClientOptions> {
 			return call();
 		}
 
+		/**
+		 * The delay in millis before racing the next address when the remote host name
+		 * resolves to several addresses, as in RFC 8305 "Happy Eyeballs". The first
+		 * connected address wins and the other attempts are closed. Connections through a
+		 * proxy are never raced.
+		 *
+		 * @param connectAttemptDelay the delay in millis before the next connect attempt,
+		 * -1 to only try the first resolved address
+		 * @return {@code this}
+		 */
+		public final BUILDER connectAttemptDelay(long connectAttemptDelay) {
+			if (connectAttemptDelay != -1L && connectAttemptDelay <= 0L) {
+				throw new IllegalArgumentException("Connect Attempt Delay value must be strictly positive");
+			}
+			this.connectAttemptDelay = connectAttemptDelay;
+			return call();
+		}
+
 		/**
 		 * The proxy configuration
 		 *
@@ -439,6 +487,7 @@ public class ClientOptions extends NettyOptions<Bootstrap, ClientOptions> {
 			this.connectAddress = options.connectAddress;
 			this.poolResources = options.poolResources;
 			this.protocolFamily = options.protocolFamily;
+			this.connectAttemptDelay = options.connectAttemptDelay;
 			return call();
 		}
 
@@ -452,4 +501,11 @@ public class ClientOptions extends NettyOptions<Bootstrap, ClientOptions> {
 			return new ClientOptions(this);
 		}
 	}
+
+	/**
+	 * Default delay in millis before racing the next resolved address, 250 as RFC 8305
+	 * recommends
+	 */
+	static final long DEFAULT_CONNECT_ATTEMPT_DELAY =
+			Long.parseLong(System.getProperty("io.reactivex.netty.connectAttemptDelay", "250"));
 }
@@ -29,6 +29,7 @@ import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslHandler;
@@ -341,6 +342,41 @@ public abstract class NettyOptions<BOOTSTRAP extends AbstractBootstrap<BOOTSTRAP
 			return call();
 		}
 
+		/**
+		 * Set the channel write buffer low and high water marks. A channel becomes
+		 * unwritable when more than {@code high} bytes are pending and writable again below
+		 * {@code low}. Data sent from a {@link org.reactivestreams.Publisher} is requested
+		 * according to the remaining room before the high water mark.
+		 *
+		 * @param low the low water mark in bytes
+		 * @param high the high water mark in bytes
+		 * @return {@code this}
+		 * @see ChannelOption#WRITE_BUFFER_WATER_MARK
+		 */
+		public final BUILDER writeBufferWaterMark(int low, int high) {
+			return option(ChannelOption.WRITE_BUFFER_WATER_MARK,
+					new WriteBufferWaterMark(low, high));
+		}
+
+		/**
+		 * Set the inbound queue low and high water marks. Reading from a connection is
+		 * suspended when the messages received but not yet requested by the {@link
+		 * NettyInbound} subscriber reach {@code highMessages} or {@code highBytes}, and
+		 * resumed once back under {@code lowMessages} and {@code lowBytes}.
+		 *
+		 * @param lowMessages the low water mark in messages
+		 * @param highMessages the high water mark in messages
+		 * @param lowBytes the low water mark in bytes
+		 * @param highBytes the high water mark in bytes
+		 * @return {@code this}
+		 * @see ReceiveWaterMark
+		 */
+		public final BUILDER receiveWaterMark(int lowMessages, int highMessages,
+				long lowBytes, long highBytes) {
+			return attr(ReceiveWaterMark.KEY,
+					new ReceiveWaterMark(lowMessages, highMessages, lowBytes, highBytes));
+		}
+
 		/**
 		 * Set the preferred native option. Determine if epoll should be used if available.
 		 *
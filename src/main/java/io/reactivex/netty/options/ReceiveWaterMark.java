@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.options;
+
+import io.netty.util.AttributeKey;
+
+/**
+ * Low and high water marks of the inbound queue of a connection, in messages and in
+ * bytes. Reading from the connection is suspended when messages received but not yet
+ * requested by the {@link io.reactivex.netty.NettyInbound} subscriber pass one of the
+ * high water marks, and resumed once they are back under both low water marks.
+ *
+ * @author Stephane Maldini
+ */
+public final class ReceiveWaterMark {
+
+	/**
+	 * The {@link io.netty.channel.Channel} attribute holding the {@link
+	 * ReceiveWaterMark} of a connection, {@link #DEFAULT} applies if unset.
+	 */
+	public static final AttributeKey<ReceiveWaterMark> KEY =
+			AttributeKey.newInstance("receiveWaterMark");
+
+	/**
+	 * Default water marks, overridable with the {@code io.reactivex.netty.receive.*}
+	 * system properties.
+	 */
+	public static final ReceiveWaterMark DEFAULT = new ReceiveWaterMark(
+			Integer.parseInt(System.getProperty("io.reactivex.netty.receive.lowMessages", "1024")),
+			Integer.parseInt(System.getProperty("io.reactivex.netty.receive.highMessages", "4096")),
+			Long.parseLong(System.getProperty("io.reactivex.netty.receive.lowBytes", "" + 256 * 1024)),
+			Long.parseLong(System.getProperty("io.reactivex.netty.receive.highBytes", "" + 1024 * 1024)));
+
+	final int  lowMessages;
+	final int  highMessages;
+	final long lowBytes;
+	final long highBytes;
+
+	/**
+	 * Create new water marks.
+	 *
+	 * @param lowMessages resume reading at or below this number of queued messages
+	 * @param highMessages suspend reading at or above this number of queued messages
+	 * @param lowBytes resume reading at or below this number of queued bytes
+	 * @param highBytes suspend reading at or above this number of queued bytes
+	 */
+	public ReceiveWaterMark(int lowMessages, int highMessages, long lowBytes, long highBytes) {
+		if (lowMessages < 0 || highMessages <= lowMessages) {
+			throw new IllegalArgumentException("0 <= lowMessages < highMessages required but " +
+					"it was " + lowMessages + " and " + highMessages);
+		}
+		if (lowBytes < 0 || highBytes <= lowBytes) {
+			throw new IllegalArgumentException("0 <= lowBytes < highBytes required but " +
+					"it was " + lowBytes + " and " + highBytes);
+		}
+		this.lowMessages = lowMessages;
+		this.highMessages = highMessages;
+		this.lowBytes = lowBytes;
+		this.highBytes = highBytes;
+	}
+
+	/**
+	 * @return the number of queued messages at or below which reading resumes
+	 */
+	public int lowMessages() {
+		return lowMessages;
+	}
+
+	/**
+	 * @return the number of queued messages at or above which reading is suspended
+	 */
+	public int highMessages() {
+		return highMessages;
+	}
+
+	/**
+	 * @return the number of queued bytes at or below which reading resumes
+	 */
+	public long lowBytes() {
+		return lowBytes;
+	}
+
+	/**
+	 * @return the number of queued bytes at or above which reading is suspended
+	 */
+	public long highBytes() {
+		return highBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "ReceiveWaterMark{" + "lowMessages=" + lowMessages + ", highMessages=" +
+				highMessages + ", lowBytes=" + lowBytes + ", highBytes=" + highBytes + '}';
+	}
+}
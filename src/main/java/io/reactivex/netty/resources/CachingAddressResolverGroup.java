@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.resources;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.resolver.InetNameResolver;
+import io.netty.util.NetUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.internal.PlatformDependent;
+import io.reactivex.internal.functions.ObjectHelper;
+
+/**
+ * An {@link AddressResolverGroup} caching the resolved addresses of each host name for
+ * the TTL given by its {@link Backend}, to be passed to {@link
+ * io.reactivex.netty.options.ClientOptions.Builder#resolver(AddressResolverGroup)}. The
+ * cache is shared by the resolvers of every event loop:
+ * <ul>
+ * <li>concurrent lookups of the same host name are coalesced into a single query</li>
+ * <li>a host name resolved again in the last quarter of its TTL is refreshed in the
+ * background while the cached addresses are still returned, so a hot host name never
+ * waits for a query once cached</li>
+ * <li>lookups run on the given {@link Executor}, never on the event loops</li>
+ * </ul>
+ * Failed lookups are not cached and host names whose addresses expired are evicted
+ * from time to time.
+ *
+ * @author Stephane Maldini
+ */
+public final class CachingAddressResolverGroup
+		extends AddressResolverGroup<InetSocketAddress> {
+
+	/**
+	 * Default time in millis the addresses resolved by the JDK are cached. The JDK does
+	 * not expose the DNS record TTL.
+	 */
+	public static long DEFAULT_TTL = Long.parseLong(System.getProperty(
+			"io.reactivex.netty.resolver.ttl",
+			"" + 30000));
+
+	/**
+	 * Create a {@link CachingAddressResolverGroup} resolving with {@link
+	 * InetAddress#getAllByName(String)} and caching for {@link #DEFAULT_TTL}.
+	 *
+	 * @return a new {@link CachingAddressResolverGroup}
+	 */
+	public static CachingAddressResolverGroup create() {
+		return create(JDK_BACKEND);
+	}
+
+	/**
+	 * Create a {@link CachingAddressResolverGroup} resolving with the given {@link
+	 * Backend} on a shared pool of daemon threads.
+	 *
+	 * @param backend the host name lookup
+	 *
+	 * @return a new {@link CachingAddressResolverGroup}
+	 */
+	public static CachingAddressResolverGroup create(Backend backend) {
+		return create(backend, DEFAULT_EXECUTOR);
+	}
+
+	/**
+	 * Create a {@link CachingAddressResolverGroup} resolving with the given {@link
+	 * Backend} on the given {@link Executor}.
+	 *
+	 * @param backend the host name lookup
+	 * @param executor the executor running the possibly blocking lookups
+	 *
+	 * @return a new {@link CachingAddressResolverGroup}
+	 */
+	public static CachingAddressResolverGroup create(Backend backend, Executor executor) {
+		return new CachingAddressResolverGroup(backend, executor);
+	}
+
+	/**
+	 * A host name lookup, called from the {@link CachingAddressResolverGroup} executor
+	 * and allowed to block.
+	 */
+	public interface Backend {
+
+		/**
+		 * Resolve the given host name
+		 *
+		 * @param hostname the host name to resolve
+		 *
+		 * @return the resolved addresses and how long they can be cached
+		 *
+		 * @throws Exception if the host name cannot be resolved, typically an {@link
+		 * UnknownHostException}
+		 */
+		Answer lookup(String hostname) throws Exception;
+	}
+
+	/**
+	 * The addresses of a host name and their TTL.
+	 */
+	public static final class Answer {
+
+		/**
+		 * Create a new {@link Answer}
+		 *
+		 * @param ttl the time in millis the addresses can be cached, 0 to not cache
+		 * @param addresses the resolved addresses
+		 *
+		 * @return a new {@link Answer}
+		 */
+		public static Answer of(long ttl, InetAddress... addresses) {
+			return of(ttl, Arrays.asList(addresses));
+		}
+
+		/**
+		 * Create a new {@link Answer}
+		 *
+		 * @param ttl the time in millis the addresses can be cached, 0 to not cache
+		 * @param addresses the resolved addresses
+		 *
+		 * @return a new {@link Answer}
+		 */
+		public static Answer of(long ttl, List<InetAddress> addresses) {
+			ObjectHelper.requireNonNull(addresses, "addresses");
+			if (addresses.isEmpty()) {
+				throw new IllegalArgumentException("At least one address is required");
+			}
+			if (ttl < 0) {
+				throw new IllegalArgumentException("TTL value must be positive");
+			}
+			return new Answer(ttl, Collections.unmodifiableList(new ArrayList<>(addresses)));
+		}
+
+		final long              ttl;
+		final List<InetAddress> addresses;
+
+		Answer(long ttl, List<InetAddress> addresses) {
+			this.ttl = ttl;
+			this.addresses = addresses;
+		}
+
+		/**
+		 * Return the time in millis the addresses can be cached
+		 *
+		 * @return the time in millis the addresses can be cached
+		 */
+		public long ttl() {
+			return ttl;
+		}
+
+		/**
+		 * Return the resolved addresses
+		 *
+		 * @return the resolved addresses
+		 */
+		public List<InetAddress> addresses() {
+			return addresses;
+		}
+
+		@Override
+		public String toString() {
+			return "Answer{" + "ttl=" + ttl + ", addresses=" + addresses + '}';
+		}
+	}
+
+	/**
+	 * A {@link Backend} answering from in-memory records, e.g. to stand in for DNS in
+	 * tests or to pin host names like a hosts file.
+	 */
+	public static final class InMemoryBackend implements Backend {
+
+		final ConcurrentMap<String, Answer> answers = PlatformDependent.newConcurrentHashMap();
+		final AtomicInteger                 lookups = new AtomicInteger();
+
+		/**
+		 * Answer the given addresses for the given host name
+		 *
+		 * @param hostname the host name
+		 * @param ttl the time in millis the addresses can be cached
+		 * @param addresses the addresses of the host name
+		 *
+		 * @return this backend
+		 */
+		public InMemoryBackend put(String hostname, long ttl, InetAddress... addresses) {
+			ObjectHelper.requireNonNull(hostname, "hostname");
+			answers.put(hostname.toLowerCase(), Answer.of(ttl, addresses));
+			return this;
+		}
+
+		/**
+		 * Stop answering for the given host name
+		 *
+		 * @param hostname the host name
+		 *
+		 * @return this backend
+		 */
+		public InMemoryBackend remove(String hostname) {
+			answers.remove(hostname.toLowerCase());
+			return this;
+		}
+
+		/**
+		 * Return the number of lookups answered or failed so far
+		 *
+		 * @return the number of lookups
+		 */
+		public int lookups() {
+			return lookups.get();
+		}
+
+		@Override
+		public Answer lookup(String hostname) throws Exception {
+			lookups.incrementAndGet();
+			Answer answer = answers.get(hostname.toLowerCase());
+			if (answer == null) {
+				throw new UnknownHostException(hostname);
+			}
+			return answer;
+		}
+	}
+
+	final Backend                      backend;
+	final Executor                     executor;
+	final ConcurrentMap<String, Entry> entries;
+	final AtomicInteger                resolves;
+
+	CachingAddressResolverGroup(Backend backend, Executor executor) {
+		this.backend = ObjectHelper.requireNonNull(backend, "backend");
+		this.executor = ObjectHelper.requireNonNull(executor, "executor");
+		this.entries = PlatformDependent.newConcurrentHashMap();
+		this.resolves = new AtomicInteger();
+	}
+
+	@Override
+	protected AddressResolver<InetSocketAddress> newResolver(EventExecutor executor)
+			throws Exception {
+		return new CachingNameResolver(executor, this).asAddressResolver();
+	}
+
+	final void resolveAll(String hostname, Promise<List<InetAddress>> promise) {
+		String key = hostname.toLowerCase();
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			Entry created = new Entry(key);
+			entry = entries.putIfAbsent(key, created);
+			if (entry == null) {
+				entry = created;
+			}
+		}
+		entry.resolve(promise);
+		if ((resolves.incrementAndGet() & (EVICT_EVERY - 1)) == 0) {
+			evictExpired();
+		}
+	}
+
+	/**
+	 * Remove the host names whose answer expired and that are not being resolved, so
+	 * that the cache does not grow with every host name ever resolved.
+	 */
+	final void evictExpired() {
+		long now = System.nanoTime();
+		for (Entry entry : entries.values()) {
+			entry.evictIfExpired(now);
+		}
+	}
+
+	/**
+	 * The cached answer and in flight lookup of a host name.
+	 */
+	final class Entry implements Runnable {
+
+		final String                           hostname;
+		final List<Promise<List<InetAddress>>> waiters;
+
+		volatile Cached cached;
+		boolean         querying;
+
+		Entry(String hostname) {
+			this.hostname = hostname;
+			this.waiters = new ArrayList<>();
+		}
+
+		void resolve(Promise<List<InetAddress>> promise) {
+			Cached c = cached;
+			long now = System.nanoTime();
+			if (c != null && now - c.expiresAt < 0) {
+				if (now - c.refreshAt >= 0) {
+					query(null);
+				}
+				promise.trySuccess(c.addresses);
+				return;
+			}
+			query(promise);
+		}
+
+		void query(Promise<List<InetAddress>> promise) {
+			synchronized (this) {
+				if (promise != null) {
+					waiters.add(promise);
+				}
+				if (querying) {
+					return;
+				}
+				querying = true;
+			}
+			try {
+				executor.execute(this);
+			}
+			catch (RejectedExecutionException e) {
+				complete(null, e);
+			}
+		}
+
+		@Override
+		public void run() {
+			Answer answer;
+			try {
+				answer = backend.lookup(hostname);
+				if (answer == null) {
+					throw new UnknownHostException(hostname);
+				}
+			}
+			catch (Throwable e) {
+				complete(null, e);
+				return;
+			}
+			complete(answer, null);
+		}
+
+		void complete(Answer answer, Throwable error) {
+			List<Promise<List<InetAddress>>> promises;
+			long now = System.nanoTime();
+			if (answer != null) {
+				long ttl = TimeUnit.MILLISECONDS.toNanos(answer.ttl);
+				cached = ttl > 0 ? new Cached(answer.addresses, now + ttl, now + ttl - ttl / 4) : null;
+			}
+			else {
+				Cached c = cached;
+				if (c != null && now - c.expiresAt < 0) {
+					// serve the answer until it expires, do not retry on every resolve
+					cached = new Cached(c.addresses, c.expiresAt, c.expiresAt);
+				}
+				else {
+					cached = null;
+				}
+			}
+			synchronized (this) {
+				promises = new ArrayList<>(waiters);
+				waiters.clear();
+				querying = false;
+			}
+			if (cached == null) {
+				// nothing to serve from the cache
+				evictIfExpired(now);
+			}
+			for (Promise<List<InetAddress>> promise : promises) {
+				if (answer != null) {
+					promise.trySuccess(answer.addresses);
+				}
+				else {
+					promise.tryFailure(error);
+				}
+			}
+		}
+
+		/**
+		 * Remove this entry from the cache if it has no valid answer and no lookup in
+		 * flight. A resolve racing with the removal still completes with this entry.
+		 *
+		 * @param now the current {@link System#nanoTime()}
+		 */
+		void evictIfExpired(long now) {
+			Cached c = cached;
+			if (c != null && now - c.expiresAt < 0) {
+				return;
+			}
+			synchronized (this) {
+				if (!querying) {
+					entries.remove(hostname, this);
+				}
+			}
+		}
+	}
+
+	static final class Cached {
+
+		final List<InetAddress> addresses;
+		final long              expiresAt;
+		final long              refreshAt;
+
+		Cached(List<InetAddress> addresses, long expiresAt, long refreshAt) {
+			this.addresses = addresses;
+			this.expiresAt = expiresAt;
+			this.refreshAt = refreshAt;
+		}
+	}
+
+	static final class CachingNameResolver extends InetNameResolver {
+
+		final CachingAddressResolverGroup group;
+
+		CachingNameResolver(EventExecutor executor, CachingAddressResolverGroup group) {
+			super(executor);
+			this.group = group;
+		}
+
+		@Override
+		protected void doResolve(String inetHost, Promise<InetAddress> promise)
+				throws Exception {
+			Promise<List<InetAddress>> all = executor().newPromise();
+			all.addListener((Future<List<InetAddress>> f) -> {
+				if (f.isSuccess()) {
+					promise.trySuccess(f.getNow()
+					                    .get(0));
+				}
+				else {
+					promise.tryFailure(f.cause());
+				}
+			});
+			doResolveAll(inetHost, all);
+		}
+
+		@Override
+		protected void doResolveAll(String inetHost, Promise<List<InetAddress>> promise)
+				throws Exception {
+			byte[] ip = inetHost == null ? null : NetUtil.createByteArrayFromIpAddressString(
+					inetHost);
+			if (ip != null || inetHost == null || inetHost.isEmpty()) {
+				// IP literals and the loopback need no lookup
+				promise.trySuccess(Arrays.asList(InetAddress.getAllByName(inetHost)));
+				return;
+			}
+			group.resolveAll(inetHost, promise);
+		}
+	}
+
+	static final Backend JDK_BACKEND =
+			hostname -> Answer.of(DEFAULT_TTL, InetAddress.getAllByName(hostname));
+
+	static final Executor DEFAULT_EXECUTOR =
+			Executors.newCachedThreadPool(new DefaultThreadFactory("rxnetty-resolver", true));
+
+	/**
+	 * The number of resolves between two evictions of the expired host names
+	 */
+	static final int EVICT_EVERY = 64;
+}
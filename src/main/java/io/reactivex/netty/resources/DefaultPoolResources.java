@@ -18,22 +18,37 @@
 package io.reactivex.netty.resources;
 
 import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.pool.*;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.Promise;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.internal.LongCounter;
 import io.netty.util.internal.PlatformDependent;
 import io.reactivex.Completable;
 import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.Consumer;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.netty.channel.HappyEyeballs;
 
 /**
  * @author Stephane Maldini
@@ -60,6 +75,32 @@ public final class DefaultPoolResources implements PoolResources {
 			"io.reactivex.netty.pool.acquireTimeout",
 			"" + 45000));
 
+	/**
+	 * Default max number of acquires a fixed pool queues once it has reached its max
+	 * connections, further acquires failing immediately with a {@link
+	 * PoolAcquireRejectedException}. If -1 acquires are queued without limit until
+	 * they time out.
+	 */
+	public static int DEFAULT_POOL_MAX_PENDING_ACQUIRES = Integer.parseInt(System.getProperty(
+			"io.reactivex.netty.pool.maxPendingAcquires",
+			"-1"));
+
+	/**
+	 * Default time in millis a pooled connection can stay idle before being closed. If
+	 * -1 idle connections are kept until closed by the remote peer.
+	 */
+	public static long DEFAULT_POOL_MAX_IDLE_TIME = Long.parseLong(System.getProperty(
+			"io.reactivex.netty.pool.maxIdleTime",
+			"-1"));
+
+	/**
+	 * Default time in millis after which a pooled connection is closed once released,
+	 * from its creation. If -1 connections are reused until closed by the remote peer.
+	 */
+	public static long DEFAULT_POOL_MAX_LIFE_TIME = Long.parseLong(System.getProperty(
+			"io.reactivex.netty.pool.maxLifeTime",
+			"-1"));
+
 	/**
 	 * Create an uncapped {@link PoolResources} to provide automatically for {@link
 	 * ChannelPool}.
@@ -73,7 +114,56 @@ public final class DefaultPoolResources implements PoolResources {
 	 * ChannelPool}
 	 */
 	public static PoolResources elastic(String name) {
-		return new DefaultPoolResources(name, SimpleChannelPool::new);
+		return elastic(name, DEFAULT_POOL_MAX_IDLE_TIME, DEFAULT_POOL_MAX_LIFE_TIME);
+	}
+
+	/**
+	 * Create an uncapped {@link PoolResources} to provide automatically for {@link
+	 * ChannelPool}.
+	 * <p>An elastic {@link PoolResources} will never wait before opening a new
+	 * connection. The reuse window is limited but it cannot starve an undetermined volume
+	 * of clients using it.
+	 *
+	 * @param name the channel pool map name
+	 * @param maxIdleTime the maximum time in millis a connection can stay idle in the
+	 * pool, -1 for no limit
+	 * @param maxLifeTime the maximum time in millis a connection is reused from its
+	 * creation, -1 for no limit
+	 *
+	 * @return a new {@link PoolResources} to provide automatically for {@link
+	 * ChannelPool}
+	 */
+	public static PoolResources elastic(String name, long maxIdleTime, long maxLifeTime) {
+		checkExpiry(maxIdleTime, maxLifeTime);
+		return new DefaultPoolResources(name,
+				ElasticChannelPool::new,
+				-1,
+				-1,
+				maxIdleTime,
+				maxLifeTime,
+				false);
+	}
+
+	/**
+	 * Create an uncapped {@link PoolResources} partitioned per {@link EventLoop}.
+	 * <p>Each remote address gets one elastic {@link ChannelPool} per event loop, only
+	 * creating connections registered on that loop. An acquire from an event loop is
+	 * served by its own partition so the exchange never hops threads, an acquire from
+	 * any other thread reuses an idle connection of any partition first.
+	 *
+	 * @param name the channel pool map name
+	 *
+	 * @return a new {@link PoolResources} to provide automatically for {@link
+	 * ChannelPool}
+	 */
+	public static PoolResources elasticPerEventLoop(String name) {
+		return new DefaultPoolResources(name,
+				ElasticChannelPool::new,
+				-1,
+				-1,
+				DEFAULT_POOL_MAX_IDLE_TIME,
+				DEFAULT_POOL_MAX_LIFE_TIME,
+				true);
 	}
 
 	/**
@@ -123,24 +213,202 @@ public final class DefaultPoolResources implements PoolResources {
 	 * ChannelPool}
 	 */
 	public static PoolResources fixed(String name, int maxConnections, long acquireTimeout) {
+		return fixed(name,
+				maxConnections,
+				acquireTimeout,
+				DEFAULT_POOL_MAX_IDLE_TIME,
+				DEFAULT_POOL_MAX_LIFE_TIME);
+	}
+
+	/**
+	 * Create a capped {@link PoolResources} to provide automatically for {@link
+	 * ChannelPool}.
+	 * <p>A Fixed {@link PoolResources} will open up to the given max connection value.
+	 * Further connections will be pending acquisition up to the given max pending
+	 * acquires, beyond which acquires fail immediately with a {@link
+	 * PoolAcquireRejectedException}.
+	 *
+	 * @param name the channel pool map name
+	 * @param maxConnections the maximum number of connections before starting pending
+	 * @param acquireTimeout the maximum time in millis to wait for aquiring
+	 * @param maxPendingAcquires the maximum number of pending acquires once all the
+	 * connections are acquired, -1 for no limit
+	 *
+	 * @return a new {@link PoolResources} to provide automatically for {@link
+	 * ChannelPool}
+	 */
+	public static PoolResources fixed(String name,
+			int maxConnections,
+			long acquireTimeout,
+			int maxPendingAcquires) {
+		return fixed(name,
+				maxConnections,
+				acquireTimeout,
+				maxPendingAcquires,
+				DEFAULT_POOL_MAX_IDLE_TIME,
+				DEFAULT_POOL_MAX_LIFE_TIME);
+	}
+
+	/**
+	 * Create a capped {@link PoolResources} to provide automatically for {@link
+	 * ChannelPool}.
+	 * <p>A Fixed {@link PoolResources} will open up to the given max connection value.
+	 * Further connections will be pending acquisition indefinitely.
+	 * <p>Connections idle in the pool for longer than {@code maxIdleTime} are closed in
+	 * the background, connections older than {@code maxLifeTime} are closed once
+	 * released and never acquired again.
+	 *
+	 * @param name the channel pool map name
+	 * @param maxConnections the maximum number of connections before starting pending
+	 * @param acquireTimeout the maximum time in millis to wait for aquiring
+	 * @param maxIdleTime the maximum time in millis a connection can stay idle in the
+	 * pool, -1 for no limit
+	 * @param maxLifeTime the maximum time in millis a connection is reused from its
+	 * creation, -1 for no limit
+	 *
+	 * @return a new {@link PoolResources} to provide automatically for {@link
+	 * ChannelPool}
+	 */
+	public static PoolResources fixed(String name,
+			int maxConnections,
+			long acquireTimeout,
+			long maxIdleTime,
+			long maxLifeTime) {
+		return fixed(name,
+				maxConnections,
+				acquireTimeout,
+				DEFAULT_POOL_MAX_PENDING_ACQUIRES,
+				maxIdleTime,
+				maxLifeTime);
+	}
+
+	/**
+	 * Create a capped {@link PoolResources} to provide automatically for {@link
+	 * ChannelPool}.
+	 * <p>A Fixed {@link PoolResources} will open up to the given max connection value.
+	 * Further connections will be pending acquisition up to the given max pending
+	 * acquires, beyond which acquires fail immediately with a {@link
+	 * PoolAcquireRejectedException}.
+	 * <p>Connections idle in the pool for longer than {@code maxIdleTime} are closed in
+	 * the background, connections older than {@code maxLifeTime} are closed once
+	 * released and never acquired again.
+	 *
+	 * @param name the channel pool map name
+	 * @param maxConnections the maximum number of connections before starting pending
+	 * @param acquireTimeout the maximum time in millis to wait for aquiring
+	 * @param maxPendingAcquires the maximum number of pending acquires once all the
+	 * connections are acquired, -1 for no limit
+	 * @param maxIdleTime the maximum time in millis a connection can stay idle in the
+	 * pool, -1 for no limit
+	 * @param maxLifeTime the maximum time in millis a connection is reused from its
+	 * creation, -1 for no limit
+	 *
+	 * @return a new {@link PoolResources} to provide automatically for {@link
+	 * ChannelPool}
+	 */
+	public static PoolResources fixed(String name,
+			int maxConnections,
+			long acquireTimeout,
+			int maxPendingAcquires,
+			long maxIdleTime,
+			long maxLifeTime) {
+		if (maxConnections == -1) {
+			return elastic(name, maxIdleTime, maxLifeTime);
+		}
+		checkFixed(maxConnections, acquireTimeout, maxPendingAcquires);
+		checkExpiry(maxIdleTime, maxLifeTime);
+		return new DefaultPoolResources(name,
+				fixedProvider(maxConnections, acquireTimeout),
+				maxConnections,
+				maxPendingAcquires,
+				maxIdleTime,
+				maxLifeTime,
+				false);
+	}
+
+	/**
+	 * Create a capped {@link PoolResources} partitioned per {@link EventLoop}.
+	 * <p>Each remote address gets one fixed {@link ChannelPool} per event loop, opening
+	 * up to the given max connection value on that loop. An acquire from an event loop
+	 * is served by its own partition, and only takes an idle connection from another
+	 * loop when its own partition has reached the max connection value with no idle
+	 * connection left. Otherwise further connections are pending acquisition on the
+	 * local partition.
+	 *
+	 * @param name the channel pool map name
+	 * @param maxConnections the maximum number of connections per event loop before
+	 * starting pending acquisition on existing ones
+	 *
+	 * @return a new {@link PoolResources} to provide automatically for {@link
+	 * ChannelPool}
+	 */
+	public static PoolResources fixedPerEventLoop(String name, int maxConnections) {
+		return fixedPerEventLoop(name, maxConnections, DEFAULT_POOL_ACQUIRE_TIMEOUT);
+	}
+
+	/**
+	 * Create a capped {@link PoolResources} partitioned per {@link EventLoop}.
+	 * <p>Each remote address gets one fixed {@link ChannelPool} per event loop, opening
+	 * up to the given max connection value on that loop. An acquire from an event loop
+	 * is served by its own partition, and only takes an idle connection from another
+	 * loop when its own partition has reached the max connection value with no idle
+	 * connection left. Otherwise further connections are pending acquisition on the
+	 * local partition.
+	 *
+	 * @param name the channel pool map name
+	 * @param maxConnections the maximum number of connections per event loop before
+	 * starting pending acquisition on existing ones
+	 * @param acquireTimeout the maximum time in millis to wait for aquiring
+	 *
+	 * @return a new {@link PoolResources} to provide automatically for {@link
+	 * ChannelPool}
+	 */
+	public static PoolResources fixedPerEventLoop(String name,
+			int maxConnections,
+			long acquireTimeout) {
 		if (maxConnections == -1) {
-			return elastic(name);
+			return elasticPerEventLoop(name);
 		}
+		checkFixed(maxConnections, acquireTimeout, DEFAULT_POOL_MAX_PENDING_ACQUIRES);
+		return new DefaultPoolResources(name,
+				fixedProvider(maxConnections, acquireTimeout),
+				maxConnections,
+				DEFAULT_POOL_MAX_PENDING_ACQUIRES,
+				DEFAULT_POOL_MAX_IDLE_TIME,
+				DEFAULT_POOL_MAX_LIFE_TIME,
+				true);
+	}
+
+	static PoolFactory fixedProvider(int maxConnections, long acquireTimeout) {
+		return (bootstrap, handler, checker) -> new BoundedChannelPool(bootstrap,
+				handler,
+				checker,
+				FixedChannelPool.AcquireTimeoutAction.FAIL,
+				acquireTimeout,
+				maxConnections,
+				Integer.MAX_VALUE
+		);
+	}
+
+	static void checkFixed(int maxConnections, long acquireTimeout, int maxPendingAcquires) {
 		if (maxConnections <= 0) {
 			throw new IllegalArgumentException("Max Connections value must be strictly " + "positive");
 		}
 		if (acquireTimeout != -1L && acquireTimeout < 0) {
 			throw new IllegalArgumentException("Acquire Timeout value must " + "be " + "positive");
 		}
-		return new DefaultPoolResources(name,
-				(bootstrap, handler, checker) -> new FixedChannelPool(bootstrap,
-						handler,
-						checker,
-						FixedChannelPool.AcquireTimeoutAction.FAIL,
-						acquireTimeout,
-						maxConnections,
-						Integer.MAX_VALUE
-				));
+		if (maxPendingAcquires != -1 && maxPendingAcquires < 0) {
+			throw new IllegalArgumentException("Max Pending Acquires value must be " + "positive");
+		}
+	}
+
+	static void checkExpiry(long maxIdleTime, long maxLifeTime) {
+		if (maxIdleTime != -1L && maxIdleTime <= 0) {
+			throw new IllegalArgumentException("Max Idle Time value must be strictly " + "positive");
+		}
+		if (maxLifeTime != -1L && maxLifeTime <= 0) {
+			throw new IllegalArgumentException("Max Life Time value must be strictly " + "positive");
+		}
 	}
 
 	interface PoolFactory {
@@ -150,14 +418,103 @@ public final class DefaultPoolResources implements PoolResources {
 				ChannelHealthChecker checker);
 	}
 
-	final ConcurrentMap<SocketAddress, Pool> channelPools;
-	final String                             name;
-	final PoolFactory                        provider;
+	/**
+	 * A {@link SimpleChannelPool} racing new connections with {@link HappyEyeballs}.
+	 */
+	static final class ElasticChannelPool extends SimpleChannelPool {
+
+		ElasticChannelPool(Bootstrap bootstrap,
+				ChannelPoolHandler handler,
+				ChannelHealthChecker healthCheck) {
+			super(bootstrap, handler, healthCheck);
+		}
+
+		@Override
+		protected ChannelFuture connectChannel(Bootstrap bs) {
+			return HappyEyeballs.connect(bs);
+		}
+	}
+
+	/**
+	 * A {@link FixedChannelPool} racing new connections with {@link HappyEyeballs}.
+	 */
+	static final class BoundedChannelPool extends FixedChannelPool {
+
+		BoundedChannelPool(Bootstrap bootstrap,
+				ChannelPoolHandler handler,
+				ChannelHealthChecker healthCheck,
+				AcquireTimeoutAction action,
+				long acquireTimeoutMillis,
+				int maxConnections,
+				int maxPendingAcquires) {
+			super(bootstrap,
+					handler,
+					healthCheck,
+					action,
+					acquireTimeoutMillis,
+					maxConnections,
+					maxPendingAcquires);
+		}
+
+		@Override
+		protected ChannelFuture connectChannel(Bootstrap bs) {
+			return HappyEyeballs.connect(bs);
+		}
+	}
+
+	final ConcurrentMap<SocketAddress, AbstractPool> channelPools;
+	final ConcurrentMap<SocketAddress, ChannelPool>  multiplexedPools;
+	final String                                     name;
+	final PoolFactory                                provider;
+	final List<PoolMetrics.Listener>                 listeners;
+	final int                                        maxConnections;
+	final int                                        maxPendingAcquires;
+	final long                                       maxIdleTime;
+	final long                                       maxLifeTime;
+	final boolean                                    perEventLoop;
 
 	DefaultPoolResources(String name, PoolFactory provider) {
+		this(name, provider, -1, -1, -1L, -1L, false);
+	}
+
+	DefaultPoolResources(String name,
+			PoolFactory provider,
+			int maxConnections,
+			int maxPendingAcquires,
+			long maxIdleTime,
+			long maxLifeTime,
+			boolean perEventLoop) {
 		this.name = name;
 		this.provider = provider;
 		this.channelPools = PlatformDependent.newConcurrentHashMap();
+		this.multiplexedPools = PlatformDependent.newConcurrentHashMap();
+		this.listeners = new CopyOnWriteArrayList<>();
+		this.maxConnections = maxConnections;
+		this.maxPendingAcquires = maxPendingAcquires;
+		this.maxIdleTime = maxIdleTime;
+		this.maxLifeTime = maxLifeTime;
+		this.perEventLoop = perEventLoop;
+	}
+
+	@Override
+	public List<PoolMetrics> metrics() {
+		List<PoolMetrics> metrics = new ArrayList<>(channelPools.size());
+		for (AbstractPool pool : channelPools.values()) {
+			metrics.add(pool.metrics());
+		}
+		for (ChannelPool pool : multiplexedPools.values()) {
+			if (pool instanceof PoolMetrics) {
+				metrics.add(snapshot((PoolMetrics) pool));
+			}
+		}
+		return metrics;
+	}
+
+	@Override
+	public Disposable addListener(PoolMetrics.Listener listener) {
+		ObjectHelper.requireNonNull(listener, "listener");
+		listeners.add(listener);
+		return Disposables.fromRunnable(() -> listeners.remove(listener));
 	}
 
 	@Override
@@ -167,7 +524,7 @@ public final class DefaultPoolResources implements PoolResources {
 			EventLoopGroup group) {
 		SocketAddress address = remote;
 		for (; ; ) {
-			Pool pool = channelPools.get(remote);
+			AbstractPool pool = channelPools.get(remote);
 			if (pool != null) {
 				return pool;
 			}
@@ -179,7 +536,28 @@ public final class DefaultPoolResources implements PoolResources {
 					address = b.config()
 							.remoteAddress();
 				}
-				pool = new Pool(b, provider, onChannelCreate, group);
+				if (perEventLoop) {
+					pool = new PartitionedPool(b,
+							provider,
+							onChannelCreate,
+							group,
+							listeners,
+							maxConnections,
+							maxPendingAcquires,
+							maxIdleTime,
+							maxLifeTime);
+				}
+				else {
+					pool = new Pool(b,
+							provider,
+							onChannelCreate,
+							group,
+							listeners,
+							maxConnections,
+							maxPendingAcquires,
+							maxIdleTime,
+							maxLifeTime);
+				}
 			} catch (Exception e) {
 				throw Exceptions.propagate(e);
 			}
@@ -190,45 +568,166 @@ public final class DefaultPoolResources implements PoolResources {
 		}
 	}
 
-	final static class Pool extends AtomicBoolean
-			implements ChannelPoolHandler, ChannelPool, ChannelHealthChecker {
+	@Override
+	public ChannelPool selectOrCreateMultiplexed(SocketAddress remote,
+			Callable<? extends ChannelPool> poolFactory) {
+		for (; ; ) {
+			ChannelPool pool = multiplexedPools.get(remote);
+			if (pool != null) {
+				return pool;
+			}
+			try {
+				pool = poolFactory.call();
+			}
+			catch (Exception e) {
+				throw Exceptions.propagate(e);
+			}
+			if (multiplexedPools.putIfAbsent(remote, pool) == null) {
+				return pool;
+			}
+			pool.close();
+		}
+	}
+
+	static PoolMetrics snapshot(PoolMetrics m) {
+		return new Metrics(m.remoteAddress(),
+				m.connections(),
+				m.activeConnections(),
+				m.idleConnections(),
+				m.pendingAcquires(),
+				m.queuedAcquires(),
+				m.createdConnections(),
+				m.acquires(),
+				m.acquireFailures(),
+				m.acquireTimeNanos(),
+				m.healthCheckFailures());
+	}
+
+	abstract static class AbstractPool extends AtomicBoolean implements ChannelPool {
+
+		abstract PoolMetrics metrics();
+	}
+
+	final static class Pool extends AbstractPool
+			implements ChannelPoolHandler, ChannelHealthChecker {
 
-		final ChannelPool               pool;
-		final Consumer<? super Channel> onChannelCreate;
-		final EventLoopGroup            defaultGroup;
+		final ChannelPool                      pool;
+		final Consumer<? super Channel>        onChannelCreate;
+		final EventLoopGroup                   defaultGroup;
+		final SocketAddress                    remoteAddress;
+		final List<PoolMetrics.Listener>       listeners;
+		final int                              maxConnections;
+		final int                              maxPendingAcquires;
+		final long                             maxIdleNanos;
+		final long                             maxLifeNanos;
+		final ConcurrentMap<Channel, Lifetime> lifetimes;
+		final ScheduledFuture<?>               reaper;
 
 		final AtomicInteger activeConnections = new AtomicInteger();
+		final AtomicInteger connections       = new AtomicInteger();
+		final AtomicInteger pendingAcquires   = new AtomicInteger();
+
+		final LongCounter createdConnections  = PlatformDependent.newLongCounter();
+		final LongCounter acquires            = PlatformDependent.newLongCounter();
+		final LongCounter acquireFailures     = PlatformDependent.newLongCounter();
+		final LongCounter acquireTimeNanos    = PlatformDependent.newLongCounter();
+		final LongCounter healthCheckFailures = PlatformDependent.newLongCounter();
 
 		final Future<Boolean> HEALTHY;
 		final Future<Boolean> UNHEALTHY;
 
-		@SuppressWarnings("unchecked")
 		Pool(Bootstrap bootstrap,
 				PoolFactory provider,
 				Consumer<? super Channel> onChannelCreate,
 				EventLoopGroup group) {
+			this(bootstrap,
+					provider,
+					onChannelCreate,
+					group,
+					new CopyOnWriteArrayList<>(),
+					-1,
+					-1,
+					-1L,
+					-1L);
+		}
+
+		@SuppressWarnings("unchecked")
+		Pool(Bootstrap bootstrap,
+				PoolFactory provider,
+				Consumer<? super Channel> onChannelCreate,
+				EventLoopGroup group,
+				List<PoolMetrics.Listener> listeners,
+				int maxConnections,
+				int maxPendingAcquires,
+				long maxIdleTime,
+				long maxLifeTime) {
 			this.pool = provider.newPool(bootstrap, this, this);
 			this.onChannelCreate = onChannelCreate;
 			this.defaultGroup = group;
+			this.remoteAddress = bootstrap.config()
+			                              .remoteAddress();
+			this.listeners = listeners;
+			this.maxConnections = maxConnections;
+			this.maxPendingAcquires = maxPendingAcquires;
+			this.maxIdleNanos = maxIdleTime == -1L ? -1L : TimeUnit.MILLISECONDS.toNanos(maxIdleTime);
+			this.maxLifeNanos = maxLifeTime == -1L ? -1L : TimeUnit.MILLISECONDS.toNanos(maxLifeTime);
 			HEALTHY = group.next()
 			               .newSucceededFuture(true);
 			UNHEALTHY = group.next()
 			                 .newSucceededFuture(false);
+
+			if (maxIdleNanos != -1L || maxLifeNanos != -1L) {
+				this.lifetimes = PlatformDependent.newConcurrentHashMap();
+				long period = Math.max(MIN_REAPER_PERIOD_NANOS,
+						Math.min(maxIdleNanos == -1L ? Long.MAX_VALUE : maxIdleNanos,
+								maxLifeNanos == -1L ? Long.MAX_VALUE : maxLifeNanos) / 2);
+				this.reaper = group.next()
+				                   .scheduleAtFixedRate(this::reap,
+						                   period,
+						                   period,
+						                   TimeUnit.NANOSECONDS);
+			}
+			else {
+				this.lifetimes = null;
+				this.reaper = null;
+			}
 		}
 
 		@Override
 		public Future<Boolean> isHealthy(Channel channel) {
-			return channel.isActive() ? HEALTHY : UNHEALTHY;
+			Lifetime lifetime = lifetimes != null ? channel.attr(LIFETIME)
+			                                               .get() : null;
+			if (lifetime != null && lifetime.isExpired(System.nanoTime(), this)) {
+				// skipped on acquire, not offered back on release
+				lifetime.expire(channel);
+				return UNHEALTHY;
+			}
+			if (channel.isActive()) {
+				return HEALTHY;
+			}
+			if (lifetime != null && lifetime.expired) {
+				return UNHEALTHY;
+			}
+			healthCheckFailures.increment();
+			for (PoolMetrics.Listener listener : listeners) {
+				listener.onHealthCheckFailed(remoteAddress, channel);
+			}
+			return UNHEALTHY;
 		}
 
 		@Override
 		public Future<Channel> acquire() {
-			return pool.acquire();
+			return acquire(defaultGroup.next()
+			                           .newPromise());
 		}
 
 		@Override
 		public Future<Channel> acquire(Promise<Channel> promise) {
-			return pool.acquire(promise);
+			if (!tryAcquireStart()) {
+				return onAcquireRejected(promise);
+			}
+			long start = System.nanoTime();
+			return onAcquire(pool.acquire(), promise, start);
 		}
 
 		@Override
@@ -244,6 +743,9 @@ public final class DefaultPoolResources implements PoolResources {
 		@Override
 		public void close() {
 			if(compareAndSet(false, true)) {
+				if (reaper != null) {
+					reaper.cancel(false);
+				}
 				pool.close();
 			}
 		}
@@ -251,21 +753,172 @@ public final class DefaultPoolResources implements PoolResources {
 		@Override
 		public void channelReleased(Channel ch) throws Exception {
 			activeConnections.decrementAndGet();
+			if (lifetimes != null) {
+				Lifetime lifetime = ch.attr(LIFETIME)
+				                      .get();
+				if (lifetime != null) {
+					lifetime.idleSince = System.nanoTime();
+				}
+			}
+			for (PoolMetrics.Listener listener : listeners) {
+				listener.onReleased(remoteAddress, ch);
+			}
 		}
 
 		@Override
 		public void channelAcquired(Channel ch) throws Exception {
 			activeConnections.incrementAndGet();
+			if (lifetimes != null) {
+				Lifetime lifetime = ch.attr(LIFETIME)
+				                      .get();
+				if (lifetime != null) {
+					lifetime.idleSince = Lifetime.ACQUIRED;
+				}
+			}
 		}
 
 		@Override
 		public void channelCreated(Channel ch) throws Exception {
 			activeConnections.incrementAndGet();
+			connections.incrementAndGet();
+			createdConnections.increment();
+			if (lifetimes != null) {
+				Lifetime lifetime = new Lifetime(System.nanoTime());
+				ch.attr(LIFETIME)
+				  .set(lifetime);
+				lifetimes.put(ch, lifetime);
+			}
+			ch.closeFuture()
+			  .addListener(f -> {
+				  connections.decrementAndGet();
+				  if (lifetimes != null) {
+					  lifetimes.remove(ch);
+				  }
+				  for (PoolMetrics.Listener listener : listeners) {
+					  listener.onClosed(remoteAddress, ch);
+				  }
+			  });
+			for (PoolMetrics.Listener listener : listeners) {
+				listener.onCreated(remoteAddress, ch);
+			}
 			if (onChannelCreate != null) {
 				onChannelCreate.accept(ch);
 			}
 		}
 
+		/**
+		 * Close the idle connections past their idle time or lifetime. The check is
+		 * repeated on the connection event loop where acquires are health checked, so a
+		 * connection acquired in the meantime is left open.
+		 */
+		void reap() {
+			long now = System.nanoTime();
+			for (Map.Entry<Channel, Lifetime> e : lifetimes.entrySet()) {
+				Lifetime lifetime = e.getValue();
+				if (lifetime.idleSince != Lifetime.ACQUIRED && lifetime.isExpired(now, this)) {
+					Channel ch = e.getKey();
+					ch.eventLoop()
+					  .execute(() -> {
+						  if (lifetime.idleSince != Lifetime.ACQUIRED && lifetime.isExpired(
+								  System.nanoTime(),
+								  this)) {
+							  lifetime.expire(ch);
+						  }
+					  });
+				}
+			}
+		}
+
+		/**
+		 * Count a new pending acquire unless the fixed pool has no connection left to
+		 * acquire or create and already queues the max pending acquires.
+		 *
+		 * @return false if the acquire must be rejected
+		 */
+		boolean tryAcquireStart() {
+			for (; ; ) {
+				int pending = pendingAcquires.get();
+				if (maxPendingAcquires != -1 && queued(pending + 1,
+						activeConnections.get()) > maxPendingAcquires) {
+					return false;
+				}
+				if (pendingAcquires.compareAndSet(pending, pending + 1)) {
+					return true;
+				}
+			}
+		}
+
+		int queued(int pendingAcquires, int activeConnections) {
+			if (maxConnections == -1) {
+				return 0;
+			}
+			return Math.max(0, pendingAcquires + activeConnections - maxConnections);
+		}
+
+		Future<Channel> onAcquireRejected(Promise<Channel> promise) {
+			PoolAcquireRejectedException e =
+					new PoolAcquireRejectedException(remoteAddress, maxPendingAcquires);
+			acquireFailures.increment();
+			for (PoolMetrics.Listener listener : listeners) {
+				listener.onAcquireFailed(remoteAddress, e, 0L);
+			}
+			return promise.setFailure(e);
+		}
+
+		/**
+		 * Complete the given promise with the pool acquire once it is no longer counted
+		 * as pending, so the acquirer cannot be rejected by its own stale count.
+		 */
+		Future<Channel> onAcquire(Future<Channel> acquire,
+				Promise<Channel> promise,
+				long start) {
+			acquire.addListener((Future<Channel> f) -> {
+				pendingAcquires.decrementAndGet();
+				long elapsed = System.nanoTime() - start;
+				if (f.isSuccess()) {
+					acquires.increment();
+					acquireTimeNanos.add(elapsed);
+					for (PoolMetrics.Listener listener : listeners) {
+						listener.onAcquired(remoteAddress, f.getNow(), elapsed);
+					}
+					if (!promise.trySuccess(f.getNow())) {
+						// cancelled in the meantime
+						pool.release(f.getNow());
+					}
+				}
+				else {
+					acquireFailures.increment();
+					for (PoolMetrics.Listener listener : listeners) {
+						listener.onAcquireFailed(remoteAddress, f.cause(), elapsed);
+					}
+					promise.tryFailure(f.cause());
+				}
+			});
+			return promise;
+		}
+
+		@Override
+		PoolMetrics metrics() {
+			int connections = this.connections.get();
+			int active = activeConnections.get();
+			int pending = pendingAcquires.get();
+			return new Metrics(remoteAddress,
+					connections,
+					active,
+					Math.max(0, connections - active),
+					pending,
+					queued(pending, active),
+					createdConnections.value(),
+					acquires.value(),
+					acquireFailures.value(),
+					acquireTimeNanos.value(),
+					healthCheckFailures.value());
+		}
+
+		int idleConnections() {
+			return connections.get() - activeConnections.get();
+		}
+
 		@Override
 		public String toString() {
 			return pool.getClass()
@@ -273,6 +926,303 @@ public final class DefaultPoolResources implements PoolResources {
 		}
 	}
 
+	/**
+	 * One {@link Pool} per {@link EventLoop} of the client group, each created lazily
+	 * and only opening connections registered on its own loop. An acquire from an event
+	 * loop is served by that loop partition and only steals an idle connection from
+	 * another partition when its own has reached the max connections without any idle
+	 * one left. An acquire from any other thread takes an idle connection from any
+	 * partition first.
+	 */
+	final static class PartitionedPool extends AbstractPool {
+
+		final Bootstrap                      bootstrap;
+		final PoolFactory                    provider;
+		final Consumer<? super Channel>      onChannelCreate;
+		final EventLoopGroup                 group;
+		final List<PoolMetrics.Listener>     listeners;
+		final int                            maxConnections;
+		final int                            maxPendingAcquires;
+		final long                           maxIdleTime;
+		final long                           maxLifeTime;
+		final ConcurrentMap<EventLoop, Pool> partitions;
+
+		PartitionedPool(Bootstrap bootstrap,
+				PoolFactory provider,
+				Consumer<? super Channel> onChannelCreate,
+				EventLoopGroup group,
+				List<PoolMetrics.Listener> listeners,
+				int maxConnections,
+				int maxPendingAcquires,
+				long maxIdleTime,
+				long maxLifeTime) {
+			this.bootstrap = bootstrap;
+			this.provider = provider;
+			this.onChannelCreate = onChannelCreate;
+			this.group = group;
+			this.listeners = listeners;
+			this.maxConnections = maxConnections;
+			this.maxPendingAcquires = maxPendingAcquires;
+			this.maxIdleTime = maxIdleTime;
+			this.maxLifeTime = maxLifeTime;
+			this.partitions = PlatformDependent.newConcurrentHashMap();
+		}
+
+		@Override
+		public Future<Channel> acquire() {
+			return select().acquire();
+		}
+
+		@Override
+		public Future<Channel> acquire(Promise<Channel> promise) {
+			return select().acquire(promise);
+		}
+
+		@Override
+		public Future<Void> release(Channel channel) {
+			return release(channel, channel.eventLoop()
+			                               .newPromise());
+		}
+
+		@Override
+		public Future<Void> release(Channel channel, Promise<Void> promise) {
+			Pool pool = partitions.get(channel.eventLoop());
+			if (pool == null) {
+				channel.close();
+				return promise.setFailure(new IllegalArgumentException("Channel " + channel + " was not acquired from this ChannelPool"));
+			}
+			return pool.release(channel, promise);
+		}
+
+		@Override
+		public void close() {
+			if (compareAndSet(false, true)) {
+				for (Pool pool : partitions.values()) {
+					pool.close();
+				}
+			}
+		}
+
+		Pool select() {
+			EventLoop loop = currentLoop();
+			if (loop != null) {
+				Pool local = partition(loop);
+				if (maxConnections == -1 || local.idleConnections() > 0 || local.connections.get() < maxConnections) {
+					return local;
+				}
+			}
+			for (Pool pool : partitions.values()) {
+				if (pool.idleConnections() > 0) {
+					return pool;
+				}
+			}
+			return loop != null ? partition(loop) : partition(group.next());
+		}
+
+		EventLoop currentLoop() {
+			for (EventExecutor executor : group) {
+				if (executor.inEventLoop()) {
+					return (EventLoop) executor;
+				}
+			}
+			return null;
+		}
+
+		Pool partition(EventLoop loop) {
+			Pool pool = partitions.get(loop);
+			if (pool != null) {
+				return pool;
+			}
+			pool = new Pool(bootstrap.clone(loop),
+					provider,
+					onChannelCreate,
+					loop,
+					listeners,
+					maxConnections,
+					maxPendingAcquires,
+					maxIdleTime,
+					maxLifeTime);
+			Pool previous = partitions.putIfAbsent(loop, pool);
+			if (previous != null) {
+				pool.close();
+				return previous;
+			}
+			if (get()) {
+				// closed concurrently
+				pool.close();
+			}
+			return pool;
+		}
+
+		@Override
+		PoolMetrics metrics() {
+			int connections = 0;
+			int activeConnections = 0;
+			int pendingAcquires = 0;
+			int queuedAcquires = 0;
+			long createdConnections = 0L;
+			long acquires = 0L;
+			long acquireFailures = 0L;
+			long acquireTimeNanos = 0L;
+			long healthCheckFailures = 0L;
+			for (Pool pool : partitions.values()) {
+				PoolMetrics m = pool.metrics();
+				connections += m.connections();
+				activeConnections += m.activeConnections();
+				pendingAcquires += m.pendingAcquires();
+				queuedAcquires += m.queuedAcquires();
+				createdConnections += m.createdConnections();
+				acquires += m.acquires();
+				acquireFailures += m.acquireFailures();
+				acquireTimeNanos += m.acquireTimeNanos();
+				healthCheckFailures += m.healthCheckFailures();
+			}
+			return new Metrics(bootstrap.config()
+			                            .remoteAddress(),
+					connections,
+					activeConnections,
+					Math.max(0, connections - activeConnections),
+					pendingAcquires,
+					queuedAcquires,
+					createdConnections,
+					acquires,
+					acquireFailures,
+					acquireTimeNanos,
+					healthCheckFailures);
+		}
+
+		@Override
+		public String toString() {
+			return "PartitionedPool{" + "partitions=" + partitions.size() + '}';
+		}
+	}
+
+	static final class Lifetime {
+
+		final long created;
+
+		volatile long    idleSince = ACQUIRED;
+		volatile boolean expired;
+
+		Lifetime(long created) {
+			this.created = created;
+		}
+
+		boolean isExpired(long now, Pool pool) {
+			if (pool.maxLifeNanos != -1L && now - created >= pool.maxLifeNanos) {
+				return true;
+			}
+			long idleSince = this.idleSince;
+			return pool.maxIdleNanos != -1L && idleSince != ACQUIRED && now - idleSince >= pool.maxIdleNanos;
+		}
+
+		void expire(Channel channel) {
+			expired = true;
+			channel.close();
+		}
+
+		static final long ACQUIRED = Long.MIN_VALUE;
+	}
+
+	static final class Metrics implements PoolMetrics {
+
+		final SocketAddress remoteAddress;
+		final int           connections;
+		final int           activeConnections;
+		final int           idleConnections;
+		final int           pendingAcquires;
+		final int           queuedAcquires;
+		final long          createdConnections;
+		final long          acquires;
+		final long          acquireFailures;
+		final long          acquireTimeNanos;
+		final long          healthCheckFailures;
+
+		Metrics(SocketAddress remoteAddress,
+				int connections,
+				int activeConnections,
+				int idleConnections,
+				int pendingAcquires,
+				int queuedAcquires,
+				long createdConnections,
+				long acquires,
+				long acquireFailures,
+				long acquireTimeNanos,
+				long healthCheckFailures) {
+			this.remoteAddress = remoteAddress;
+			this.connections = connections;
+			this.activeConnections = activeConnections;
+			this.idleConnections = idleConnections;
+			this.pendingAcquires = pendingAcquires;
+			this.queuedAcquires = queuedAcquires;
+			this.createdConnections = createdConnections;
+			this.acquires = acquires;
+			this.acquireFailures = acquireFailures;
+			this.acquireTimeNanos = acquireTimeNanos;
+			this.healthCheckFailures = healthCheckFailures;
+		}
+
+		@Override
+		public SocketAddress remoteAddress() {
+			return remoteAddress;
+		}
+
+		@Override
+		public int connections() {
+			return connections;
+		}
+
+		@Override
+		public int activeConnections() {
+			return activeConnections;
+		}
+
+		@Override
+		public int idleConnections() {
+			return idleConnections;
+		}
+
+		@Override
+		public int pendingAcquires() {
+			return pendingAcquires;
+		}
+
+		@Override
+		public int queuedAcquires() {
+			return queuedAcquires;
+		}
+
+		@Override
+		public long createdConnections() {
+			return createdConnections;
+		}
+
+		@Override
+		public long acquires() {
+			return acquires;
+		}
+
+		@Override
+		public long acquireFailures() {
+			return acquireFailures;
+		}
+
+		@Override
+		public long acquireTimeNanos() {
+			return acquireTimeNanos;
+		}
+
+		@Override
+		public long healthCheckFailures() {
+			return healthCheckFailures;
+		}
+
+		@Override
+		public String toString() {
+			return "PoolMetrics{" + "remoteAddress=" + remoteAddress + ", connections=" + connections + ", activeConnections=" + activeConnections + ", idleConnections=" + idleConnections + ", pendingAcquires=" + pendingAcquires + ", queuedAcquires=" + queuedAcquires + ", createdConnections=" + createdConnections + ", acquires=" + acquires + ", acquireFailures=" + acquireFailures + ", acquireTimeNanos=" + acquireTimeNanos + ", healthCheckFailures=" + healthCheckFailures + '}';
+		}
+	}
+
 	@Override
 	public void dispose() {
 		disposeLater().subscribe();
@@ -281,23 +1231,38 @@ public final class DefaultPoolResources implements PoolResources {
 	@Override
 	public Flowable<Void> disposeLater() {
 		return Completable.fromRunnable(() -> {
-			Pool pool;
+			AbstractPool pool;
 			for (SocketAddress key: channelPools.keySet()) {
 				pool = channelPools.remove(key);
 				if(pool != null){
 					pool.close();
 				}
 			}
+			ChannelPool multiplexed;
+			for (SocketAddress key: multiplexedPools.keySet()) {
+				multiplexed = multiplexedPools.remove(key);
+				if(multiplexed != null){
+					multiplexed.close();
+				}
+			}
 		}).toFlowable();
 	}
 
 	@Override
 	public boolean isDisposed() {
-		for (Pool pool: channelPools.values()) {
+		if (!multiplexedPools.isEmpty()) {
+			return false;
+		}
+		for (AbstractPool pool: channelPools.values()) {
 			if (!pool.get()) {
 				return false;
 			}
 		}
 		return true;
 	}
+
+	static final long MIN_REAPER_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	static final AttributeKey<Lifetime> LIFETIME =
+			AttributeKey.newInstance("POOLED_CHANNEL_LIFETIME");
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.resources;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.util.internal.PlatformDependent;
+import io.reactivex.internal.functions.ObjectHelper;
+
+/**
+ * A client connect address picking one of a set of endpoints on every connect, to be
+ * passed to {@link io.reactivex.netty.http.client.HttpClientOptions.Builder#loadBalancer(LoadBalancer)}
+ * or to {@link io.reactivex.netty.options.ClientOptions.Builder#connectAddress(Callable)}
+ * for a TCP client. Since {@link PoolResources} keep a pool per remote address, each
+ * endpoint is served by its own connection pool. For instance:
+ * <pre>
+ * {@code
+ * PoolResources pools = DefaultPoolResources.fixed("backends");
+ * HttpClient client = HttpClient.create(o -> o.poolResources(pools)
+ *                                             .loadBalancer(LoadBalancer.leastOutstanding(endpoints, pools)));
+ * }
+ * </pre>
+ * The least outstanding and power of two choices strategies read the endpoint load,
+ * acquired connections plus pending acquires, from the {@link PoolResources#metrics()} of
+ * the pools the client uses.
+ *
+ * @author Stephane Maldini
+ */
+public abstract class LoadBalancer implements Callable<SocketAddress> {
+
+	/**
+	 * Create a {@link LoadBalancer} cycling through the given endpoints.
+	 *
+	 * @param endpoints the endpoints to connect to
+	 *
+	 * @return a new {@link LoadBalancer}
+	 */
+	public static LoadBalancer roundRobin(List<? extends SocketAddress> endpoints) {
+		return new RoundRobin(endpoints);
+	}
+
+	/**
+	 * Create a {@link LoadBalancer} picking the endpoint with the fewest outstanding
+	 * requests in the given pools, cycling through the endpoints with equal load.
+	 *
+	 * @param endpoints the endpoints to connect to
+	 * @param pools the {@link PoolResources} used by the client
+	 *
+	 * @return a new {@link LoadBalancer}
+	 */
+	public static LoadBalancer leastOutstanding(List<? extends SocketAddress> endpoints,
+			PoolResources pools) {
+		return new LeastOutstanding(endpoints, pools);
+	}
+
+	/**
+	 * Create a {@link LoadBalancer} picking two endpoints at random and keeping the one
+	 * with the fewest outstanding requests in the given pools. Unlike {@link
+	 * #leastOutstanding(List, PoolResources)} concurrent clients sharing stale load
+	 * information do not all herd to the same endpoint.
+	 *
+	 * @param endpoints the endpoints to connect to
+	 * @param pools the {@link PoolResources} used by the client
+	 *
+	 * @return a new {@link LoadBalancer}
+	 */
+	public static LoadBalancer powerOfTwoChoices(List<? extends SocketAddress> endpoints,
+			PoolResources pools) {
+		return new PowerOfTwoChoices(endpoints, pools);
+	}
+
+	final List<SocketAddress> endpoints;
+
+	LoadBalancer(List<? extends SocketAddress> endpoints) {
+		ObjectHelper.requireNonNull(endpoints, "endpoints");
+		if (endpoints.isEmpty()) {
+			throw new IllegalArgumentException("At least one endpoint is required");
+		}
+		this.endpoints = Collections.unmodifiableList(new ArrayList<>(endpoints));
+	}
+
+	/**
+	 * Return the endpoints this {@link LoadBalancer} picks from
+	 *
+	 * @return the endpoints this {@link LoadBalancer} picks from
+	 */
+	public final List<SocketAddress> endpoints() {
+		return endpoints;
+	}
+
+	/**
+	 * Pick the endpoint of the next connection
+	 *
+	 * @return the endpoint of the next connection
+	 */
+	@Override
+	public abstract SocketAddress call();
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "{" + "endpoints=" + endpoints + '}';
+	}
+
+	static final class RoundRobin extends LoadBalancer {
+
+		final AtomicInteger next = new AtomicInteger();
+
+		RoundRobin(List<? extends SocketAddress> endpoints) {
+			super(endpoints);
+		}
+
+		@Override
+		public SocketAddress call() {
+			return endpoints.get(Math.abs(next.getAndIncrement() % endpoints.size()));
+		}
+	}
+
+	/**
+	 * A {@link LoadBalancer} reading the endpoints load from pool metrics. The pool
+	 * remote address is usually the endpoint itself but might be an equivalent instance,
+	 * e.g. when shared with a client connecting to a configured address, so they are
+	 * matched by host and port and the mapping cached per remote address.
+	 */
+	static abstract class LoadAware extends LoadBalancer {
+
+		final PoolResources                         pools;
+		final ConcurrentMap<SocketAddress, Integer> indexes;
+
+		LoadAware(List<? extends SocketAddress> endpoints, PoolResources pools) {
+			super(endpoints);
+			this.pools = ObjectHelper.requireNonNull(pools, "pools");
+			this.indexes = PlatformDependent.newConcurrentHashMap();
+		}
+
+		final int[] loads() {
+			int[] loads = new int[endpoints.size()];
+			for (PoolMetrics m : pools.metrics()) {
+				int index = indexOf(m.remoteAddress());
+				if (index != -1) {
+					loads[index] += m.activeConnections() + m.pendingAcquires();
+				}
+			}
+			return loads;
+		}
+
+		final int indexOf(SocketAddress remoteAddress) {
+			if (remoteAddress == null) {
+				return -1;
+			}
+			Integer index = indexes.get(remoteAddress);
+			if (index == null) {
+				index = -1;
+				for (int i = 0; i < endpoints.size(); i++) {
+					if (matches(endpoints.get(i), remoteAddress)) {
+						index = i;
+						break;
+					}
+				}
+				indexes.putIfAbsent(remoteAddress, index);
+			}
+			return index;
+		}
+
+		static boolean matches(SocketAddress endpoint, SocketAddress remoteAddress) {
+			if (endpoint.equals(remoteAddress)) {
+				return true;
+			}
+			if (!(endpoint instanceof InetSocketAddress) || !(remoteAddress instanceof InetSocketAddress)) {
+				return false;
+			}
+			InetSocketAddress a = (InetSocketAddress) endpoint;
+			InetSocketAddress b = (InetSocketAddress) remoteAddress;
+			if (a.getPort() != b.getPort()) {
+				return false;
+			}
+			if (a.getHostString()
+			     .equalsIgnoreCase(b.getHostString())) {
+				return true;
+			}
+			return a.getAddress() != null && a.getAddress()
+			                                  .equals(b.getAddress());
+		}
+	}
+
+	static final class LeastOutstanding extends LoadAware {
+
+		final AtomicInteger next = new AtomicInteger();
+
+		LeastOutstanding(List<? extends SocketAddress> endpoints, PoolResources pools) {
+			super(endpoints, pools);
+		}
+
+		@Override
+		public SocketAddress call() {
+			int[] loads = loads();
+			int n = loads.length;
+			// rotate the scan start so equally loaded endpoints are picked in turn
+			int start = Math.abs(next.getAndIncrement() % n);
+			int selected = start;
+			for (int i = 1; i < n; i++) {
+				int index = (start + i) % n;
+				if (loads[index] < loads[selected]) {
+					selected = index;
+				}
+			}
+			return endpoints.get(selected);
+		}
+	}
+
+	static final class PowerOfTwoChoices extends LoadAware {
+
+		PowerOfTwoChoices(List<? extends SocketAddress> endpoints, PoolResources pools) {
+			super(endpoints, pools);
+		}
+
+		@Override
+		public SocketAddress call() {
+			int n = endpoints.size();
+			if (n == 1) {
+				return endpoints.get(0);
+			}
+			Random random = PlatformDependent.threadLocalRandom();
+			int a = random.nextInt(n);
+			int b = random.nextInt(n - 1);
+			if (b >= a) {
+				b++;
+			}
+			int[] loads = loads();
+			return endpoints.get(loads[b] < loads[a] ? b : a);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.resources;
+
+import java.net.SocketAddress;
+
+/**
+ * An exception failing a connection acquire immediately because the fixed pool has
+ * reached both its max connections and its max pending acquires. Shed load on it
+ * instead of retrying right away.
+ *
+ * @author Stephane Maldini
+ */
+public class PoolAcquireRejectedException extends RuntimeException {
+
+	final SocketAddress remoteAddress;
+	final int           maxPendingAcquires;
+
+	public PoolAcquireRejectedException(SocketAddress remoteAddress,
+			int maxPendingAcquires) {
+		super("Pending acquire queue has reached its maximum size of " + maxPendingAcquires + " for " + remoteAddress);
+		this.remoteAddress = remoteAddress;
+		this.maxPendingAcquires = maxPendingAcquires;
+	}
+
+	/**
+	 * Return the remote address served by the saturated pool
+	 *
+	 * @return the remote address served by the saturated pool
+	 */
+	public SocketAddress remoteAddress() {
+		return remoteAddress;
+	}
+
+	/**
+	 * Return the max pending acquires of the saturated pool
+	 *
+	 * @return the max pending acquires of the saturated pool
+	 */
+	public int maxPendingAcquires() {
+		return maxPendingAcquires;
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		// rejections are expected under load, keep them cheap
+		return this;
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.resources;
+
+import java.net.SocketAddress;
+
+import io.netty.channel.Channel;
+
+/**
+ * A point in time snapshot of the connections of a {@link
+ * io.netty.channel.pool.ChannelPool} dedicated to a remote address, as provided by
+ * {@link PoolResources#metrics()}. Counters are cumulative since the pool creation.
+ *
+ * @author Stephane Maldini
+ */
+public interface PoolMetrics {
+
+	/**
+	 * Return the remote address served by the pool
+	 *
+	 * @return the remote address served by the pool
+	 */
+	SocketAddress remoteAddress();
+
+	/**
+	 * Return the number of open connections, acquired or idle
+	 *
+	 * @return the number of open connections
+	 */
+	int connections();
+
+	/**
+	 * Return the number of connections currently acquired
+	 *
+	 * @return the number of connections currently acquired
+	 */
+	int activeConnections();
+
+	/**
+	 * Return the number of open connections waiting in the pool to be acquired
+	 *
+	 * @return the number of idle connections
+	 */
+	int idleConnections();
+
+	/**
+	 * Return the number of acquires that are not yet complete, either waiting for a
+	 * connection to be released or for a new one to connect
+	 *
+	 * @return the number of pending acquires
+	 */
+	int pendingAcquires();
+
+	/**
+	 * Return the number of pending acquires queued until a connection is released
+	 * because the pool has reached its max connections, always 0 for an elastic pool
+	 *
+	 * @return the number of queued acquires
+	 */
+	int queuedAcquires();
+
+	/**
+	 * Return the total number of connections created by the pool
+	 *
+	 * @return the total number of connections created
+	 */
+	long createdConnections();
+
+	/**
+	 * Return the total number of successful acquires
+	 *
+	 * @return the total number of successful acquires
+	 */
+	long acquires();
+
+	/**
+	 * Return the total number of failed acquires, including timeouts
+	 *
+	 * @return the total number of failed acquires
+	 */
+	long acquireFailures();
+
+	/**
+	 * Return the total time spent by successful acquires in nanoseconds, divided by
+	 * {@link #acquires()} it gives the mean acquire latency
+	 *
+	 * @return the total acquire time in nanoseconds
+	 */
+	long acquireTimeNanos();
+
+	/**
+	 * Return the total number of connections found inactive by a health check
+	 *
+	 * @return the total number of health check failures
+	 */
+	long healthCheckFailures();
+
+	/**
+	 * A callback notified of the pool events of a {@link PoolResources}, from the event
+	 * loop of the connection involved. Implementations must not block.
+	 */
+	interface Listener {
+
+		/**
+		 * A new connection has been created.
+		 *
+		 * @param remoteAddress the pool remote address
+		 * @param channel the new connection
+		 */
+		default void onCreated(SocketAddress remoteAddress, Channel channel) {
+		}
+
+		/**
+		 * A connection has been acquired.
+		 *
+		 * @param remoteAddress the pool remote address
+		 * @param channel the acquired connection
+		 * @param acquireTimeNanos the time spent acquiring in nanoseconds
+		 */
+		default void onAcquired(SocketAddress remoteAddress,
+				Channel channel,
+				long acquireTimeNanos) {
+		}
+
+		/**
+		 * An acquire has failed.
+		 *
+		 * @param remoteAddress the pool remote address
+		 * @param error the acquire failure
+		 * @param acquireTimeNanos the time spent acquiring in nanoseconds
+		 */
+		default void onAcquireFailed(SocketAddress remoteAddress,
+				Throwable error,
+				long acquireTimeNanos) {
+		}
+
+		/**
+		 * A connection has been released to the pool.
+		 *
+		 * @param remoteAddress the pool remote address
+		 * @param channel the released connection
+		 */
+		default void onReleased(SocketAddress remoteAddress, Channel channel) {
+		}
+
+		/**
+		 * A connection has been found inactive by a health check.
+		 *
+		 * @param remoteAddress the pool remote address
+		 * @param channel the unhealthy connection
+		 */
+		default void onHealthCheckFailed(SocketAddress remoteAddress, Channel channel) {
+		}
+
+		/**
+		 * A connection created by the pool has been closed.
+		 *
+		 * @param remoteAddress the pool remote address
+		 * @param channel the closed connection
+		 */
+		default void onClosed(SocketAddress remoteAddress, Channel channel) {
+		}
+	}
+}
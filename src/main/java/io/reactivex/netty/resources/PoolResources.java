@@ -18,6 +18,8 @@
 package io.reactivex.netty.resources;
 
 import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import io.netty.bootstrap.Bootstrap;
@@ -26,6 +28,7 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.pool.ChannelPool;
 import io.reactivex.Flowable;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
 import io.reactivex.functions.Consumer;
 
 /**
@@ -54,6 +57,44 @@ public interface PoolResources extends Disposable {
 			Consumer<? super Channel> onChannelCreate,
 			EventLoopGroup group);
 
+	/**
+	 * Return an existing or new {@link ChannelPool} of multiplexed channels, e.g. HTTP/2
+	 * streams, to the given remote address. The pool is created by the given factory
+	 * only if absent and closed once this resource is disposed. Its metrics are part of
+	 * {@link #metrics()} if it implements {@link PoolMetrics}.
+	 *
+	 * @param address the remote address to resolve for existing or new {@link ChannelPool}
+	 * @param poolFactory the {@link ChannelPool} supplier if one must be created
+	 * @return an existing or new {@link ChannelPool} or null if not supported, the
+	 * caller is then in charge of the pool lifecycle
+	 */
+	default ChannelPool selectOrCreateMultiplexed(SocketAddress address,
+			Callable<? extends ChannelPool> poolFactory) {
+		return null; //noop default
+	}
+
+	/**
+	 * Return a snapshot of the {@link PoolMetrics} of each {@link ChannelPool} currently
+	 * provided.
+	 *
+	 * @return the metrics of each pool
+	 */
+	default List<PoolMetrics> metrics() {
+		return Collections.emptyList(); //noop default
+	}
+
+	/**
+	 * Register a {@link PoolMetrics.Listener} notified of the events of every {@link
+	 * ChannelPool} provided, present or future.
+	 *
+	 * @param listener the listener to register
+	 *
+	 * @return a {@link Disposable} unregistering the listener
+	 */
+	default Disposable addListener(PoolMetrics.Listener listener) {
+		return Disposables.disposed(); //noop default
+	}
+
 	@Override
 	default void dispose() {
 		//noop default
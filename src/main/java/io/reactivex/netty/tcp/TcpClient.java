@@ -17,8 +17,9 @@
 
 package io.reactivex.netty.tcp;
 
-import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
@@ -26,8 +27,13 @@ import io.netty.channel.Channel;
 import io.netty.channel.pool.ChannelPool;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.logging.LoggingHandler;
+import io.netty.handler.proxy.ProxyHandler;
+import io.netty.handler.ssl.SslHandler;
 import io.netty.util.NetUtil;
+import io.netty.util.concurrent.Future;
+import io.reactivex.Completable;
 import io.reactivex.Flowable;
+import io.reactivex.Maybe;
 import io.reactivex.MaybeEmitter;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.BiFunction;
@@ -38,6 +44,7 @@ import io.reactivex.netty.NettyHandler;
 import io.reactivex.netty.NettyInbound;
 import io.reactivex.netty.channel.ChannelOperations;
 import io.reactivex.netty.channel.ContextHandler;
+import io.reactivex.netty.channel.HappyEyeballs;
 import io.reactivex.netty.options.ClientOptions;
 import io.reactivex.netty.resources.PoolResources;
 import org.reactivestreams.Publisher;
@@ -147,6 +154,23 @@ public class TcpClient extends NettyConnector<NettyInbound, NettyOutbound> {
 		return newHandler(handler, null, true, null);
 	}
 
+	/**
+	 * Eagerly open the given number of connections to the configured address into the
+	 * {@link PoolResources} used by this client, the same pool {@link #newHandler}
+	 * acquires from. The returned {@link Completable} completes once every connection
+	 * is connected, past its proxy and TLS handshake if any, and released idle in the
+	 * pool. The connections are acquired at once so they are opened concurrently, a
+	 * fixed pool still opening no more than its max connections. Completes immediately
+	 * if the client is not pooled.
+	 *
+	 * @param connections the number of connections to open
+	 *
+	 * @return a new {@link Completable} to open the connections on subscribe
+	 */
+	public final Completable warmup(int connections) {
+		return warmup(null, true, connections);
+	}
+
 	/**
 	 * Get a copy of the {@link ClientOptions} currently in effect.
 	 *
@@ -170,7 +194,7 @@ public class TcpClient extends NettyConnector<NettyInbound, NettyOutbound> {
 	 * @return a new Mono to connect on subscribe
 	 */
 	protected Flowable<NettyContext> newHandler(BiFunction<? super NettyInbound, ? super NettyOutbound, ? extends Publisher<Void>> handler,
-			InetSocketAddress address,
+			SocketAddress address,
 			boolean secure,
 			Consumer<? super Channel> onSetup) {
 
@@ -198,7 +222,7 @@ public class TcpClient extends NettyConnector<NettyInbound, NettyOutbound> {
 				Bootstrap b = options.call();
 				b.remoteAddress(remote);
 				b.handler(contextHandler);
-				contextHandler.setFuture(b.connect());
+				contextHandler.setFuture(HappyEyeballs.connect(b));
 			}
 			else {
 				contextHandler.setFuture(pool.acquire());
@@ -206,6 +230,97 @@ public class TcpClient extends NettyConnector<NettyInbound, NettyOutbound> {
 		});
 	}
 
+	/**
+	 * @param address
+	 * @param secure
+	 * @param connections
+	 *
+	 * @return a new Completable to open the connections on subscribe
+	 */
+	protected Completable warmup(SocketAddress address,
+			boolean secure,
+			int connections) {
+		if (connections <= 0) {
+			throw new IllegalArgumentException("Connections value must be strictly positive");
+		}
+		return Maybe.<NettyContext>create(sink -> {
+			PoolResources poolResources = options.getPoolResources();
+			if (poolResources == null) {
+				sink.onComplete();
+				return;
+			}
+			SocketAddress remote = address != null ? address : options.getAddress();
+
+			ChannelPool pool = poolResources.selectOrCreate(remote, options,
+					doHandler(null, sink, secure, remote, null, null),
+					options.getLoopResources().onClient(options.preferNative()));
+
+			warmup(pool, connections, sink);
+		})
+		            .ignoreElement();
+	}
+
+	/**
+	 * Acquire the given number of connections from the pool at once so they are
+	 * opened concurrently, and release each of them once past its proxy and TLS
+	 * handshake.
+	 *
+	 * @param pool the pool to fill
+	 * @param connections the number of connections to acquire
+	 * @param sink the sink to complete once all the connections are released
+	 */
+	protected static void warmup(ChannelPool pool,
+			int connections,
+			MaybeEmitter<?> sink) {
+		AtomicInteger remaining = new AtomicInteger(connections);
+		AtomicReference<Throwable> error = new AtomicReference<>();
+
+		Runnable onDone = () -> {
+			if (remaining.decrementAndGet() == 0) {
+				Throwable e = error.get();
+				if (e != null) {
+					sink.tryOnError(e);
+				}
+				else {
+					sink.onComplete();
+				}
+			}
+		};
+
+		for (int i = 0; i < connections; i++) {
+			pool.acquire()
+			    .addListener((Future<Channel> f) -> {
+				    if (!f.isSuccess()) {
+					    error.compareAndSet(null, f.cause());
+					    onDone.run();
+					    return;
+				    }
+				    Channel c = f.getNow();
+				    handshakeFuture(c).addListener(h -> {
+					    if (!h.isSuccess()) {
+						    error.compareAndSet(null, h.cause());
+					    }
+					    pool.release(c)
+					        .addListener(r -> onDone.run());
+				    });
+			    });
+		}
+	}
+
+	static Future<?> handshakeFuture(Channel c) {
+		SslHandler ssl = c.pipeline()
+		                  .get(SslHandler.class);
+		if (ssl != null) {
+			return ssl.handshakeFuture();
+		}
+		ProxyHandler proxy = c.pipeline()
+		                      .get(ProxyHandler.class);
+		if (proxy != null) {
+			return proxy.connectFuture();
+		}
+		return c.newSucceededFuture();
+	}
+
 	/**
 	 * Create a {@link ContextHandler} for {@link Bootstrap#handler()}
 	 *
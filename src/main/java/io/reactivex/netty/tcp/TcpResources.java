@@ -18,6 +18,7 @@
 package io.reactivex.netty.tcp;
 
 import java.net.SocketAddress;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -28,12 +29,14 @@ import io.netty.channel.ServerChannel;
 import io.netty.channel.pool.ChannelPool;
 import io.netty.channel.socket.DatagramChannel;
 import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.BiFunction;
 import io.reactivex.functions.Consumer;
 import io.reactivex.netty.resources.DefaultLoopResources;
 import io.reactivex.netty.resources.DefaultPoolResources;
 import io.reactivex.netty.resources.LoopResources;
+import io.reactivex.netty.resources.PoolMetrics;
 import io.reactivex.netty.resources.PoolResources;
 
 /**
@@ -160,6 +163,22 @@ public class TcpResources implements PoolResources, LoopResources {
 		return defaultPools.selectOrCreate(address, bootstrap, onChannelCreate, group);
 	}
 
+	@Override
+	public ChannelPool selectOrCreateMultiplexed(SocketAddress address,
+			Callable<? extends ChannelPool> poolFactory) {
+		return defaultPools.selectOrCreateMultiplexed(address, poolFactory);
+	}
+
+	@Override
+	public List<PoolMetrics> metrics() {
+		return defaultPools.metrics();
+	}
+
+	@Override
+	public Disposable addListener(PoolMetrics.Listener listener) {
+		return defaultPools.addListener(listener);
+	}
+
 	@Override
 	public Class<? extends Channel> onChannel(EventLoopGroup group) {
 		return defaultLoops.onChannel(group);
@@ -27,14 +27,24 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.EncoderException;
+import io.netty.util.ReferenceCountUtil;
 import io.reactivex.Flowable;
 import io.reactivex.netty.FutureFlowable;
 import io.reactivex.netty.SocketUtils;
 import io.reactivex.netty.http.client.HttpClient;
 import io.reactivex.netty.http.server.HttpServer;
 import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import io.reactivex.netty.NettyContext;
 import io.reactivex.netty.http.client.HttpClientResponse;
 
@@ -92,6 +102,244 @@ public class ChannelOperationsHandlerTest {
 		assertThat(handler.prefetch == (handler.inner.requested - handler.inner.produced)).isTrue();
 	}
 
+	@Test
+	public void flushOnThresholdFlushesOnPendingMessages() {
+		ChannelOperationsHandler handler = new ChannelOperationsHandler(null);
+		handler.flushOnThreshold(0L, 4, 0L, TimeUnit.MILLISECONDS);
+
+		EmbeddedChannel channel = new EmbeddedChannel(handler);
+		TestPublisher source = new TestPublisher();
+		channel.writeAndFlush(Flowable.fromPublisher(source));
+
+		for (int i = 0; i < 3; i++) {
+			source.next(i);
+		}
+		assertThat(channel.outboundMessages()).isEmpty();
+
+		source.next(3);
+		assertThat(channel.outboundMessages()).hasSize(4);
+
+		source.next(4);
+		assertThat(channel.outboundMessages()).hasSize(4);
+
+		source.complete();
+		assertThat(channel.outboundMessages()).hasSize(5);
+	}
+
+	@Test
+	public void flushOnThresholdFlushesOnPendingBytes() {
+		ChannelOperationsHandler handler = new ChannelOperationsHandler(null);
+		handler.flushOnThreshold(10L, 0, 0L, TimeUnit.MILLISECONDS);
+
+		EmbeddedChannel channel = new EmbeddedChannel(handler);
+		TestPublisher source = new TestPublisher();
+		channel.writeAndFlush(Flowable.fromPublisher(source));
+
+		source.next(Unpooled.wrappedBuffer(new byte[6]));
+		assertThat(channel.outboundMessages()).isEmpty();
+
+		source.next(Unpooled.wrappedBuffer(new byte[6]));
+		assertThat(channel.outboundMessages()).hasSize(2);
+
+		source.complete();
+		channel.finishAndReleaseAll();
+	}
+
+	@Test
+	public void flushOnThresholdFlushesAfterDelay() throws Exception {
+		ChannelOperationsHandler handler = new ChannelOperationsHandler(null);
+		handler.flushOnThreshold(0L, 100, 10L, TimeUnit.MILLISECONDS);
+
+		EmbeddedChannel channel = new EmbeddedChannel(handler);
+		TestPublisher source = new TestPublisher();
+		channel.writeAndFlush(Flowable.fromPublisher(source));
+
+		source.next(1);
+		source.next(2);
+		assertThat(channel.outboundMessages()).isEmpty();
+
+		Thread.sleep(50);
+		channel.runScheduledPendingTasks();
+		assertThat(channel.outboundMessages()).hasSize(2);
+
+		source.complete();
+	}
+
+	@Test
+	public void coalesceSmallBuffers() {
+		ChannelOperationsHandler handler = new ChannelOperationsHandler(null);
+		handler.coalesce(64, 8);
+
+		EmbeddedChannel channel = new EmbeddedChannel(handler);
+		TestPublisher source = new TestPublisher();
+		channel.writeAndFlush(Flowable.fromPublisher(source));
+
+		ByteBuf copied = Unpooled.wrappedBuffer(new byte[]{1, 2, 3, 4});
+		ByteBuf composed = Unpooled.wrappedBuffer(new byte[16]);
+		source.next(copied);
+		source.next(composed);
+		source.next(Unpooled.wrappedBuffer(new byte[]{5, 6}));
+		assertThat(copied.refCnt()).isEqualTo(0);
+		assertThat(composed.refCnt()).isEqualTo(1);
+
+		ByteBuf large = Unpooled.wrappedBuffer(new byte[64]);
+		source.next(large);
+		source.complete();
+
+		assertThat(channel.outboundMessages()).hasSize(2);
+		ByteBuf coalesced = channel.readOutbound();
+		assertThat(coalesced.readableBytes()).isEqualTo(22);
+		assertThat(coalesced.getByte(0)).isEqualTo((byte) 1);
+		assertThat(coalesced.getByte(21)).isEqualTo((byte) 6);
+		Object out = channel.readOutbound();
+		assertThat(out).isSameAs(large);
+
+		coalesced.release();
+		large.release();
+	}
+
+	@Test
+	public void coalescedWriteSplitsOnMaxBytes() {
+		ChannelOperationsHandler handler = new ChannelOperationsHandler(null);
+		handler.coalesce(16, 16);
+
+		EmbeddedChannel channel = new EmbeddedChannel(handler);
+		channel.writeAndFlush(Flowable.range(0, 10)
+		                              .map(i -> Unpooled.wrappedBuffer(new byte[4])));
+
+		assertThat(channel.outboundMessages()).hasSize(3);
+		assertThat(((ByteBuf) channel.readOutbound()).readableBytes()).isEqualTo(16);
+		channel.finishAndReleaseAll();
+	}
+
+	@Test
+	public void demandFollowsWriteCapacity() {
+		ChannelOperationsHandler handler = new ChannelOperationsHandler(null);
+
+		EmbeddedChannel channel = new EmbeddedChannel(handler);
+		TestPublisher source = new TestPublisher();
+		channel.writeAndFlush(Flowable.fromPublisher(source));
+		assertThat(source.requested).isEqualTo(handler.prefetch);
+
+		source.next(Unpooled.wrappedBuffer(new byte[16]));
+		assertThat(source.requested).isEqualTo(handler.prefetch + 1);
+		source.complete();
+		channel.finishAndReleaseAll();
+
+		handler = new ChannelOperationsHandler(null);
+		channel = new EmbeddedChannel(handler);
+		channel.config()
+		       .setWriteBufferLowWaterMark(1024)
+		       .setWriteBufferHighWaterMark(2500);
+		source = new TestPublisher();
+		channel.writeAndFlush(Flowable.fromPublisher(source));
+
+		// room for 1 or 2 more messages, not enough for the outstanding demand
+		source.next(Unpooled.wrappedBuffer(new byte[1000]));
+		source.next(Unpooled.wrappedBuffer(new byte[1000]));
+		assertThat(source.requested).isEqualTo(handler.prefetch);
+		assertThat(channel.outboundMessages()).isEmpty();
+
+		// going over the high water mark flushes and completed writes replenish demand
+		source.next(Unpooled.wrappedBuffer(new byte[1000]));
+		assertThat(channel.outboundMessages()).hasSize(3);
+		assertThat(source.requested).isEqualTo(handler.prefetch + 3);
+
+		source.complete();
+		channel.finishAndReleaseAll();
+	}
+
+	@Test
+	public void failedWriteFailsSend() {
+		ChannelOperationsHandler handler = new ChannelOperationsHandler(null);
+
+		EmbeddedChannel channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+			int writes;
+
+			@Override
+			public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+				if (++writes == 2) {
+					ReferenceCountUtil.release(msg);
+					promise.setFailure(new IOException("write failed"));
+					return;
+				}
+				ctx.write(msg, promise);
+			}
+		}, handler);
+		TestPublisher source = new TestPublisher();
+		ChannelFuture f = channel.writeAndFlush(Flowable.fromPublisher(source));
+
+		source.next(Unpooled.wrappedBuffer(new byte[16]));
+		assertThat(f.isDone()).isFalse();
+
+		source.next(Unpooled.wrappedBuffer(new byte[16]));
+		assertThat(f.isDone()).isTrue();
+		assertThat(f.cause()).isInstanceOf(IOException.class)
+		                     .hasMessage("write failed");
+		assertThat(source.cancelled).isTrue();
+
+		// late signals of the cancelled source are dropped
+		ByteBuf late = Unpooled.wrappedBuffer(new byte[16]);
+		source.next(late);
+		source.complete();
+		assertThat(late.refCnt()).isZero();
+		assertThat(channel.outboundMessages()).hasSize(1);
+
+		channel.finishAndReleaseAll();
+	}
+
+	@Test
+	public void inboundErrorDoesNotFailSend() {
+		ChannelOperationsHandler handler = new ChannelOperationsHandler(null);
+		EmbeddedChannel channel = new EmbeddedChannel(handler);
+		TestPublisher source = new TestPublisher();
+		ChannelFuture f = channel.writeAndFlush(Flowable.fromPublisher(source));
+
+		source.next(Unpooled.wrappedBuffer(new byte[16]));
+		channel.pipeline()
+		       .fireExceptionCaught(new IOException("read failed"));
+		assertThat(f.isDone()).isFalse();
+		assertThat(source.cancelled).isFalse();
+
+		source.next(Unpooled.wrappedBuffer(new byte[16]));
+		source.complete();
+		assertThat(f.isSuccess()).isTrue();
+		assertThat(channel.outboundMessages()).hasSize(2);
+
+		channel.finishAndReleaseAll();
+	}
+
+	static final class TestPublisher implements Publisher<Object> {
+
+		Subscriber<? super Object> actual;
+		long                       requested;
+		boolean                    cancelled;
+
+		@Override
+		public void subscribe(Subscriber<? super Object> s) {
+			actual = s;
+			s.onSubscribe(new Subscription() {
+				@Override
+				public void request(long n) {
+					requested += n;
+				}
+
+				@Override
+				public void cancel() {
+					cancelled = true;
+				}
+			});
+		}
+
+		void next(Object o) {
+			actual.onNext(o);
+		}
+
+		void complete() {
+			actual.onComplete();
+		}
+	}
+
 	@Test
 	public void testChannelInactiveThrowsIOException() throws Exception {
 		ExecutorService threadPool = Executors.newCachedThreadPool();
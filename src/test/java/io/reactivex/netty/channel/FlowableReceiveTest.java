@@ -16,10 +16,23 @@
  */
 package io.reactivex.netty.channel;
 
+import java.util.List;
+import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.handler.codec.string.StringDecoder;
 import io.reactivex.Flowable;
+import io.reactivex.netty.NettyPipeline;
+import io.reactivex.subscribers.TestSubscriber;
+import io.reactivex.netty.tcp.TcpClient;
+import io.reactivex.netty.tcp.TcpServer;
 import org.junit.Test;
 
 import io.netty.util.ResourceLeakDetector;
@@ -28,6 +41,8 @@ import io.reactivex.netty.NettyContext;
 import io.reactivex.netty.http.client.HttpClient;
 import io.reactivex.netty.http.server.HttpServer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 public class FlowableReceiveTest {
 
 	@Test
@@ -69,4 +84,132 @@ public class FlowableReceiveTest {
 
 		ResourceLeakDetector.setLevel(Level.SIMPLE);
 	}
+
+	@Test
+	public void receiveBatchesOfByteBuf() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1000);
+		Queue<Integer> batches = new ConcurrentLinkedQueue<>();
+
+		NettyContext server =
+				TcpServer.create(0)
+				         .newHandler((in, out) -> {
+					         in.receiveBatches()
+					           .subscribe(b -> {
+						           int n = ((ByteBuf) b).readableBytes();
+						           batches.add(n);
+						           for (int i = 0; i < n; i++) {
+							           latch.countDown();
+						           }
+					           });
+					         return Flowable.never();
+				         })
+				         .blockingSingle();
+
+		NettyContext client =
+				TcpClient.create(server.address().getPort())
+				         .newHandler((in, out) -> out.sendByteArray(Flowable.range(0, 100)
+				                                                            .map(i -> new byte[10]))
+				                                     .then(Flowable.never()))
+				         .blockingSingle();
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(batches.size()).isLessThan(100);
+
+		client.dispose();
+		server.dispose();
+	}
+
+	@Test
+	public void receiveBatchesOfObjects() throws Exception {
+		CountDownLatch latch = new CountDownLatch(100);
+		Queue<Integer> batches = new ConcurrentLinkedQueue<>();
+
+		NettyContext server =
+				TcpServer.create(opts -> opts.port(0)
+				                             .afterChannelInit(c -> c.pipeline()
+				                                                     .addBefore(NettyPipeline.ReactiveBridge,
+						                                                     "line",
+						                                                     new LineBasedFrameDecoder(1024))
+				                                                     .addBefore(NettyPipeline.ReactiveBridge,
+						                                                     "string",
+						                                                     new StringDecoder())))
+				         .newHandler((in, out) -> {
+					         in.receiveBatches()
+					           .subscribe(b -> {
+						           List<?> list = (List<?>) b;
+						           batches.add(list.size());
+						           for (Object line : list) {
+							           assertThat(line).isEqualTo("test");
+							           latch.countDown();
+						           }
+					           });
+					         return Flowable.never();
+				         })
+				         .blockingSingle();
+
+		NettyContext client =
+				TcpClient.create(server.address().getPort())
+				         .newHandler((in, out) -> out.sendString(Flowable.range(0, 100)
+				                                                         .map(i -> "test\n"))
+				                                     .then(Flowable.never()))
+				         .blockingSingle();
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(batches.size()).isLessThan(100);
+
+		client.dispose();
+		server.dispose();
+	}
+
+	@Test
+	public void readSuspendedAboveReceiveWaterMark() throws Exception {
+		AtomicReference<FlowableReceive> inbound = new AtomicReference<>();
+		AtomicLong received = new AtomicLong();
+		TestSubscriber<ByteBuf> ts = new TestSubscriber<ByteBuf>(0L) {
+			@Override
+			public void onNext(ByteBuf b) {
+				received.addAndGet(b.readableBytes());
+			}
+		};
+
+		NettyContext server =
+				TcpServer.create(opts -> opts.port(0)
+				                             .receiveWaterMark(0, 16, 0L, 16 * 1024))
+				         .newHandler((in, out) -> {
+					         inbound.set(((ChannelOperations<?, ?>) in).inbound);
+					         in.receive()
+					           .subscribe(ts);
+					         return Flowable.never();
+				         })
+				         .blockingSingle();
+
+		int total = 4 * 1024 * 1024;
+		NettyContext client =
+				TcpClient.create(server.address().getPort())
+				         .newHandler((in, out) -> out.sendByteArray(Flowable.range(0, total / 1024)
+				                                                            .map(i -> new byte[1024]))
+				                                     .then(Flowable.never()))
+				         .blockingSingle();
+
+		for (int i = 0; i < 20; i++) {
+			ts.request(1);
+			Thread.sleep(10);
+		}
+
+		FlowableReceive receive = inbound.get();
+		receive.eventLoop.submit(() -> {
+			assertThat(receive.readSuspended).isTrue();
+			assertThat(receive.channel.config().isAutoRead()).isFalse();
+		}).get(5, TimeUnit.SECONDS);
+
+		ts.request(Long.MAX_VALUE);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (received.get() < total && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(received.get()).isEqualTo(total);
+
+		client.dispose();
+		server.dispose();
+	}
 }
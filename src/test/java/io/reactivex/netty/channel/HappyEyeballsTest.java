@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.channel;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.netty.channel.ChannelOption;
+import io.reactivex.Flowable;
+import io.reactivex.netty.NettyContext;
+import io.reactivex.netty.http.client.HttpClient;
+import io.reactivex.netty.http.server.HttpServer;
+import io.reactivex.netty.resources.CachingAddressResolverGroup;
+import io.reactivex.netty.resources.DefaultPoolResources;
+import io.reactivex.netty.resources.PoolMetrics;
+import io.reactivex.netty.resources.PoolResources;
+import io.reactivex.netty.tcp.TcpClient;
+import io.reactivex.netty.tcp.TcpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HappyEyeballsTest {
+
+	NettyContext        server;
+	ServerSocket        blackHole;
+	List<SocketChannel> backlog;
+
+	CachingAddressResolverGroup.InMemoryBackend backend;
+
+	@Before
+	public void setUp() throws Exception {
+		server = TcpServer.create("127.0.0.1", 0)
+		                  .newHandler((in, out) -> out.sendString(Flowable.just("ok")))
+		                  .blockingSingle();
+		int port = server.address()
+		                 .getPort();
+
+		backlog = new ArrayList<>();
+		blackHole = blackHole(port);
+
+		backend = new CachingAddressResolverGroup.InMemoryBackend().put("backend",
+				60000,
+				InetAddress.getByName("127.0.0.2"),
+				InetAddress.getByName("127.0.0.1"));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		for (SocketChannel c : backlog) {
+			c.close();
+		}
+		blackHole.close();
+		server.dispose();
+	}
+
+	@Test
+	public void unpooledConnectFallsBackToNextAddress() throws Exception {
+		TcpClient client = TcpClient.create(o -> o.host("backend")
+		                                          .port(server.address()
+		                                                      .getPort())
+		                                          .disablePool()
+		                                          .resolver(CachingAddressResolverGroup.create(
+				                                          backend))
+		                                          .connectAttemptDelay(100)
+		                                          .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+				                                          30000));
+
+		long start = System.nanoTime();
+		assertThat(receive(client)).isEqualTo("ok");
+		assertThat(System.nanoTime() - start).as("not waiting for the connect timeout")
+		                                     .isLessThan(10_000_000_000L);
+	}
+
+	@Test
+	public void pooledConnectOnlyCreatesWinner() throws Exception {
+		PoolResources pools = DefaultPoolResources.fixed("eyeballs", 4);
+		TcpClient client = TcpClient.create(o -> o.host("backend")
+		                                          .port(server.address()
+		                                                      .getPort())
+		                                          .poolResources(pools)
+		                                          .resolver(CachingAddressResolverGroup.create(
+				                                          backend))
+		                                          .connectAttemptDelay(100)
+		                                          .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+				                                          30000));
+
+		assertThat(receive(client)).isEqualTo("ok");
+
+		List<PoolMetrics> metrics = pools.metrics();
+		assertThat(metrics).hasSize(1);
+		assertThat(metrics.get(0)
+		                  .createdConnections()).isEqualTo(1);
+		assertThat(metrics.get(0)
+		                  .acquireFailures()).isEqualTo(0);
+		pools.dispose();
+	}
+
+	@Test
+	public void interleavesAddressFamilies() throws Exception {
+		SocketAddress a1 = new InetSocketAddress(InetAddress.getByName("::1"), 80);
+		SocketAddress a2 = new InetSocketAddress(InetAddress.getByName("::2"), 80);
+		SocketAddress b1 = new InetSocketAddress(InetAddress.getByName("10.0.0.1"), 80);
+		SocketAddress b2 = new InetSocketAddress(InetAddress.getByName("10.0.0.2"), 80);
+
+		assertThat(HappyEyeballs.interleave(Arrays.asList(a1, a2, b1, b2))).containsExactly(a1,
+				b1,
+				a2,
+				b2);
+		assertThat(HappyEyeballs.interleave(Arrays.asList(b1, b2, a1))).containsExactly(b1,
+				a1,
+				b2);
+	}
+
+	@Test
+	public void httpClientAbsoluteUrlFallsBackToNextAddress() throws Exception {
+		NettyContext httpServer = HttpServer.create("127.0.0.1", 0)
+		                                    .newHandler((req, res) -> res.sendString(
+				                                    Flowable.just("ok")))
+		                                    .blockingSingle();
+		int port = httpServer.address()
+		                     .getPort();
+		ServerSocket httpBlackHole = blackHole(port);
+		try {
+			HttpClient client = HttpClient.create(o -> o.resolver(CachingAddressResolverGroup.create(
+					backend))
+			                                            .connectAttemptDelay(100)
+			                                            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+					                                            30000));
+
+			long start = System.nanoTime();
+			String body = client.get("http://backend:" + port + "/")
+			                    .flatMap(r -> r.receive()
+			                                   .aggregate()
+			                                   .asString(StandardCharsets.UTF_8)
+			                                   .toFlowable())
+			                    .blockingSingle();
+			assertThat(body).isEqualTo("ok");
+			assertThat(System.nanoTime() - start).as("not waiting for the connect timeout")
+			                                     .isLessThan(10_000_000_000L);
+		}
+		finally {
+			httpBlackHole.close();
+			httpServer.dispose();
+		}
+	}
+
+	/**
+	 * A listener never accepting with a full backlog drops the SYN of new connects
+	 */
+	ServerSocket blackHole(int port) throws Exception {
+		ServerSocket socket = new ServerSocket();
+		socket.bind(new InetSocketAddress("127.0.0.2", port), 1);
+		for (int i = 0; i < 4; i++) {
+			SocketChannel c = SocketChannel.open();
+			c.configureBlocking(false);
+			c.connect(socket.getLocalSocketAddress());
+			backlog.add(c);
+		}
+		return socket;
+	}
+
+	static String receive(TcpClient client) throws InterruptedException {
+		AtomicReference<String> received = new AtomicReference<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		NettyContext c = client.newHandler((in, out) -> {
+			in.receive()
+			  .asString(StandardCharsets.UTF_8)
+			  .subscribe(s -> {
+				  received.set(s);
+				  latch.countDown();
+			  });
+			return out.neverComplete();
+		})
+		                       .blockingSingle();
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		c.dispose();
+		return received.get();
+	}
+}
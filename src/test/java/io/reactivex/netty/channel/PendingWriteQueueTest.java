@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.channel;
+
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PendingWriteQueueTest {
+
+	@Test
+	public void pairsArePolledInOrderAcrossChunks() {
+		EmbeddedChannel channel = new EmbeddedChannel();
+		PendingWriteQueue queue = new PendingWriteQueue(4);
+		ChannelFuture[] futures = new ChannelFuture[10];
+
+		assertThat(queue.isEmpty()).isTrue();
+		assertThat(queue.peekFuture()).isNull();
+
+		for (int i = 0; i < futures.length; i++) {
+			futures[i] = channel.newPromise();
+			queue.offer(futures[i], i);
+		}
+
+		for (int i = 0; i < futures.length; i++) {
+			assertThat(queue.peekFuture()).isSameAs(futures[i]);
+			assertThat(queue.peekMessage()).isEqualTo(i);
+			queue.remove();
+		}
+		assertThat(queue.isEmpty()).isTrue();
+		assertThat(queue.peekFuture()).isNull();
+	}
+
+	@Test
+	public void consumedChunksAreReused() {
+		EmbeddedChannel channel = new EmbeddedChannel();
+		PendingWriteQueue queue = new PendingWriteQueue(2);
+		ChannelFuture f = channel.newPromise();
+
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < 6; i++) {
+				queue.offer(f, i);
+			}
+			for (int i = 0; i < 6; i++) {
+				assertThat(queue.peekFuture()).isSameAs(f);
+				assertThat(queue.peekMessage()).isEqualTo(i);
+				queue.remove();
+			}
+		}
+
+		int chunks = 1;
+		for (PendingWriteQueue.Chunk c = queue.consumerChunk.next; c != queue.consumerChunk; c = c.next) {
+			assertThat(c.messages).containsOnly((Object) null);
+			chunks++;
+		}
+		assertThat(chunks).isEqualTo(4);
+	}
+}
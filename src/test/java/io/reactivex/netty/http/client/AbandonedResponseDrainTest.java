@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.http.client;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.reactivex.Flowable;
+import io.reactivex.netty.NettyContext;
+import io.reactivex.netty.http.server.HttpServer;
+import io.reactivex.netty.resources.DefaultPoolResources;
+import io.reactivex.netty.resources.PoolResources;
+import io.reactivex.schedulers.Schedulers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AbandonedResponseDrainTest {
+
+	NettyContext  server;
+	PoolResources pools;
+	HttpClient    client;
+
+	@Before
+	public void setUp() {
+		char[] chars = new char[16 * 1024];
+		Arrays.fill(chars, 'x');
+		String part = new String(chars);
+
+		// the rest of every body is sent after the client abandoned the response
+		server = HttpServer.create(0)
+		                   .newRouter(r -> r.get("/chunked",
+				                   (req, res) -> res.sendString(body(part, 1)))
+		                                    .get("/length",
+				                                    (req, res) -> res.header(HttpHeaderNames.CONTENT_LENGTH,
+						                                    String.valueOf(2 * part.length()))
+				                                                     .sendString(body(part, 1)))
+		                                    .get("/large",
+				                                    (req, res) -> res.sendString(body(part, 16))))
+		                   .blockingSingle();
+
+		pools = DefaultPoolResources.fixed("drain", 1);
+		client = HttpClient.create(o -> o.port(server.address()
+		                                             .getPort())
+		                                 .poolResources(pools));
+	}
+
+	@After
+	public void tearDown() {
+		pools.dispose();
+		server.dispose();
+	}
+
+	@Test
+	public void abandonedChunkedBodyIsDrained() {
+		abandon("/chunked");
+		abandon("/chunked");
+		assertThat(createdConnections()).isEqualTo(1L);
+	}
+
+	@Test
+	public void abandonedContentLengthBodyIsDrained() {
+		abandon("/length");
+		abandon("/length");
+		assertThat(createdConnections()).isEqualTo(1L);
+	}
+
+	@Test
+	public void bodyAbandonedOffTheEventLoopIsDrained() {
+		for (int i = 0; i < 2; i++) {
+			int status = client.get("/chunked")
+			                   .flatMap(r -> r.receive()
+			                                  .observeOn(Schedulers.single())
+			                                  .take(1)
+			                                  .map(b -> r.status()
+			                                             .code()))
+			                   .blockingFirst();
+			assertThat(status).isEqualTo(200);
+		}
+		assertThat(createdConnections()).isEqualTo(1L);
+	}
+
+	@Test
+	public void abandonedLargeBodyClosesConnection() {
+		abandon("/large");
+		abandon("/large");
+		assertThat(createdConnections()).isEqualTo(2L);
+	}
+
+	void abandon(String uri) {
+		int status = client.get(uri)
+		                   .flatMap(r -> r.receive()
+		                                  .take(1)
+		                                  .map(b -> r.status()
+		                                             .code()))
+		                   .blockingFirst();
+		assertThat(status).isEqualTo(200);
+	}
+
+	static Flowable<String> body(String part, int delayedParts) {
+		return Flowable.just(part)
+		               .concatWith(Flowable.range(0, delayedParts)
+		                                   .map(i -> part)
+		                                   .delay(100, TimeUnit.MILLISECONDS));
+	}
+
+	long createdConnections() {
+		return pools.metrics()
+		            .get(0)
+		            .createdConnections();
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.http.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.reactivex.Flowable;
+import io.reactivex.netty.NettyContext;
+import io.reactivex.netty.http.server.HttpServer;
+import io.reactivex.netty.resources.DefaultPoolResources;
+import io.reactivex.netty.resources.PoolMetrics;
+import io.reactivex.netty.resources.PoolResources;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HedgePolicyTest {
+
+	NettyContext  server;
+	AtomicInteger requests;
+
+	@Before
+	public void setUp() {
+		requests = new AtomicInteger();
+		// the first request is slow, the following ones answer right away
+		server = HttpServer.create(0)
+		                   .newHandler((req, res) -> {
+			                   if (requests.getAndIncrement() == 0) {
+				                   return Flowable.timer(1, TimeUnit.SECONDS)
+				                                  .flatMap(t -> res.sendString(Flowable.just("slow")));
+			                   }
+			                   return res.sendString(Flowable.just("fast"));
+		                   })
+		                   .blockingSingle();
+	}
+
+	@After
+	public void tearDown() {
+		server.dispose();
+	}
+
+	@Test
+	public void slowRequestIsHedged() throws Exception {
+		HedgePolicy policy = HedgePolicy.delay(100, 1d);
+		PoolResources pools = DefaultPoolResources.fixed("hedge", 4);
+		HttpClient client = HttpClient.create(o -> o.port(server.address()
+		                                                        .getPort())
+		                                            .poolResources(pools)
+		                                            .hedge(policy));
+
+		long start = System.nanoTime();
+		assertThat(get(client, HttpMethod.GET)).isEqualTo("fast");
+		assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(900));
+		assertThat(policy.hedges()).isEqualTo(1);
+		assertThat(requests.get()).isEqualTo(2);
+
+		// the losing request connection is released or closed
+		for (int i = 0; i < 50 && active(pools) != 0; i++) {
+			Thread.sleep(20);
+		}
+		assertThat(active(pools)).isEqualTo(0);
+		pools.dispose();
+	}
+
+	@Test
+	public void failedRequestLeavesHedgeToAnswer() {
+		AtomicInteger attempts = new AtomicInteger();
+		// the original request fails once the hedge has been sent, the hedge answers later
+		NettyContext failing =
+				HttpServer.create(0)
+				          .newHandler((req, res) -> {
+					          if (attempts.getAndIncrement() == 0) {
+						          return Flowable.timer(300, TimeUnit.MILLISECONDS)
+						                         .flatMap(t -> res.status(HttpResponseStatus.INTERNAL_SERVER_ERROR)
+						                                          .sendString(Flowable.just("failed")));
+					          }
+					          return Flowable.timer(300, TimeUnit.MILLISECONDS)
+					                         .flatMap(t -> res.sendString(Flowable.just("hedged")));
+				          })
+				          .blockingSingle();
+
+		HedgePolicy policy = HedgePolicy.delay(100, 1d);
+		HttpClient client = HttpClient.create(o -> o.port(failing.address()
+		                                                         .getPort())
+		                                            .hedge(policy));
+
+		try {
+			assertThat(get(client, HttpMethod.GET)).isEqualTo("hedged");
+			assertThat(policy.hedges()).isEqualTo(1);
+		}
+		finally {
+			failing.dispose();
+		}
+	}
+
+	@Test
+	public void hedgesAreCappedByBudget() {
+		HedgePolicy policy = HedgePolicy.delay(100, 0.5d);
+		HttpClient client = HttpClient.create(o -> o.port(server.address()
+		                                                        .getPort())
+		                                            .hedge(policy));
+
+		assertThat(get(client, HttpMethod.GET)).isEqualTo("slow");
+		assertThat(policy.hedges()).isEqualTo(0);
+		assertThat(requests.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void nonIdempotentRequestIsNotHedged() {
+		HedgePolicy policy = HedgePolicy.delay(100, 1d);
+		HttpClient client = HttpClient.create(o -> o.port(server.address()
+		                                                        .getPort())
+		                                            .hedge(policy));
+
+		assertThat(get(client, HttpMethod.POST)).isEqualTo("slow");
+		assertThat(policy.hedges()).isEqualTo(0);
+	}
+
+	@Test
+	public void percentileDelayFollowsLatencies() {
+		HedgePolicy policy = HedgePolicy.percentile(0.9d, 10000, 1d);
+		for (int i = 0; i < 65; i++) {
+			policy.record(TimeUnit.MILLISECONDS.toNanos(i < 58 ? 10 : 200));
+		}
+		assertThat(policy.delay()).isEqualTo(200);
+
+		for (int i = 0; i < 256; i++) {
+			policy.record(TimeUnit.MILLISECONDS.toNanos(20));
+		}
+		assertThat(policy.delay()).isEqualTo(20);
+	}
+
+	static String get(HttpClient client, HttpMethod method) {
+		return client.request(method, "/", HttpClientRequest::send)
+		             .flatMap(r -> r.receive()
+		                            .aggregate()
+		                            .asString(StandardCharsets.UTF_8)
+		                            .toFlowable())
+		             .blockingFirst();
+	}
+
+	static int active(PoolResources pools) {
+		int active = 0;
+		for (PoolMetrics m : pools.metrics()) {
+			active += m.activeConnections();
+		}
+		return active;
+	}
+}
@@ -17,6 +17,8 @@
 
 package io.reactivex.netty.http.client;
 
+import java.net.URI;
+
 import io.reactivex.functions.Function;
 import org.junit.Before;
 import org.junit.Test;
@@ -207,4 +209,17 @@ public class HttpClientOptionsTest {
 		assertThat(test4).isEqualTo("wss://localhost/foo");
 	}
 
+	@Test
+	public void remoteAddressIsUnresolvedWhenConnectsAreRaced() throws Exception {
+		URI uri = new URI("http://localhost:8080/foo");
+
+		assertThat(this.builder.connectAttemptDelay(100)
+		                       .build()
+		                       .getRemoteAddress(uri)
+		                       .isUnresolved()).isTrue();
+		assertThat(this.builder.connectAttemptDelay(-1)
+		                       .build()
+		                       .getRemoteAddress(uri)
+		                       .isUnresolved()).isFalse();
+	}
 }
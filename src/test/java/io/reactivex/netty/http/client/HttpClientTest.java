@@ -17,19 +17,25 @@
 
 package io.reactivex.netty.http.client;
 
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.security.cert.CertificateException;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.net.ssl.SSLException;
 
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpHeaderNames;
@@ -43,6 +49,7 @@ import io.netty.util.CharsetUtil;
 import io.reactivex.Completable;
 import io.reactivex.Flowable;
 import io.reactivex.Maybe;
+import io.reactivex.disposables.Disposable;
 import io.reactivex.netty.resources.DefaultPoolResources;
 import io.reactivex.processors.PublishProcessor;
 import org.junit.Assert;
@@ -53,6 +60,7 @@ import io.reactivex.netty.NettyContext;
 import io.reactivex.netty.channel.AbortedException;
 import io.reactivex.netty.http.server.HttpServer;
 import io.reactivex.netty.options.ClientProxyOptions.Proxy;
+import io.reactivex.netty.resources.PoolMetrics;
 import io.reactivex.netty.resources.PoolResources;
 import io.reactivex.netty.tcp.TcpServer;
 
@@ -719,4 +727,204 @@ public class HttpClientTest {
 				          .blockingSingle();
 		//response3.dispose();
 	}
+
+	@Test
+	public void smallRequestBodyIsSentWithContentLength() throws Exception {
+		NettyContext server =
+				HttpServer.create(0)
+				          .newRouter(r -> r.route(req -> "/echo".equals(req.uri()),
+						          (req, res) -> res.sendString(req.receive()
+						                                          .aggregate()
+						                                          .asString(StandardCharsets.UTF_8)
+						                                          .map(s -> req.requestHeaders()
+						                                                       .get(HttpHeaderNames.CONTENT_LENGTH) + ":" +
+								                                          req.requestHeaders()
+								                                             .contains(HttpHeaderNames.TRANSFER_ENCODING) + ":" + s)
+						                                          .toFlowable())))
+				          .blockingSingle();
+
+		HttpClient client = HttpClient.create(server.address()
+		                                            .getPort());
+
+		String scalar = client.post("/echo",
+				req -> req.send(Flowable.just(Unpooled.copiedBuffer("hello", StandardCharsets.UTF_8))))
+		                      .flatMap(r -> r.receive()
+		                                     .aggregate()
+		                                     .asString(StandardCharsets.UTF_8)
+		                                     .toFlowable())
+		                      .blockingFirst();
+		assertThat(scalar).isEqualTo("5:false:hello");
+
+		// only a body that is already complete is aggregated
+		String streamed = client.post("/echo", req -> req.sendString(Flowable.just("hello", " world")))
+		                        .flatMap(r -> r.receive()
+		                                       .aggregate()
+		                                       .asString(StandardCharsets.UTF_8)
+		                                       .toFlowable())
+		                        .blockingFirst();
+		assertThat(streamed).isEqualTo("null:true:hello world");
+
+		String aggregated = client.get("/echo",
+				req -> req.send(Flowable.just("hello", " world")
+				                        .map(s -> Unpooled.copiedBuffer(s, StandardCharsets.UTF_8))))
+		                          .flatMap(r -> r.receive()
+		                                         .aggregate()
+		                                         .asString(StandardCharsets.UTF_8)
+		                                         .toFlowable())
+		                          .blockingFirst();
+		assertThat(aggregated).isEqualTo("11:false:hello world");
+
+		server.dispose();
+	}
+
+	@Test
+	public void warmupOpensPooledConnections() throws Exception {
+		SelfSignedCertificate ssc = new SelfSignedCertificate();
+		SslContext sslServer = SslContextBuilder.forServer(ssc.certificate(), ssc.privateKey())
+		                                        .build();
+		SslContext sslClient = SslContextBuilder.forClient()
+		                                        .trustManager(ssc.cert())
+		                                        .build();
+
+		NettyContext server =
+				HttpServer.create(opt -> opt.port(0)
+				                            .sslContext(sslServer))
+				          .newHandler((req, res) -> res.sendString(Flowable.just("ok")))
+				          .blockingSingle();
+
+		PoolResources pools = DefaultPoolResources.fixed("warmup", 3);
+		HttpClient client = HttpClient.create(opt -> opt.port(server.address()
+		                                                            .getPort())
+		                                                .sslContext(sslClient)
+		                                                .poolResources(pools));
+
+		assertThat(client.warmup(3)
+		                 .blockingAwait(30, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(pools.metrics()).hasSize(1);
+		assertThat(pools.metrics()
+		                .get(0)
+		                .createdConnections()).isEqualTo(3);
+		assertThat(pools.metrics()
+		                .get(0)
+		                .idleConnections()).isEqualTo(3);
+
+		String body = client.get("/")
+		                    .flatMap(r -> r.receive()
+		                                   .aggregate()
+		                                   .asString(StandardCharsets.UTF_8)
+		                                   .toFlowable())
+		                    .blockingFirst();
+		assertThat(body).isEqualTo("ok");
+		assertThat(pools.metrics()
+		                .get(0)
+		                .createdConnections()).as("request served by a warm connection")
+		                                      .isEqualTo(3);
+
+		pools.dispose();
+		server.dispose();
+	}
+
+	@Test
+	public void pendingRequestBodyDoesNotHoldHeaders() throws Exception {
+		try (ServerSocket server = new ServerSocket(0)) {
+			server.setSoTimeout(5000);
+			Disposable request =
+					HttpClient.create(server.getLocalPort())
+					          .post("/", req -> req.sendString(Flowable.just("hello")
+					                                                   .concatWith(Flowable.never())))
+					          .subscribe(r -> {}, e -> {});
+
+			// the headers do not wait for the body to complete
+			try (Socket socket = server.accept()) {
+				socket.setSoTimeout(2000);
+				DataInputStream in = new DataInputStream(socket.getInputStream());
+				StringBuilder head = new StringBuilder();
+				while (head.indexOf("\r\n\r\n") < 0) {
+					head.append((char) in.readByte());
+				}
+				assertThat(head.toString()).startsWith("POST /")
+				                           .containsIgnoringCase("transfer-encoding: chunked");
+			}
+			finally {
+				request.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void http2Multiplexed() throws Exception {
+		AtomicInteger connections = new AtomicInteger();
+		NettyContext server =
+				HttpServer.create(ops -> ops.port(0)
+				                            .http2(true)
+				                            .afterChannelInit(c -> connections.incrementAndGet()))
+				          .newRouter(r -> r.post("/echo/{name}",
+						          (req, res) -> res.sendString(req.receive()
+						                                          .aggregate()
+						                                          .asString(StandardCharsets.UTF_8)
+						                                          .map(s -> req.param("name") + ":" + s)
+						                                          .toFlowable())))
+				          .blockingSingle();
+
+		HttpClient client = HttpClient.create(ops -> ops.port(server.address().getPort())
+		                                                .http2(true));
+
+		List<String> responses =
+				Flowable.range(0, 20)
+				        .flatMap(i -> client.post("/echo/" + i,
+						        req -> req.sendString(Flowable.just("hello")))
+				                            .flatMap(r -> r.receive()
+				                                           .aggregate()
+				                                           .asString(StandardCharsets.UTF_8)
+				                                           .toFlowable()))
+				        .toList()
+				        .blockingGet();
+
+		assertThat(responses).hasSize(20)
+		                     .contains("0:hello", "19:hello");
+		assertThat(connections.get()).isEqualTo(1);
+
+		server.dispose();
+	}
+
+	@Test
+	public void http2ConnectionsAreClosedWithPoolResources() throws Exception {
+		AtomicReference<Channel> connection = new AtomicReference<>();
+		NettyContext server =
+				HttpServer.create(ops -> ops.port(0)
+				                            .http2(true)
+				                            .afterChannelInit(connection::set))
+				          .newRouter(r -> r.get("/hello",
+						          (req, res) -> res.sendString(Flowable.just("hello"))))
+				          .blockingSingle();
+
+		PoolResources pools = DefaultPoolResources.fixed("h2", 1);
+		HttpClient client = HttpClient.create(ops -> ops.port(server.address().getPort())
+		                                                .poolResources(pools)
+		                                                .http2(true));
+
+		String body = client.get("/hello")
+		                    .flatMap(r -> r.receive()
+		                                   .aggregate()
+		                                   .asString(StandardCharsets.UTF_8)
+		                                   .toFlowable())
+		                    .blockingFirst();
+		assertThat(body).isEqualTo("hello");
+
+		assertThat(pools.metrics()).hasSize(1);
+		PoolMetrics metrics = pools.metrics()
+		                           .get(0);
+		assertThat(metrics.connections()).isEqualTo(1);
+		assertThat(metrics.createdConnections()).isEqualTo(1L);
+		assertThat(metrics.acquires()).isEqualTo(1L);
+
+		pools.dispose();
+		assertThat(pools.isDisposed()).isTrue();
+		assertThat(connection.get()
+		                     .closeFuture()
+		                     .await(5, TimeUnit.SECONDS)).isTrue();
+
+		server.dispose();
+	}
 }
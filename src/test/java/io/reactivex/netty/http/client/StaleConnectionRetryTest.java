@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.http.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.HttpMethod;
+import io.reactivex.Flowable;
+import io.reactivex.netty.NettyContext;
+import io.reactivex.netty.http.server.HttpServer;
+import io.reactivex.netty.resources.DefaultPoolResources;
+import io.reactivex.netty.resources.PoolResources;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class StaleConnectionRetryTest {
+
+	NettyContext  server;
+	AtomicInteger requests;
+	PoolResources pools;
+	HttpClient    client;
+
+	@Before
+	public void setUp() {
+		requests = new AtomicInteger();
+		Set<Channel> served = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		// every connection serves one request, the next one is closed without response
+		// as if the server idle timeout raced with the connection reuse
+		server = HttpServer.create(0)
+		                   .newHandler((req, res) -> {
+			                   requests.incrementAndGet();
+			                   Channel c = req.context()
+			                                  .channel();
+			                   if (!served.add(c)) {
+				                   c.close();
+				                   return Flowable.never();
+			                   }
+			                   return res.sendString(Flowable.just("ok"));
+		                   })
+		                   .blockingSingle();
+
+		pools = DefaultPoolResources.fixed("stale", 1);
+		client = HttpClient.create(o -> o.port(server.address()
+		                                             .getPort())
+		                                 .poolResources(pools));
+	}
+
+	@After
+	public void tearDown() {
+		pools.dispose();
+		server.dispose();
+	}
+
+	@Test
+	public void idempotentRequestIsRetriedOnStaleConnection() {
+		assertThat(exchange(HttpMethod.GET)).isEqualTo("ok");
+		assertThat(exchange(HttpMethod.GET)).isEqualTo("ok");
+		assertThat(requests.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void nonIdempotentRequestIsNotRetried() {
+		assertThat(exchange(HttpMethod.GET)).isEqualTo("ok");
+		try {
+			exchange(HttpMethod.POST);
+			fail("stale connection failure expected");
+		}
+		catch (Exception e) {
+			assertThat(requests.get()).isEqualTo(2);
+		}
+	}
+
+	String exchange(HttpMethod method) {
+		return client.request(method, "/", HttpClientRequest::send)
+		             .flatMap(r -> r.receive()
+		                            .aggregate()
+		                            .asString(StandardCharsets.UTF_8)
+		                            .toFlowable())
+		             .blockingFirst();
+	}
+}
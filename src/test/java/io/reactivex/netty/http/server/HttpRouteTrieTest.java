@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.http.server;
+
+import java.lang.reflect.Proxy;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpRouteTrieTest {
+
+	@Test
+	public void literalAndVariableSegments() {
+		HttpRouteTrie<String> trie = new HttpRouteTrie<>();
+		add(trie, 0, "/comments", HttpMethod.GET, "list");
+		add(trie, 1, "/comments/{id}", HttpMethod.GET, "one");
+		add(trie, 2, "/comments/{id}/author", HttpMethod.GET, "author");
+		add(trie, 3, "/1.0/comments", HttpMethod.GET, "versioned");
+
+		assertThat(trie.match(request(HttpMethod.GET, "/comments")).handler).isEqualTo("list");
+		HttpRouteTrie.Match<String> m = trie.match(request(HttpMethod.GET, "/comments/42"));
+		assertThat(m.handler).isEqualTo("one");
+		assertThat(m.params).containsEntry("id", "42");
+		m = trie.match(request(HttpMethod.GET, "/comments/42/author"));
+		assertThat(m.handler).isEqualTo("author");
+		assertThat(m.params).containsEntry("id", "42");
+		assertThat(trie.match(request(HttpMethod.GET, "/1.0/comments")).handler).isEqualTo("versioned");
+
+		assertThat(trie.match(request(HttpMethod.GET, "/comments/42/other"))).isNull();
+		assertThat(trie.match(request(HttpMethod.POST, "/comments"))).isNull();
+		assertThat(trie.match(request(HttpMethod.GET, "/comments?page=1"))).isNull();
+	}
+
+	@Test
+	public void splatSegments() {
+		HttpRouteTrie<String> trie = new HttpRouteTrie<>();
+		add(trie, 0, "/static/**", HttpMethod.GET, "static");
+		add(trie, 1, "/files/{path}**", null, "files");
+
+		assertThat(trie.match(request(HttpMethod.GET, "/static/"))).isNotNull();
+		assertThat(trie.match(request(HttpMethod.GET, "/static/a/b.css")).handler).isEqualTo("static");
+		assertThat(trie.match(request(HttpMethod.GET, "/static"))).isNull();
+
+		HttpRouteTrie.Match<String> m = trie.match(request(HttpMethod.PUT, "/files/a/b/c"));
+		assertThat(m.handler).isEqualTo("files");
+		assertThat(m.params).containsEntry("path", "a/b/c");
+	}
+
+	@Test
+	public void firstRegisteredRouteWins() {
+		HttpRouteTrie<String> trie = new HttpRouteTrie<>();
+		add(trie, 0, "/{collection}/{id}", null, "generic");
+		add(trie, 1, "/users/me", HttpMethod.GET, "me");
+		add(trie, 2, "/users/{id}", HttpMethod.GET, "user");
+
+		HttpRouteTrie.Match<String> m = trie.match(request(HttpMethod.GET, "/users/me"));
+		assertThat(m.handler).isEqualTo("generic");
+		assertThat(m.order).isEqualTo(0);
+		assertThat(m.params).containsEntry("collection", "users")
+		                    .containsEntry("id", "me");
+
+		trie = new HttpRouteTrie<>();
+		add(trie, 0, "/users/me", HttpMethod.GET, "me");
+		add(trie, 1, "/users/{id}", HttpMethod.GET, "user");
+		add(trie, 2, "/**", null, "fallback");
+
+		assertThat(trie.match(request(HttpMethod.GET, "/users/me")).handler).isEqualTo("me");
+		assertThat(trie.match(request(HttpMethod.GET, "/users/1")).handler).isEqualTo("user");
+		assertThat(trie.match(request(HttpMethod.GET, "/users/1/x")).handler).isEqualTo("fallback");
+	}
+
+	@Test
+	public void protocolIsChecked() {
+		HttpRouteTrie<String> trie = new HttpRouteTrie<>();
+		trie.add(0, new HttpPredicate("/a", HttpVersion.HTTP_1_0, null), "http10");
+		add(trie, 1, "/a", null, "any");
+
+		assertThat(trie.match(request(HttpMethod.GET, "/a")).handler).isEqualTo("any");
+	}
+
+	@Test
+	public void unsupportedTemplatesAreRejected() {
+		HttpRouteTrie<String> trie = new HttpRouteTrie<>();
+		assertThat(trie.add(0, new HttpPredicate("/a/**/b"), "x")).isFalse();
+		assertThat(trie.add(0, new HttpPredicate("/a/prefix-{id}"), "x")).isFalse();
+		assertThat(trie.add(0, new HttpPredicate("/a/(b|c)"), "x")).isFalse();
+		assertThat(trie.add(0, new HttpPredicate("a"), "x")).isFalse();
+	}
+
+	static void add(HttpRouteTrie<String> trie, int order, String uri, HttpMethod method,
+			String handler) {
+		assertThat(trie.add(order, new HttpPredicate(uri, null, method), handler)).isTrue();
+	}
+
+	static HttpServerRequest request(HttpMethod method, String uri) {
+		return (HttpServerRequest) Proxy.newProxyInstance(HttpRouteTrieTest.class.getClassLoader(),
+				new Class<?>[]{HttpServerRequest.class},
+				(proxy, m, args) -> {
+					switch (m.getName()) {
+						case "method":
+							return method;
+						case "uri":
+							return uri;
+						case "version":
+							return HttpVersion.HTTP_1_1;
+						default:
+							throw new UnsupportedOperationException(m.getName());
+					}
+				});
+	}
+}
@@ -66,6 +66,20 @@ public class HttpServerOptionsTest {
 		//gzip with threshold
 		builder.compression(534);
 		assertThat(builder.build().asSimpleString()).isEqualTo("listening on foo:123, gzip over 534 bytes");
+
+		//http2
+		builder.http2(true);
+		assertThat(builder.build().asSimpleString()).isEqualTo("listening on foo:123, gzip over 534 bytes, h2");
+	}
+
+	@Test
+	public void http2() {
+		HttpServerOptions options = HttpServerOptions.builder()
+		                                             .http2(true)
+		                                             .build();
+
+		assertThat(options.http2()).isTrue();
+		assertThat(HttpServerOptions.builder().build().http2()).isFalse();
 	}
 
 	@Test
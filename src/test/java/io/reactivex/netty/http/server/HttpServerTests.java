@@ -17,22 +17,37 @@
 
 package io.reactivex.netty.http.server;
 
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.security.cert.CertificateException;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.net.ssl.SSLException;
 
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LineBasedFrameDecoder;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.DefaultHttpContent;
@@ -42,17 +57,31 @@ import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http2.DefaultHttp2DataFrame;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersFrame;
+import io.netty.handler.codec.http2.Http2DataFrame;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2HeadersFrame;
+import io.netty.handler.codec.http2.Http2MultiplexCodecBuilder;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamChannelBootstrap;
+import io.netty.handler.codec.http2.Http2StreamFrame;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ApplicationProtocolNames;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.util.SelfSignedCertificate;
 import io.reactivex.Flowable;
 import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
 import io.reactivex.netty.http.HttpResources;
 import io.reactivex.netty.http.client.HttpClient;
 import io.reactivex.netty.resources.DefaultPoolResources;
 import io.reactivex.netty.resources.PoolResources;
 import io.reactivex.netty.tcp.TcpClient;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import io.reactivex.netty.ByteBufFlowable;
 import io.reactivex.netty.NettyContext;
@@ -437,6 +466,436 @@ public class HttpServerTests {
 		server.dispose();
 	}
 
+	@Test
+	public void http2PriorKnowledge() throws Exception {
+		NettyContext server =
+				HttpServer.create(ops -> ops.port(0).http2(true))
+				          .newRouter(r -> r.post("/echo/{name}",
+						          (req, res) -> res.sendString(req.receive()
+						                                          .aggregate()
+						                                          .asString(StandardCharsets.UTF_8)
+						                                          .map(s -> req.param("name") + ":" + s)
+						                                          .toFlowable())))
+				          .blockingSingle();
+
+		NioEventLoopGroup group = new NioEventLoopGroup(1);
+		try {
+			Channel connection = new Bootstrap().group(group)
+			                                    .channel(NioSocketChannel.class)
+			                                    .handler(Http2MultiplexCodecBuilder.forClient(new ChannelInitializer<Channel>() {
+				                                    @Override
+				                                    protected void initChannel(Channel ch) {
+					                                    // no server push
+				                                    }
+			                                    })
+			                                                                       .build())
+			                                    .connect(server.address())
+			                                    .sync()
+			                                    .channel();
+
+			BlockingQueue<String> received = new LinkedBlockingQueue<>();
+			Http2StreamChannel stream = new Http2StreamChannelBootstrap(connection)
+					.handler(new SimpleChannelInboundHandler<Http2StreamFrame>() {
+						@Override
+						protected void channelRead0(ChannelHandlerContext ctx, Http2StreamFrame msg) {
+							if (msg instanceof Http2HeadersFrame) {
+								received.add(((Http2HeadersFrame) msg).headers()
+								                                      .status()
+								                                      .toString());
+							}
+							else if (msg instanceof Http2DataFrame) {
+								received.add(((Http2DataFrame) msg).content()
+								                                   .toString(StandardCharsets.UTF_8));
+							}
+						}
+					})
+					.open()
+					.sync()
+					.getNow();
+
+			Http2Headers headers = new DefaultHttp2Headers().method("POST")
+			                                                .path("/echo/world")
+			                                                .scheme("http")
+			                                                .authority("localhost");
+			stream.write(new DefaultHttp2HeadersFrame(headers, false));
+			stream.writeAndFlush(new DefaultHttp2DataFrame(Unpooled.copiedBuffer("hello",
+					StandardCharsets.UTF_8), true));
+
+			assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo("200");
+			StringBuilder body = new StringBuilder();
+			String chunk;
+			while ((chunk = received.poll(1, TimeUnit.SECONDS)) != null) {
+				body.append(chunk);
+			}
+			assertThat(body.toString()).isEqualTo("world:hello");
+
+			connection.close()
+			          .sync();
+		}
+		finally {
+			group.shutdownGracefully();
+			server.dispose();
+		}
+	}
+
+	@Test
+	public void http2CleartextUpgrade() throws Exception {
+		NettyContext server =
+				HttpServer.create(ops -> ops.port(0).http2(true))
+				          .newRouter(r -> r.get("/hello",
+						          (req, res) -> res.sendString(Flowable.just("hello"))))
+				          .blockingSingle();
+
+		try (Socket socket = new Socket("localhost", server.address().getPort())) {
+			socket.setSoTimeout(5000);
+			OutputStream out = socket.getOutputStream();
+			out.write(("GET /hello HTTP/1.1\r\n" +
+					"Host: localhost\r\n" +
+					"Connection: Upgrade, HTTP2-Settings\r\n" +
+					"Upgrade: h2c\r\n" +
+					"HTTP2-Settings: AAMAAABkAARAAAAAAAIAAAAA\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+			StringBuilder head = new StringBuilder();
+			while (head.indexOf("\r\n\r\n") < 0) {
+				head.append((char) in.readByte());
+			}
+			assertThat(head.toString()).startsWith("HTTP/1.1 101");
+
+			// the server preface starts with a SETTINGS frame
+			byte[] frameHeader = new byte[9];
+			in.readFully(frameHeader);
+			assertThat(frameHeader[3]).isEqualTo((byte) 0x4);
+
+			// client preface and empty SETTINGS, then wait for the stream 1 DATA
+			out.write("PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			out.write(new byte[]{0, 0, 0, 0x4, 0, 0, 0, 0, 0});
+			out.flush();
+
+			in.readFully(new byte[frameLength(frameHeader)]);
+			StringBuilder body = new StringBuilder();
+			for (;;) {
+				in.readFully(frameHeader);
+				byte[] payload = new byte[frameLength(frameHeader)];
+				in.readFully(payload);
+				// DATA frame of stream 1
+				if (frameHeader[3] == 0x0 && frameStreamId(frameHeader) == 1) {
+					body.append(new String(payload, StandardCharsets.UTF_8));
+					if ((frameHeader[4] & 0x1) != 0) {
+						break;
+					}
+				}
+			}
+			assertThat(body.toString()).isEqualTo("hello");
+		}
+		finally {
+			server.dispose();
+		}
+	}
+
+	@Test
+	public void unreadRequestBodyIsDiscardedToKeepAlive() throws Exception {
+		NettyContext server =
+				HttpServer.create(0)
+				          .newRouter(r -> r.post("/upload",
+						          (req, res) -> res.status(HttpResponseStatus.UNAUTHORIZED)
+						                           .sendString(Flowable.just("denied")))
+				                           .get("/hello",
+						                           (req, res) -> res.sendString(Flowable.just("hello"))))
+				          .blockingSingle();
+
+		try (Socket socket = new Socket("localhost", server.address().getPort())) {
+			socket.setSoTimeout(5000);
+			OutputStream out = socket.getOutputStream();
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+			byte[] body = new byte[32 * 1024];
+			Arrays.fill(body, (byte) 'x');
+
+			// the body is sent after the rejection has been received
+			out.write(("POST /upload HTTP/1.1\r\n" +
+					"Host: localhost\r\n" +
+					"Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+			assertThat(readResponse(in)).startsWith("HTTP/1.1 401")
+			                            .endsWith("denied");
+
+			out.write(body);
+			out.write("GET /hello HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+			assertThat(readResponse(in)).startsWith("HTTP/1.1 200")
+			                            .endsWith("hello");
+		}
+		finally {
+			server.dispose();
+		}
+	}
+
+	@Test
+	public void stalledUnreadRequestBodyClosesConnection() throws Exception {
+		NettyContext server =
+				HttpServer.create(0)
+				          .newRouter(r -> r.post("/upload",
+						          (req, res) -> res.status(HttpResponseStatus.UNAUTHORIZED)
+						                           .sendString(Flowable.just("denied"))))
+				          .blockingSingle();
+
+		try (Socket socket = new Socket("localhost", server.address().getPort())) {
+			socket.setSoTimeout(5000);
+			OutputStream out = socket.getOutputStream();
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+
+			// part of the body is sent, the rest never comes
+			out.write(("POST /upload HTTP/1.1\r\n" +
+					"Host: localhost\r\n" +
+					"Content-Length: 1024\r\n\r\n" +
+					"partial").getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+			assertThat(readResponse(in)).startsWith("HTTP/1.1 401");
+			assertThat(in.read()).as("closed by the server")
+			                     .isEqualTo(-1);
+		}
+		finally {
+			server.dispose();
+		}
+	}
+
+	@Test
+	public void largeUnreadRequestBodyClosesConnection() throws Exception {
+		NettyContext server =
+				HttpServer.create(0)
+				          .newRouter(r -> r.post("/upload",
+						          (req, res) -> res.status(HttpResponseStatus.UNAUTHORIZED)
+						                           .sendString(Flowable.just("denied"))))
+				          .blockingSingle();
+
+		try (Socket socket = new Socket("localhost", server.address().getPort())) {
+			socket.setSoTimeout(5000);
+			OutputStream out = socket.getOutputStream();
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+
+			out.write(("POST /upload HTTP/1.1\r\n" +
+					"Host: localhost\r\n" +
+					"Content-Length: " + 16 * 1024 * 1024 + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+			assertThat(readResponse(in)).startsWith("HTTP/1.1 401");
+			assertThat(in.read()).as("closed by the server")
+			                     .isEqualTo(-1);
+		}
+		finally {
+			server.dispose();
+		}
+	}
+
+	@Test
+	public void http11OnHttp2Server() {
+		NettyContext server =
+				HttpServer.create(ops -> ops.port(0).http2(true))
+				          .newRouter(r -> r.get("/hello",
+						          (req, res) -> res.sendString(Flowable.just("hello"))))
+				          .blockingSingle();
+
+		String body = HttpClient.create(server.address().getPort())
+		                        .get("/hello")
+		                        .flatMap(res -> res.receive()
+		                                           .aggregate()
+		                                           .asString(StandardCharsets.UTF_8)
+		                                           .toFlowable())
+		                        .blockingFirst();
+		assertThat(body).isEqualTo("hello");
+
+		server.dispose();
+	}
+
+	@Test
+	public void http2OverTlsAlpn() throws Exception {
+		SelfSignedCertificate ssc = new SelfSignedCertificate();
+		ApplicationProtocolConfig alpn = new ApplicationProtocolConfig(
+				ApplicationProtocolConfig.Protocol.ALPN,
+				ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+				ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+				ApplicationProtocolNames.HTTP_2,
+				ApplicationProtocolNames.HTTP_1_1);
+		SslContext sslServer = SslContextBuilder.forServer(ssc.certificate(), ssc.privateKey())
+		                                        .applicationProtocolConfig(alpn)
+		                                        .build();
+		SslContext sslH2Client = SslContextBuilder.forClient()
+		                                          .trustManager(ssc.cert())
+		                                          .applicationProtocolConfig(alpn)
+		                                          .build();
+		SslContext sslClient = SslContextBuilder.forClient()
+		                                        .trustManager(ssc.cert())
+		                                        .build();
+		Assume.assumeTrue("ALPN is not supported by the JDK", isAlpnSupported(sslServer));
+
+		NettyContext server =
+				HttpServer.create(ops -> ops.port(0)
+				                            .sslContext(sslServer)
+				                            .http2(true))
+				          .newRouter(r -> r.get("/protocol",
+						          (req, res) -> res.sendString(Flowable.just(
+								          req.context()
+								             .channel() instanceof Http2StreamChannel ? "h2" : "http/1.1"))))
+				          .blockingSingle();
+
+		try {
+			String h2 = HttpClient.create(ops -> ops.port(server.address().getPort())
+			                                        .sslContext(sslH2Client)
+			                                        .http2(true))
+			                      .get("/protocol")
+			                      .flatMap(r -> r.receive()
+			                                     .aggregate()
+			                                     .asString(StandardCharsets.UTF_8)
+			                                     .toFlowable())
+			                      .blockingFirst();
+			assertThat(h2).isEqualTo("h2");
+
+			// a client not advertising h2 falls back to HTTP/1.1
+			String http11 = HttpClient.create(ops -> ops.port(server.address().getPort())
+			                                            .sslContext(sslClient))
+			                          .get("/protocol")
+			                          .flatMap(r -> r.receive()
+			                                         .aggregate()
+			                                         .asString(StandardCharsets.UTF_8)
+			                                         .toFlowable())
+			                          .blockingFirst();
+			assertThat(http11).isEqualTo("http/1.1");
+		}
+		finally {
+			server.dispose();
+		}
+	}
+
+	static boolean isAlpnSupported(SslContext context) {
+		try {
+			context.newEngine(ByteBufAllocator.DEFAULT);
+			return true;
+		}
+		catch (RuntimeException e) {
+			return false;
+		}
+	}
+
+	@Test
+	public void smallBodyIsSentWithContentLength() {
+		char[] chars = new char[1024];
+		Arrays.fill(chars, 'x');
+		String kb = new String(chars);
+
+		NettyContext server =
+				HttpServer.create(0)
+				          .newRouter(r -> r.get("/scalar", (req, res) -> res.send(Flowable.just(Unpooled.copiedBuffer("ok", StandardCharsets.UTF_8))))
+				                           .get("/multi", (req, res) -> res.sendString(Flowable.just("hello", " ", "world")))
+				                           .get("/large", (req, res) -> res.sendString(Flowable.range(0, 16)
+				                                                                               .map(i -> kb))))
+				          .blockingSingle();
+
+		HttpClient client = HttpClient.create(server.address()
+		                                            .getPort());
+
+		checkBody(client, "/scalar", "ok", h -> "2".equals(h.get(HttpHeaderNames.CONTENT_LENGTH)));
+		// a body complete once subscribed is aggregated
+		checkBody(client, "/multi", "hello world", h -> "11".equals(h.get(HttpHeaderNames.CONTENT_LENGTH)));
+		checkBody(client, "/large", null, h -> !h.contains(HttpHeaderNames.CONTENT_LENGTH)
+				&& h.contains(HttpHeaderNames.TRANSFER_ENCODING));
+
+		server.dispose();
+	}
+
+	@Test
+	public void pendingBodyIsStreamedWithoutDelay() throws Exception {
+		NettyContext server =
+				HttpServer.create(0)
+				          .newRouter(r -> r.get("/pending",
+						          (req, res) -> res.sendString(Flowable.just("first")
+						                                               .concatWith(Flowable.never())))
+				                           .get("/interval",
+						                           (req, res) -> res.sendString(Flowable.interval(200, TimeUnit.MILLISECONDS)
+						                                                                .map(i -> "tick")))
+				                           .get("/sse",
+						                           (req, res) -> res.sse()
+						                                            .sendString(Flowable.interval(200, TimeUnit.MILLISECONDS)
+						                                                                .map(i -> "data: " + i + "\n\n"))))
+				          .blockingSingle();
+
+		try {
+			// the headers do not wait for the body to complete
+			assertThat(readHeaders(server, "/pending")).contains("transfer-encoding: chunked");
+			assertThat(readHeaders(server, "/interval")).contains("transfer-encoding: chunked");
+			assertThat(readHeaders(server, "/sse")).contains("text/event-stream")
+			                                       .contains("transfer-encoding: chunked");
+		}
+		finally {
+			server.dispose();
+		}
+	}
+
+	private static String readHeaders(NettyContext server, String uri) throws IOException {
+		try (Socket socket = new Socket("localhost", server.address().getPort())) {
+			socket.setSoTimeout(2000);
+			OutputStream out = socket.getOutputStream();
+			out.write(("GET " + uri + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+			StringBuilder response = new StringBuilder();
+			while (response.indexOf("\r\n\r\n") < 0) {
+				response.append((char) in.readByte());
+			}
+			return response.toString();
+		}
+	}
+
+	private static void checkBody(HttpClient client,
+			String uri,
+			String expected,
+			Predicate<HttpHeaders> headers) {
+		String body = client.get(uri)
+		                    .flatMap(res -> {
+			                    assertThat(headers.test(res.responseHeaders())).as(uri)
+			                                                                   .isTrue();
+			                    return res.receive()
+			                              .aggregate()
+			                              .asString(StandardCharsets.UTF_8)
+			                              .toFlowable();
+		                    })
+		                    .blockingFirst();
+		if (expected != null) {
+			assertThat(body).isEqualTo(expected);
+		}
+		else {
+			assertThat(body).hasSize(16 * 1024);
+		}
+	}
+
+	private static String readResponse(DataInputStream in) throws IOException {
+		StringBuilder head = new StringBuilder();
+		while (head.indexOf("\r\n\r\n") < 0) {
+			head.append((char) in.readByte());
+		}
+		int length = 0;
+		for (String line : head.toString()
+		                       .split("\r\n")) {
+			if (line.toLowerCase()
+			        .startsWith("content-length:")) {
+				length = Integer.parseInt(line.substring(15)
+				                              .trim());
+			}
+		}
+		byte[] body = new byte[length];
+		in.readFully(body);
+		return head + new String(body, StandardCharsets.UTF_8);
+	}
+
+	private static int frameLength(byte[] frameHeader) {
+		return (frameHeader[0] & 0xff) << 16 | (frameHeader[1] & 0xff) << 8 | frameHeader[2] & 0xff;
+	}
+
+	private static int frameStreamId(byte[] frameHeader) {
+		return (frameHeader[5] & 0x7f) << 24 | (frameHeader[6] & 0xff) << 16 |
+				(frameHeader[7] & 0xff) << 8 | frameHeader[8] & 0xff;
+	}
+
 	private void checkResponse(String url, int port) {
 		Flowable<HttpHeaders> response =
 				HttpClient.create(ops -> ops.port(port))
@@ -76,4 +76,31 @@ public class UriPathTemplateTest {
         assertThat(template.match("/tags/v1.0.0").entrySet(), empty());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void matchResultsShouldBeCached() {
+        UriPathTemplate template = new UriPathTemplate("/users/{id}", 8);
+        assertThat(template.match("/users/1"), hasEntry("id", "1"));
+        assertThat(template.matches("/users/1"), is(true));
+        assertThat(template.matches("/other"), is(false));
+        assertThat(template.matches("/other"), is(false));
+        assertThat(template.cacheMisses(), is(2L));
+        assertThat(template.cacheHits(), is(2L));
+    }
+
+    @Test
+    public void matchCacheShouldBeBounded() {
+        UriPathTemplate template = new UriPathTemplate("/users/{id}", 4);
+        for (int i = 0; i < 100; i++) {
+            assertThat(template.match("/users/" + i), hasEntry("id", "" + i));
+        }
+        assertThat(template.match("/users/0"), hasEntry("id", "0"));
+        assertThat(template.cacheMisses(), is(101L));
+        assertThat(template.cacheHits(), is(0L));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void matchResultsShouldBeImmutable() {
+        new UriPathTemplate("/users/{id}").match("/users/1").put("id", "2");
+    }
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.resources;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.EventLoop;
+import io.netty.resolver.AddressResolver;
+import io.netty.util.concurrent.Future;
+import io.reactivex.Flowable;
+import io.reactivex.netty.NettyContext;
+import io.reactivex.netty.http.client.HttpClient;
+import io.reactivex.netty.http.server.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class CachingAddressResolverGroupTest {
+
+	EventLoop loop;
+
+	@Before
+	public void setUp() {
+		loop = new DefaultEventLoop();
+	}
+
+	@After
+	public void tearDown() {
+		loop.shutdownGracefully();
+	}
+
+	@Test
+	public void cachesUntilTtlExpires() throws Exception {
+		CachingAddressResolverGroup.InMemoryBackend backend =
+				new CachingAddressResolverGroup.InMemoryBackend().put("backend",
+						200,
+						InetAddress.getByName("10.0.0.1"));
+		AddressResolver<InetSocketAddress> resolver =
+				CachingAddressResolverGroup.create(backend)
+				                           .getResolver(loop);
+
+		assertThat(resolve(resolver, "backend").getAddress()
+		                                       .getHostAddress()).isEqualTo("10.0.0.1");
+		assertThat(resolve(resolver, "BACKEND").getAddress()
+		                                       .getHostAddress()).isEqualTo("10.0.0.1");
+		assertThat(backend.lookups()).isEqualTo(1);
+
+		backend.put("backend", 200, InetAddress.getByName("10.0.0.2"));
+		Thread.sleep(250);
+
+		assertThat(resolve(resolver, "backend").getAddress()
+		                                       .getHostAddress()).isEqualTo("10.0.0.2");
+		assertThat(backend.lookups()).isEqualTo(2);
+	}
+
+	@Test
+	public void failuresAreNotCached() throws Exception {
+		CachingAddressResolverGroup.InMemoryBackend backend =
+				new CachingAddressResolverGroup.InMemoryBackend();
+		AddressResolver<InetSocketAddress> resolver =
+				CachingAddressResolverGroup.create(backend)
+				                           .getResolver(loop);
+
+		try {
+			resolve(resolver, "backend");
+			fail("expected an UnknownHostException");
+		}
+		catch (UnknownHostException e) {
+			assertThat(e).hasMessageContaining("backend");
+		}
+
+		backend.put("backend", 1000, InetAddress.getByName("10.0.0.1"));
+		assertThat(resolve(resolver, "backend").getAddress()
+		                                       .getHostAddress()).isEqualTo("10.0.0.1");
+		assertThat(backend.lookups()).isEqualTo(2);
+	}
+
+	@Test
+	public void expiredEntriesAreEvicted() throws Exception {
+		CachingAddressResolverGroup.InMemoryBackend backend =
+				new CachingAddressResolverGroup.InMemoryBackend().put("backend",
+						60000,
+						InetAddress.getByName("10.0.0.1"));
+		for (int i = 0; i < 10; i++) {
+			backend.put("host" + i, 100, InetAddress.getByName("10.0.1." + i));
+		}
+		CachingAddressResolverGroup group = CachingAddressResolverGroup.create(backend);
+		AddressResolver<InetSocketAddress> resolver = group.getResolver(loop);
+
+		try {
+			resolve(resolver, "unknown");
+			fail("expected an UnknownHostException");
+		}
+		catch (UnknownHostException e) {
+			assertThat(group.entries).as("failed lookup")
+			                         .doesNotContainKey("unknown");
+		}
+
+		for (int i = 0; i < 10; i++) {
+			resolve(resolver, "host" + i);
+		}
+		assertThat(group.entries).hasSize(10);
+
+		Thread.sleep(150);
+		for (int i = 0; i < CachingAddressResolverGroup.EVICT_EVERY; i++) {
+			resolve(resolver, "backend");
+		}
+		assertThat(group.entries).containsOnlyKeys("backend");
+	}
+
+	@Test
+	public void concurrentLookupsAreCoalesced() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger lookups = new AtomicInteger();
+		CachingAddressResolverGroup group = CachingAddressResolverGroup.create(host -> {
+			lookups.incrementAndGet();
+			release.await(5, TimeUnit.SECONDS);
+			return CachingAddressResolverGroup.Answer.of(1000,
+					InetAddress.getByName("10.0.0.1"));
+		});
+		AddressResolver<InetSocketAddress> resolver = group.getResolver(loop);
+
+		List<Future<InetSocketAddress>> futures = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			futures.add(resolver.resolve(InetSocketAddress.createUnresolved("backend", 80)));
+		}
+		release.countDown();
+
+		for (Future<InetSocketAddress> f : futures) {
+			assertThat(f.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(f.getNow()
+			            .getAddress()
+			            .getHostAddress()).isEqualTo("10.0.0.1");
+		}
+		assertThat(lookups.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void hotEntriesAreRefreshedAhead() throws Exception {
+		CachingAddressResolverGroup.InMemoryBackend backend =
+				new CachingAddressResolverGroup.InMemoryBackend().put("backend",
+						400,
+						InetAddress.getByName("10.0.0.1"));
+		AddressResolver<InetSocketAddress> resolver =
+				CachingAddressResolverGroup.create(backend)
+				                           .getResolver(loop);
+
+		resolve(resolver, "backend");
+		backend.put("backend", 400, InetAddress.getByName("10.0.0.2"));
+		Thread.sleep(320);
+
+		// within the last quarter of the TTL: served from cache while refreshing
+		assertThat(resolve(resolver, "backend").getAddress()
+		                                       .getHostAddress()).isEqualTo("10.0.0.1");
+		for (int i = 0; i < 50 && backend.lookups() < 2; i++) {
+			Thread.sleep(10);
+		}
+		Thread.sleep(20);
+		assertThat(resolve(resolver, "backend").getAddress()
+		                                       .getHostAddress()).isEqualTo("10.0.0.2");
+		assertThat(backend.lookups()).isEqualTo(2);
+	}
+
+	@Test
+	public void ipLiteralsAreNotLookedUp() throws Exception {
+		CachingAddressResolverGroup.InMemoryBackend backend =
+				new CachingAddressResolverGroup.InMemoryBackend();
+		AddressResolver<InetSocketAddress> resolver =
+				CachingAddressResolverGroup.create(backend)
+				                           .getResolver(loop);
+
+		assertThat(resolve(resolver, "127.0.0.1").getAddress()
+		                                         .isLoopbackAddress()).isTrue();
+		assertThat(backend.lookups()).isEqualTo(0);
+	}
+
+	@Test
+	public void httpClientResolvesThroughGroup() throws Exception {
+		NettyContext server = HttpServer.create(0)
+		                                .newHandler((req, res) -> res.sendString(Flowable.just(
+				                                "ok")))
+		                                .blockingSingle();
+		CachingAddressResolverGroup.InMemoryBackend backend =
+				new CachingAddressResolverGroup.InMemoryBackend().put("backend",
+						10000,
+						InetAddress.getLoopbackAddress());
+		HttpClient client = HttpClient.create(o -> o.host("backend")
+		                                            .port(server.address()
+		                                                        .getPort())
+		                                            .resolver(CachingAddressResolverGroup.create(
+				                                            backend)));
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(client.get("/")
+			                 .flatMap(r -> r.receive()
+			                                .aggregate()
+			                                .asString(StandardCharsets.UTF_8)
+			                                .toFlowable())
+			                 .blockingFirst()).isEqualTo("ok");
+		}
+		assertThat(backend.lookups()).isEqualTo(1);
+
+		server.dispose();
+	}
+
+	static InetSocketAddress resolve(AddressResolver<InetSocketAddress> resolver,
+			String host) throws Exception {
+		Future<InetSocketAddress> f =
+				resolver.resolve(InetSocketAddress.createUnresolved(host, 80));
+		assertThat(f.await(5, TimeUnit.SECONDS)).isTrue();
+		if (!f.isSuccess()) {
+			throw (Exception) f.cause();
+		}
+		return f.getNow();
+	}
+}
@@ -17,15 +17,31 @@
 package io.reactivex.netty.resources;
 
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
 import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
 import io.netty.channel.pool.ChannelPool;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.Promise;
 import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.netty.NettyContext;
+import io.reactivex.netty.http.client.HttpClient;
+import io.reactivex.netty.http.server.HttpServer;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -113,4 +129,304 @@ public class DefaultPoolResourcesTest {
 		assertThat(closed.get()).as("pool closed only once").isEqualTo(1);
 	}
 
+	@Test
+	public void metricsTrackPoolActivity() throws Exception {
+		NettyContext server =
+				HttpServer.create(0)
+				          .newHandler((req, res) -> res.sendString(Flowable.just("ok")))
+				          .blockingSingle();
+
+		PoolResources pools = DefaultPoolResources.fixed("metrics", 2);
+		AtomicInteger created = new AtomicInteger();
+		AtomicInteger acquired = new AtomicInteger();
+		Disposable listener = pools.addListener(new PoolMetrics.Listener() {
+			@Override
+			public void onCreated(SocketAddress remoteAddress, Channel channel) {
+				created.incrementAndGet();
+			}
+
+			@Override
+			public void onAcquired(SocketAddress remoteAddress,
+					Channel channel,
+					long acquireTimeNanos) {
+				acquired.incrementAndGet();
+			}
+		});
+
+		HttpClient client = HttpClient.create(o -> o.port(server.address()
+		                                                        .getPort())
+		                                            .poolResources(pools));
+		for (int i = 0; i < 3; i++) {
+			String body = client.get("/")
+			                    .flatMap(r -> r.receive()
+			                                   .aggregate()
+			                                   .asString(StandardCharsets.UTF_8)
+			                                   .toFlowable())
+			                    .blockingFirst();
+			assertThat(body).isEqualTo("ok");
+		}
+
+		List<PoolMetrics> metrics = pools.metrics();
+		assertThat(metrics).hasSize(1);
+		for (int i = 0; i < 50 && pools.metrics()
+		                               .get(0)
+		                               .activeConnections() != 0; i++) {
+			Thread.sleep(100);
+		}
+
+		PoolMetrics m = pools.metrics()
+		                     .get(0);
+		assertThat(m.createdConnections()).isEqualTo(1);
+		assertThat(m.connections()).isEqualTo(1);
+		assertThat(m.activeConnections()).isEqualTo(0);
+		assertThat(m.idleConnections()).isEqualTo(1);
+		assertThat(m.pendingAcquires()).isEqualTo(0);
+		assertThat(m.acquires()).isEqualTo(3);
+		assertThat(m.acquireFailures()).isEqualTo(0);
+		assertThat(m.acquireTimeNanos()).isPositive();
+		assertThat(created.get()).isEqualTo(1);
+		assertThat(acquired.get()).isEqualTo(3);
+
+		listener.dispose();
+		pools.dispose();
+		server.dispose();
+	}
+
+	@Test
+	public void idleConnectionsAreClosed() throws Exception {
+		NettyContext server =
+				HttpServer.create(0)
+				          .newHandler((req, res) -> res.sendString(Flowable.just("ok")))
+				          .blockingSingle();
+
+		PoolResources pools = DefaultPoolResources.fixed("idle", 2, 45000, 200, -1);
+		HttpClient client = HttpClient.create(o -> o.port(server.address()
+		                                                        .getPort())
+		                                            .poolResources(pools));
+
+		assertThat(get(client)).isEqualTo("ok");
+		for (int i = 0; i < 50 && pools.metrics()
+		                               .get(0)
+		                               .connections() != 0; i++) {
+			Thread.sleep(100);
+		}
+		assertThat(pools.metrics()
+		                .get(0)
+		                .connections()).as("idle connection closed")
+		                               .isEqualTo(0);
+
+		assertThat(get(client)).isEqualTo("ok");
+		assertThat(pools.metrics()
+		                .get(0)
+		                .createdConnections()).isEqualTo(2);
+		assertThat(pools.metrics()
+		                .get(0)
+		                .healthCheckFailures()).isEqualTo(0);
+
+		pools.dispose();
+		server.dispose();
+	}
+
+	@Test
+	public void expiredConnectionsAreNotAcquired() throws Exception {
+		NettyContext server =
+				HttpServer.create(0)
+				          .newHandler((req, res) -> res.sendString(Flowable.just("ok")))
+				          .blockingSingle();
+
+		PoolResources pools = DefaultPoolResources.elastic("lifetime", -1, 2000);
+		HttpClient client = HttpClient.create(o -> o.port(server.address()
+		                                                        .getPort())
+		                                            .poolResources(pools));
+
+		assertThat(get(client)).isEqualTo("ok");
+		awaitIdle(pools);
+		assertThat(get(client)).isEqualTo("ok");
+		assertThat(pools.metrics()
+		                .get(0)
+		                .createdConnections()).as("reused before expiry")
+		                                      .isEqualTo(1);
+
+		awaitIdle(pools);
+		Thread.sleep(2100);
+		assertThat(get(client)).isEqualTo("ok");
+		assertThat(pools.metrics()
+		                .get(0)
+		                .createdConnections()).as("replaced after expiry")
+		                                      .isEqualTo(2);
+
+		pools.dispose();
+		server.dispose();
+	}
+
+	@Test
+	public void partitionedPoolPrefersLocalLoop() throws Exception {
+		DefaultEventLoopGroup group = new DefaultEventLoopGroup(2);
+		LocalAddress address = new LocalAddress("partitionedPoolPrefersLocalLoop");
+		Channel server = localServer(group, address);
+		Bootstrap bootstrap = new Bootstrap().group(group)
+		                                     .channel(LocalChannel.class)
+		                                     .remoteAddress(address);
+		DefaultPoolResources.PartitionedPool pool =
+				new DefaultPoolResources.PartitionedPool(bootstrap,
+						DefaultPoolResources.fixedProvider(1, 45000),
+						null,
+						group,
+						new CopyOnWriteArrayList<>(),
+						1,
+						-1,
+						-1L,
+						-1L);
+		EventLoop loopA = group.next();
+		EventLoop loopB = group.next();
+		try {
+			Channel a = acquire(pool, loopA);
+			assertThat(a.eventLoop()).isSameAs(loopA);
+			pool.release(a)
+			    .sync();
+
+			Channel b = acquire(pool, loopB);
+			assertThat(b).as("local connection created").isNotSameAs(a);
+			assertThat(b.eventLoop()).isSameAs(loopB);
+
+			Channel stolen = acquire(pool, loopB);
+			assertThat(stolen).as("idle connection stolen once exhausted").isSameAs(a);
+
+			pool.release(stolen)
+			    .sync();
+			pool.release(b)
+			    .sync();
+			assertThat(acquire(pool, loopA)).isSameAs(a);
+			assertThat(acquire(pool, loopB)).isSameAs(b);
+
+			PoolMetrics metrics = pool.metrics();
+			assertThat(metrics.createdConnections()).isEqualTo(2);
+			assertThat(metrics.acquires()).isEqualTo(5);
+			assertThat(metrics.activeConnections()).isEqualTo(2);
+		}
+		finally {
+			pool.close();
+			server.close()
+			      .sync();
+			group.shutdownGracefully();
+		}
+	}
+
+	@Test
+	public void pendingAcquiresAreBounded() throws Exception {
+		DefaultEventLoopGroup group = new DefaultEventLoopGroup(1);
+		LocalAddress address = new LocalAddress("pendingAcquiresAreBounded");
+		Channel server = localServer(group, address);
+		Bootstrap bootstrap = new Bootstrap().group(group)
+		                                     .channel(LocalChannel.class)
+		                                     .remoteAddress(address);
+		DefaultPoolResources.Pool pool =
+				new DefaultPoolResources.Pool(bootstrap,
+						DefaultPoolResources.fixedProvider(1, 45000),
+						null,
+						group,
+						new CopyOnWriteArrayList<>(),
+						1,
+						1,
+						-1L,
+						-1L);
+		try {
+			Channel first = pool.acquire()
+			                    .get(5, TimeUnit.SECONDS);
+			Future<Channel> queued = pool.acquire();
+			Future<Channel> rejected = pool.acquire();
+
+			assertThat(rejected.isDone()).as("rejected without waiting")
+			                             .isTrue();
+			assertThat(rejected.cause()).isInstanceOf(PoolAcquireRejectedException.class);
+			assertThat(queued.isDone()).isFalse();
+			assertThat(pool.metrics()
+			               .queuedAcquires()).isEqualTo(1);
+			assertThat(pool.metrics()
+			               .acquireFailures()).isEqualTo(1);
+
+			pool.release(first)
+			    .sync();
+			assertThat(queued.get(5, TimeUnit.SECONDS)).isSameAs(first);
+			assertThat(pool.metrics()
+			               .queuedAcquires()).isEqualTo(0);
+		}
+		finally {
+			pool.close();
+		}
+
+		// never queue: acquire while connections are available, reject at once after
+		DefaultPoolResources.Pool unqueued =
+				new DefaultPoolResources.Pool(bootstrap,
+						DefaultPoolResources.fixedProvider(2, 45000),
+						null,
+						group,
+						new CopyOnWriteArrayList<>(),
+						2,
+						0,
+						-1L,
+						-1L);
+		try {
+			Channel first = unqueued.acquire()
+			                        .get(5, TimeUnit.SECONDS);
+			Channel second = unqueued.acquire()
+			                         .get(5, TimeUnit.SECONDS);
+			assertThat(second).isNotSameAs(first);
+
+			Future<Channel> rejected = unqueued.acquire();
+			assertThat(rejected.isDone()).as("rejected without waiting")
+			                             .isTrue();
+			assertThat(rejected.cause()).isInstanceOf(PoolAcquireRejectedException.class);
+			assertThat(unqueued.metrics()
+			                   .queuedAcquires()).isEqualTo(0);
+		}
+		finally {
+			unqueued.close();
+			server.close()
+			      .sync();
+			group.shutdownGracefully();
+		}
+	}
+
+	private static Channel localServer(EventLoopGroup group, LocalAddress address)
+			throws InterruptedException {
+		return new ServerBootstrap().group(group)
+		                            .channel(LocalServerChannel.class)
+		                            .childHandler(new ChannelInitializer<Channel>() {
+			                            @Override
+			                            protected void initChannel(Channel ch) {
+			                            }
+		                            })
+		                            .bind(address)
+		                            .sync()
+		                            .channel();
+	}
+
+	private static Channel acquire(ChannelPool pool, EventLoop loop) throws Exception {
+		return loop.submit(() -> pool.acquire())
+		           .get(5, TimeUnit.SECONDS)
+		           .get(5, TimeUnit.SECONDS);
+	}
+
+	private static void awaitIdle(PoolResources pools) throws InterruptedException {
+		// the connection is released back to the pool asynchronously
+		for (int i = 0; i < 100 && pools.metrics()
+		                                .get(0)
+		                                .idleConnections() != 1; i++) {
+			Thread.sleep(20);
+		}
+		assertThat(pools.metrics()
+		                .get(0)
+		                .idleConnections()).isEqualTo(1);
+	}
+
+	private static String get(HttpClient client) {
+		return client.get("/")
+		             .flatMap(r -> r.receive()
+		                            .aggregate()
+		                            .asString(StandardCharsets.UTF_8)
+		                            .toFlowable())
+		             .blockingFirst();
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2017 RxNetty Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.netty.resources;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.netty.NettyContext;
+import io.reactivex.netty.http.client.HttpClient;
+import io.reactivex.netty.http.server.HttpServer;
+import io.reactivex.processors.PublishProcessor;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadBalancerTest {
+
+	@Test
+	public void roundRobinCyclesEndpoints() {
+		List<SocketAddress> endpoints = Arrays.asList(InetSocketAddress.createUnresolved("a", 80),
+				InetSocketAddress.createUnresolved("b", 80),
+				InetSocketAddress.createUnresolved("c", 80));
+		LoadBalancer lb = LoadBalancer.roundRobin(endpoints);
+
+		assertThat(Flowable.range(0, 6)
+		                   .map(i -> lb.call())
+		                   .toList()
+		                   .blockingGet()).containsExactly(endpoints.get(0),
+				endpoints.get(1),
+				endpoints.get(2),
+				endpoints.get(0),
+				endpoints.get(1),
+				endpoints.get(2));
+	}
+
+	@Test
+	public void leastOutstandingAvoidsBusyEndpoint() throws Exception {
+		avoidsBusyEndpoint((pools, endpoints) -> LoadBalancer.leastOutstanding(endpoints,
+				pools));
+	}
+
+	@Test
+	public void powerOfTwoChoicesAvoidsBusyEndpoint() throws Exception {
+		avoidsBusyEndpoint((pools, endpoints) -> LoadBalancer.powerOfTwoChoices(endpoints,
+				pools));
+	}
+
+	void avoidsBusyEndpoint(BiFunction<PoolResources, List<SocketAddress>, LoadBalancer> strategy)
+			throws Exception {
+		AtomicBoolean first = new AtomicBoolean(true);
+		PublishProcessor<String> gate = PublishProcessor.create();
+		AtomicInteger requestsA = new AtomicInteger();
+		AtomicInteger requestsB = new AtomicInteger();
+
+		NettyContext serverA = server(requestsA, first, gate);
+		NettyContext serverB = server(requestsB, first, gate);
+
+		PoolResources pools = DefaultPoolResources.elastic("lb");
+		LoadBalancer lb = strategy.apply(pools,
+				Arrays.asList(serverA.address(), serverB.address()));
+		HttpClient client = HttpClient.create(o -> o.poolResources(pools)
+		                                            .loadBalancer(lb));
+
+		Disposable pending = client.get("/")
+		                           .flatMap(r -> r.receive()
+		                                          .aggregate()
+		                                          .asString(StandardCharsets.UTF_8)
+		                                          .toFlowable())
+		                           .subscribe();
+		for (int i = 0; i < 50 && requestsA.get() + requestsB.get() == 0; i++) {
+			Thread.sleep(100);
+		}
+
+		for (int i = 0; i < 3; i++) {
+			awaitActiveConnections(pools, 1);
+			assertThat(client.get("/")
+			                 .flatMap(r -> r.receive()
+			                                .aggregate()
+			                                .asString(StandardCharsets.UTF_8)
+			                                .toFlowable())
+			                 .blockingFirst()).isEqualTo("ok");
+		}
+
+		assertThat(Arrays.asList(requestsA.get(), requestsB.get())).as("busy endpoint skipped")
+		                                                           .containsExactlyInAnyOrder(1, 3);
+
+		gate.onNext("late");
+		gate.onComplete();
+		pending.dispose();
+		pools.dispose();
+		serverA.dispose();
+		serverB.dispose();
+	}
+
+	@Test
+	public void endpointsSharingAPortAreConnectedAsPicked() throws Exception {
+		List<String> hostsA = new CopyOnWriteArrayList<>();
+		List<String> hostsB = new CopyOnWriteArrayList<>();
+		NettyContext serverA = HttpServer.create("127.0.0.1", 0)
+		                                 .newHandler((req, res) -> {
+			                                 hostsA.add(req.requestHeaders()
+			                                               .get(HttpHeaderNames.HOST));
+			                                 return res.sendString(Flowable.just("a"));
+		                                 })
+		                                 .blockingSingle();
+		int port = serverA.address()
+		                  .getPort();
+		NettyContext serverB = HttpServer.create("127.0.0.2", port)
+		                                 .newHandler((req, res) -> {
+			                                 hostsB.add(req.requestHeaders()
+			                                               .get(HttpHeaderNames.HOST));
+			                                 return res.sendString(Flowable.just("b"));
+		                                 })
+		                                 .blockingSingle();
+
+		List<SocketAddress> endpoints = Arrays.asList(new InetSocketAddress("127.0.0.1", port),
+				new InetSocketAddress("127.0.0.2", port));
+		PoolResources pools = DefaultPoolResources.elastic("lb");
+		HttpClient client = HttpClient.create(o -> o.poolResources(pools)
+		                                            .loadBalancer(LoadBalancer.roundRobin(
+				                                            endpoints)));
+
+		// the URL host is only used for the Host header, it does not resolve
+		assertThat(Flowable.range(0, 4)
+		                   .concatMap(i -> client.get("http://backend:" + port + "/")
+		                                         .flatMap(r -> r.receive()
+		                                                        .aggregate()
+		                                                        .asString(StandardCharsets.UTF_8)
+		                                                        .toFlowable()))
+		                   .toList()
+		                   .blockingGet()).containsExactly("a", "b", "a", "b");
+		assertThat(hostsA).containsOnly("backend:" + port)
+		                  .hasSize(2);
+		assertThat(hostsB).containsOnly("backend:" + port)
+		                  .hasSize(2);
+
+		List<SocketAddress> remotes = new ArrayList<>();
+		for (PoolMetrics m : pools.metrics()) {
+			remotes.add(m.remoteAddress());
+		}
+		assertThat(remotes).containsOnlyElementsOf(endpoints)
+	                   .hasSize(2);
+
+		pools.dispose();
+		serverA.dispose();
+		serverB.dispose();
+	}
+
+	static void awaitActiveConnections(PoolResources pools, int expected)
+			throws InterruptedException {
+		for (int i = 0; i < 50; i++) {
+			int active = 0;
+			for (PoolMetrics m : pools.metrics()) {
+				active += m.activeConnections();
+			}
+			if (active == expected) {
+				return;
+			}
+			Thread.sleep(20);
+		}
+	}
+
+	static NettyContext server(AtomicInteger requests,
+			AtomicBoolean first,
+			PublishProcessor<String> gate) {
+		return HttpServer.create(0)
+		                 .newHandler((req, res) -> {
+			                 requests.incrementAndGet();
+			                 if (first.compareAndSet(true, false)) {
+				                 return res.sendString(gate);
+			                 }
+			                 return res.sendString(Flowable.just("ok"));
+		                 })
+		                 .blockingSingle();
+	}
+}